@@ -0,0 +1,151 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps working-tree changes reported by {@code git} onto reactor modules, so a build can be
+ * limited to the changed modules and everything downstream of them.
+ */
+final class AffectedModules {
+
+    static final String DEFAULT_BASE = "HEAD";
+    private static final long GIT_TIMEOUT_SECONDS = 30;
+
+    private AffectedModules() {
+    }
+
+    /**
+     * Interprets the {@code mse.affected} option: {@code null} or an off value disables the mode,
+     * an empty or boolean-true value diffs against {@code HEAD}, anything else is a git revision.
+     */
+    static String resolveBase(String rawValue) {
+        if (rawValue == null) return null;
+        String value = rawValue.trim();
+        String lower = value.toLowerCase(Locale.ROOT);
+        if (SilentEventSpy.isOffValue(lower)) return null;
+        if (value.isEmpty() || SilentEventSpy.isOnValue(lower)) return DEFAULT_BASE;
+        return value;
+    }
+
+    /**
+     * Returns absolute paths of files that differ from {@code base}, including untracked files.
+     */
+    static List<Path> changedPaths(File workDir, String base) throws IOException {
+        List<String> topLevel = git(workDir, '\n', "rev-parse", "--show-toplevel");
+        if (topLevel.isEmpty()) {
+            throw new IOException("not a git work tree: " + workDir);
+        }
+        Path root = realPath(new File(topLevel.get(0)).toPath());
+        Set<String> relative = new LinkedHashSet<>();
+        // -z keeps paths with spaces, quotes or non-ASCII characters verbatim instead of C-quoted
+        relative.addAll(git(workDir, '\0', "diff", "--name-only", "-z", base, "--"));
+        relative.addAll(git(workDir, '\0', "ls-files", "-z", "--others", "--exclude-standard", "--full-name"));
+        List<Path> paths = new ArrayList<>(relative.size());
+        for (String rel : relative) {
+            paths.add(root.resolve(rel).toAbsolutePath().normalize());
+        }
+        return paths;
+    }
+
+    /**
+     * Assigns every path to the module with the deepest basedir containing it. Paths outside
+     * the reactor are ignored. Basedirs are compared with symlinks resolved, as git reports
+     * them, so a checkout reached through a symlink still matches.
+     */
+    static Set<MavenProject> owningModules(Collection<MavenProject> projects, Collection<Path> paths) {
+        Map<MavenProject, Path> bases = new IdentityHashMap<>();
+        for (MavenProject project : projects) {
+            File basedir = project.getBasedir();
+            if (basedir != null) bases.put(project, realPath(basedir.toPath()));
+        }
+        Set<MavenProject> owners = ModuleSelection.newProjectSet();
+        for (Path path : paths) {
+            MavenProject owner = null;
+            int ownerDepth = -1;
+            for (Map.Entry<MavenProject, Path> entry : bases.entrySet()) {
+                MavenProject project = entry.getKey();
+                Path base = entry.getValue();
+                if (path.startsWith(base) && base.getNameCount() > ownerDepth) {
+                    owner = project;
+                    ownerDepth = base.getNameCount();
+                }
+            }
+            if (owner != null) {
+                owners.add(owner);
+            }
+        }
+        return owners;
+    }
+
+    static Set<MavenProject> affected(Collection<MavenProject> projects, ProjectDependencyGraph graph,
+                                      Collection<Path> changedPaths) {
+        return ModuleSelection.withDownstream(graph, owningModules(projects, changedPaths));
+    }
+
+    /** The path with symlinks resolved, or just normalized when it cannot be resolved. */
+    static Path realPath(Path path) {
+        try {
+            return path.toRealPath();
+        } catch (IOException e) {
+            return path.toAbsolutePath().normalize();
+        }
+    }
+
+    /** Runs git and splits its output on {@code separator}, dropping empty entries. */
+    private static List<String> git(File workDir, char separator, String... args) throws IOException {
+        List<String> command = new ArrayList<>(args.length + 1);
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command)
+                .directory(workDir)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        List<String> lines = new ArrayList<>();
+        try (Reader reader = new BufferedReader(new InputStreamReader(
+                process.getInputStream(), StandardCharsets.UTF_8))) {
+            StringBuilder entry = new StringBuilder();
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (c == separator || (separator == '\n' && c == '\r')) {
+                    if (entry.length() > 0) lines.add(entry.toString());
+                    entry.setLength(0);
+                } else {
+                    entry.append((char) c);
+                }
+            }
+            if (entry.length() > 0) lines.add(entry.toString());
+        }
+        try {
+            if (!process.waitFor(GIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("git " + args[0] + " timed out");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted waiting for git " + args[0]);
+        }
+        if (process.exitValue() != 0) {
+            throw new IOException("git " + String.join(" ", args) + " exited with " + process.exitValue());
+        }
+        return lines;
+    }
+}
@@ -2,6 +2,7 @@ package jerrinot.info.mse;
 
 import jerrinot.info.mse.model.CompilerError;
 import jerrinot.info.mse.model.TestFailure;
+import jerrinot.info.mse.model.TestSuiteTime;
 import jerrinot.info.mse.model.TestSummary;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -11,9 +12,16 @@ import org.xml.sax.helpers.DefaultHandler;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -39,8 +47,17 @@ class ArtifactParser {
         return dbf;
     });
 
+    private static final ThreadLocal<XMLInputFactory> XIF = ThreadLocal.withInitial(() -> {
+        XMLInputFactory xif = XMLInputFactory.newInstance();
+        // XXE protection, as for the DOM parser
+        xif.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xif.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return xif;
+    });
+
     static void clearThreadLocal() {
         DBF.remove();
+        XIF.remove();
     }
 
     static List<CompilerError> parseCompilerOutput(String output) {
@@ -65,6 +82,16 @@ class ArtifactParser {
     }
 
     TestSummary parseReportsDir(File reportsDir, Consumer<String> diagnostics) {
+        return parseReportsDir(reportsDir, diagnostics, () -> false);
+    }
+
+    /**
+     * @param countsOnly checked before each report; once true, reports of passing suites are
+     *                   read only up to the root element's counts and time (a bounded streaming
+     *                   read instead of building the whole document). Reports that count failures
+     *                   or errors are still parsed in full so their details are never lost.
+     */
+    TestSummary parseReportsDir(File reportsDir, Consumer<String> diagnostics, BooleanSupplier countsOnly) {
         if (!reportsDir.isDirectory()) {
             return TestSummary.EMPTY;
         }
@@ -79,8 +106,24 @@ class ArtifactParser {
         int errors = 0;
         int skipped = 0;
         List<TestFailure> failureDetails = new ArrayList<>();
+        List<TestSuiteTime> suites = new ArrayList<>();
 
         for (File xml : xmlFiles) {
+            if (countsOnly.getAsBoolean()) {
+                RootCounts root;
+                try {
+                    root = parseRootCounts(xml);
+                } catch (Exception e) {
+                    diagnostics.accept("skipping corrupt report " + xml.getName() + ": " + e.getMessage());
+                    continue;
+                }
+                if (root.failures == 0 && root.errors == 0) {
+                    total += root.tests;
+                    skipped += root.skipped;
+                    suites.add(new TestSuiteTime(root.name, root.tests, root.timeMillis));
+                    continue;
+                }
+            }
             try {
                 Document doc = parseXml(xml);
                 Element root = doc.getDocumentElement();
@@ -92,13 +135,14 @@ class ArtifactParser {
                 failures += f;
                 errors += e;
                 skipped += s;
+                suites.add(new TestSuiteTime(root.getAttribute("name"), t, timeMillisAttr(root, "time")));
                 extractFailureDetails(root, failureDetails);
             } catch (Exception e) {
                 diagnostics.accept("skipping corrupt report " + xml.getName() + ": " + e.getMessage());
             }
         }
 
-        return new TestSummary(total, failures, errors, skipped, failureDetails);
+        return new TestSummary(total, failures, errors, skipped, failureDetails, suites);
     }
 
     private void extractFailureDetails(Element root, List<TestFailure> results) {
@@ -133,6 +177,40 @@ class ArtifactParser {
         }
     }
 
+    private static final class RootCounts {
+        String name;
+        int tests;
+        int failures;
+        int errors;
+        int skipped;
+        long timeMillis;
+    }
+
+    private static RootCounts parseRootCounts(File xml) throws Exception {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(xml))) {
+            XMLStreamReader reader = XIF.get().createXMLStreamReader(in);
+            try {
+                while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    // skip prolog
+                }
+                if (!reader.isStartElement()) {
+                    throw new IllegalStateException("no root element");
+                }
+                RootCounts root = new RootCounts();
+                String name = reader.getAttributeValue(null, "name");
+                root.name = name != null ? name : "";
+                root.tests = intValue(reader.getAttributeValue(null, "tests"));
+                root.failures = intValue(reader.getAttributeValue(null, "failures"));
+                root.errors = intValue(reader.getAttributeValue(null, "errors"));
+                root.skipped = intValue(reader.getAttributeValue(null, "skipped"));
+                root.timeMillis = timeMillisValue(reader.getAttributeValue(null, "time"));
+                return root;
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
     private Document parseXml(File xml) throws Exception {
         DocumentBuilder db = DBF.get().newDocumentBuilder();
         db.setErrorHandler(new DefaultHandler());
@@ -157,9 +235,31 @@ class ArtifactParser {
         return sb.toString().trim();
     }
 
-    private static int intAttr(Element el, String name) {
-        String val = el.getAttribute(name);
+    /**
+     * Parses a seconds attribute such as {@code time="1,234.5"} (some Surefire versions group
+     * thousands) into milliseconds.
+     */
+    static long timeMillisAttr(Element el, String name) {
+        return timeMillisValue(el.getAttribute(name));
+    }
+
+    private static long timeMillisValue(String raw) {
+        if (raw == null) return 0;
+        String val = raw.replace(",", "").trim();
         if (val.isEmpty()) return 0;
+        try {
+            return Math.max(0, Math.round(Double.parseDouble(val) * 1000));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static int intAttr(Element el, String name) {
+        return intValue(el.getAttribute(name));
+    }
+
+    private static int intValue(String val) {
+        if (val == null || val.isEmpty()) return 0;
         try {
             return Integer.parseInt(val);
         } catch (NumberFormatException e) {
@@ -0,0 +1,48 @@
+package jerrinot.info.mse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Replaces output files in one step, so readers such as a metrics collector never see a
+ * half-written file.
+ */
+final class AtomicFiles {
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Writes {@code text} to a temporary file next to {@code file} and moves it into place.
+     */
+    static void write(File file, String text) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        Path tmp = Files.createTempFile(parent.toPath(), file.getName(), ".tmp");
+        try {
+            Files.write(tmp, text.getBytes(StandardCharsets.UTF_8));
+            moveInto(tmp, file);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Moves {@code source} to {@code file}, replacing it and creating missing parent
+     * directories. The move is atomic when both are on the same file system.
+     */
+    static void moveInto(Path source, File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try {
+            Files.move(source, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
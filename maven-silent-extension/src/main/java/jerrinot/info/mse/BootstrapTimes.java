@@ -0,0 +1,127 @@
+package jerrinot.info.mse;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wall-clock milestones between JVM start and the first mojo, in epoch milliseconds; -1 for
+ * milestones not reached.
+ *
+ * <p>Only the first session of a JVM pays for start-up. When another session starts in the same
+ * JVM, e.g. in a daemon or embedded Maven, the milestones start over from its project discovery
+ * (or its session start), and {@code startup}, {@code init} and {@code setup} are zero.
+ *
+ * <ul>
+ *   <li>{@code startup}: JVM start until the spy is created, i.e. JVM and launcher start-up,
+ *       loading core extensions and setting up the Plexus container</li>
+ *   <li>{@code init}: until {@code init}, i.e. looking up the remaining components</li>
+ *   <li>{@code setup}: until project discovery, i.e. settings, toolchains and the request</li>
+ *   <li>{@code model}: until the session starts, i.e. building and sorting project models</li>
+ *   <li>{@code mse}: MSE's own set-up at session start, kept apart so it does not inflate
+ *       {@code plugins}</li>
+ *   <li>{@code plugins}: until the first mojo starts, i.e. resolving plugins and calculating
+ *       the lifecycle</li>
+ * </ul>
+ */
+final class BootstrapTimes {
+
+    static final String[] PHASES = {"startup", "init", "setup", "model", "mse", "plugins"};
+    private static final int MSE_PHASE = 4;
+
+    private volatile long jvmStartMillis;
+    private volatile long createdMillis;
+    private volatile long initMillis = -1;
+    private volatile long discoveryMillis = -1;
+    private volatile long sessionStartedMillis = -1;
+    private volatile long configuredMillis = -1;
+    private final AtomicLong firstMojoMillis = new AtomicLong(-1);
+
+    BootstrapTimes(long jvmStartMillis, long createdMillis) {
+        this.jvmStartMillis = jvmStartMillis;
+        this.createdMillis = createdMillis;
+    }
+
+    static BootstrapTimes now() {
+        return new BootstrapTimes(ManagementFactory.getRuntimeMXBean().getStartTime(), System.currentTimeMillis());
+    }
+
+    void initialized(long millis) { initMillis = millis; }
+
+    void discoveryStarted(long millis) {
+        if (sessionStartedMillis >= 0) startOver(millis);
+        discoveryMillis = millis;
+    }
+
+    void sessionStarted(long millis) {
+        if (sessionStartedMillis >= 0) startOver(millis);
+        sessionStartedMillis = millis;
+    }
+
+    /** MSE finished its own session set-up. */
+    void sessionConfigured(long millis) { configuredMillis = millis; }
+
+    /** A later session in the same JVM: everything before {@code millis} belongs to earlier ones. */
+    private void startOver(long millis) {
+        jvmStartMillis = millis;
+        createdMillis = millis;
+        initMillis = millis;
+        discoveryMillis = -1;
+        sessionStartedMillis = -1;
+        configuredMillis = -1;
+        firstMojoMillis.set(-1);
+    }
+
+    void mojoStarted(long millis) {
+        firstMojoMillis.compareAndSet(-1, millis);
+    }
+
+    boolean isComplete() {
+        return initMillis >= 0 && sessionStartedMillis >= 0 && firstMojoMillis.get() >= 0;
+    }
+
+    /**
+     * Milliseconds spent in each of {@link #PHASES}. Without a discovery event, setup and model
+     * building are reported together as {@code model}.
+     */
+    long[] phaseMillis() {
+        long discovery = discoveryMillis >= 0 ? discoveryMillis : initMillis;
+        long configured = configuredMillis >= 0 ? configuredMillis : sessionStartedMillis;
+        return new long[]{
+                span(jvmStartMillis, createdMillis),
+                span(createdMillis, initMillis),
+                span(initMillis, discovery),
+                span(discovery, sessionStartedMillis),
+                span(sessionStartedMillis, configured),
+                span(configured, firstMojoMillis.get()),
+        };
+    }
+
+    long totalMillis() {
+        return span(jvmStartMillis, firstMojoMillis.get());
+    }
+
+    private static long span(long from, long to) {
+        return from < 0 || to < 0 ? 0 : Math.max(0, to - from);
+    }
+
+    /**
+     * What would shorten the longest phase: class data sharing for start-up, which is mostly
+     * class loading, fewer modules for model building and a warm daemon ({@code mvnd}), which
+     * keeps plugins and components loaded, for the rest. MSE's own phase is left out.
+     */
+    String hint() {
+        long[] phases = phaseMillis();
+        int longest = 0;
+        for (int i = 1; i < phases.length; i++) {
+            if (i != MSE_PHASE && phases[i] > phases[longest]) longest = i;
+        }
+        switch (PHASES[longest]) {
+            case "startup":
+                return "cds";
+            case "model":
+                return "fewer-modules";
+            default:
+                return "mvnd";
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package jerrinot.info.mse;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mirrors the build structure into JDK Flight Recorder, so a recording of the Maven JVM shows
+ * which session, module and mojo was running next to CPU samples and GC.
+ *
+ * <p>Every method first checks whether its event type is enabled; with no recording running
+ * that costs one allocation-free check, and nothing is kept in the in-flight maps.
+ */
+final class BuildEvents {
+
+    @Name("jerrinot.mse.Session")
+    @Label("Maven Session")
+    @Category({"Maven", "Build"})
+    @StackTrace(false)
+    static final class SessionEvent extends Event {
+        @Label("Goals")
+        String goals;
+        @Label("Modules")
+        int modules;
+        @Label("Failed")
+        boolean failed;
+    }
+
+    @Name("jerrinot.mse.Project")
+    @Label("Maven Project")
+    @Category({"Maven", "Build"})
+    @StackTrace(false)
+    static final class ProjectEvent extends Event {
+        @Label("Module")
+        String module;
+        @Label("Failed")
+        boolean failed;
+    }
+
+    @Name("jerrinot.mse.MojoExecution")
+    @Label("Maven Mojo Execution")
+    @Category({"Maven", "Build"})
+    @StackTrace(false)
+    static final class MojoEvent extends Event {
+        @Label("Module")
+        String module;
+        @Label("Plugin")
+        String plugin;
+        @Label("Goal")
+        String goal;
+        @Label("Execution Id")
+        String executionId;
+        @Label("Phase")
+        String phase;
+        @Label("Failed")
+        boolean failed;
+    }
+
+    @Name("jerrinot.mse.Activity")
+    @Label("MSE Activity")
+    @Description("Work done by the MSE extension itself, such as parsing test reports")
+    @Category({"Maven", "MSE"})
+    @StackTrace(false)
+    static final class ActivityEvent extends Event {
+        @Label("Activity")
+        String activity;
+        @Label("Subject")
+        String subject;
+    }
+
+    private static final SessionEvent SESSION_PROBE = new SessionEvent();
+    private static final ProjectEvent PROJECT_PROBE = new ProjectEvent();
+    private static final MojoEvent MOJO_PROBE = new MojoEvent();
+    private static final ActivityEvent ACTIVITY_PROBE = new ActivityEvent();
+
+    private volatile SessionEvent session;
+    private final ConcurrentHashMap<String, ProjectEvent> projects = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<MojoExecution, MojoEvent> mojos = new ConcurrentHashMap<>();
+
+    void sessionStarted(String goals, int modules) {
+        if (!SESSION_PROBE.isEnabled()) return;
+        SessionEvent event = new SessionEvent();
+        event.goals = goals;
+        event.modules = modules;
+        event.begin();
+        session = event;
+    }
+
+    void sessionEnded(boolean failed) {
+        SessionEvent event = session;
+        session = null;
+        if (event == null) return;
+        event.failed = failed;
+        event.commit();
+    }
+
+    void projectStarted(String moduleKey) {
+        if (moduleKey == null || !PROJECT_PROBE.isEnabled()) return;
+        ProjectEvent event = new ProjectEvent();
+        event.module = moduleKey;
+        event.begin();
+        projects.put(moduleKey, event);
+    }
+
+    void projectFinished(String moduleKey, boolean failed) {
+        if (moduleKey == null || projects.isEmpty()) return;
+        ProjectEvent event = projects.remove(moduleKey);
+        if (event == null) return;
+        event.failed = failed;
+        event.commit();
+    }
+
+    void mojoStarted(MavenProject project, MojoExecution mojo) {
+        if (mojo == null || !MOJO_PROBE.isEnabled()) return;
+        MojoEvent event = new MojoEvent();
+        event.module = project != null ? ModuleSelection.moduleKey(project) : null;
+        event.plugin = mojo.getArtifactId();
+        event.goal = mojo.getGoal();
+        event.executionId = mojo.getExecutionId();
+        event.phase = mojo.getLifecyclePhase();
+        event.begin();
+        mojos.put(mojo, event);
+    }
+
+    void mojoFinished(MojoExecution mojo, boolean failed) {
+        if (mojo == null || mojos.isEmpty()) return;
+        MojoEvent event = mojos.remove(mojo);
+        if (event == null) return;
+        event.failed = failed;
+        event.commit();
+    }
+
+    /**
+     * Starts timing an MSE activity; commit it with {@link #end(ActivityEvent)}. Returns null
+     * when no recording wants it.
+     */
+    static ActivityEvent begin(String activity, String subject) {
+        if (!ACTIVITY_PROBE.isEnabled()) return null;
+        ActivityEvent event = new ActivityEvent();
+        event.activity = activity;
+        event.subject = subject;
+        event.begin();
+        return event;
+    }
+
+    static void end(ActivityEvent event) {
+        if (event != null) event.commit();
+    }
+
+    /**
+     * Drops in-flight events of an abandoned session without committing them.
+     */
+    void clear() {
+        session = null;
+        projects.clear();
+        mojos.clear();
+    }
+}
@@ -0,0 +1,140 @@
+package jerrinot.info.mse;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-module measurements carried over from earlier builds of the same reactor.
+ *
+ * <p>Stored as a properties file under the top-level {@code target/}. It is read at session
+ * start and rewritten at session end, so a {@code clean} in between does not lose it.
+ */
+final class BuildHistory {
+
+    static final String HISTORY_FILE = "target/mse-history.properties";
+    private static final String TESTS_PREFIX = "tests.";
+    private static final String MODULE_PREFIX = "module.";
+    private static final String SESSION_MILLIS = "session.millis";
+
+    private final Properties previous;
+    private final Map<String, Long> recorded = new ConcurrentHashMap<>();
+
+    BuildHistory(Properties previous) {
+        this.previous = previous;
+    }
+
+    static BuildHistory empty() {
+        return new BuildHistory(new Properties());
+    }
+
+    static File historyFile(File topLevelBaseDir) {
+        return new File(topLevelBaseDir, HISTORY_FILE);
+    }
+
+    /**
+     * Loads the history, treating a missing or unreadable file as no history.
+     */
+    static BuildHistory load(File file) {
+        Properties props = new Properties();
+        if (file != null && file.isFile()) {
+            try (Reader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                props.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                props.clear();
+            }
+        }
+        return new BuildHistory(props);
+    }
+
+    boolean isEmpty() {
+        return previous.isEmpty();
+    }
+
+    /**
+     * Serial test time of a module in the previous build, or -1 if unknown.
+     */
+    long previousTestMillis(String moduleKey) {
+        return previousLong(TESTS_PREFIX + moduleKey);
+    }
+
+    /**
+     * Longest serial test time of any module in the previous build, or -1 if unknown.
+     */
+    long previousMaxTestMillis() {
+        long max = -1;
+        for (String name : previous.stringPropertyNames()) {
+            if (name.startsWith(TESTS_PREFIX)) {
+                max = Math.max(max, previousLong(name));
+            }
+        }
+        return max;
+    }
+
+    void recordTestMillis(String moduleKey, long millis) {
+        recorded.merge(TESTS_PREFIX + moduleKey, millis, Long::sum);
+    }
+
+    /**
+     * Module wall times from earlier builds, keyed by module key.
+     */
+    Map<String, Long> previousModuleMillis() {
+        Map<String, Long> modules = new HashMap<>();
+        for (String name : previous.stringPropertyNames()) {
+            if (name.startsWith(MODULE_PREFIX)) {
+                long millis = previousLong(name);
+                if (millis >= 0) modules.put(name.substring(MODULE_PREFIX.length()), millis);
+            }
+        }
+        return modules;
+    }
+
+    void recordModuleMillis(String moduleKey, long millis) {
+        recorded.put(MODULE_PREFIX + moduleKey, millis);
+    }
+
+    /**
+     * Wall time of the last successful build, or -1 if unknown.
+     */
+    long previousSessionMillis() {
+        return previousLong(SESSION_MILLIS);
+    }
+
+    void recordSessionMillis(long millis) {
+        recorded.put(SESSION_MILLIS, millis);
+    }
+
+    /**
+     * Writes previous values overlaid with this session's, so modules skipped in a partial
+     * build keep their older numbers.
+     */
+    void save(File file) throws IOException {
+        if (recorded.isEmpty()) return;
+        Properties merged = new Properties();
+        merged.putAll(previous);
+        for (Map.Entry<String, Long> entry : recorded.entrySet()) {
+            merged.setProperty(entry.getKey(), Long.toString(entry.getValue()));
+        }
+        // Replaced in one step: a truncated file would drive forkCount and -Dmse.schedule
+        StringWriter text = new StringWriter();
+        merged.store(text, "MSE build history");
+        AtomicFiles.write(file, text.toString());
+    }
+
+    private long previousLong(String key) {
+        String value = previous.getProperty(key);
+        if (value == null) return -1;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package jerrinot.info.mse;
+
+import jerrinot.info.mse.model.MojoTiming;
+import jerrinot.info.mse.model.TestSuiteTime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Renders the session's measurements in the OpenMetrics text format, which the Prometheus
+ * text parser (e.g. node-exporter's textfile collector) also accepts.
+ *
+ * <p>Every value describes this one build, so build-wide counts are exported as gauges: a
+ * counter would imply a monotonic series across builds that a per-build file cannot provide.
+ */
+final class BuildMetrics {
+
+    static final String METRICS_FILE = "target/mse-metrics.prom";
+    static final double[] DURATION_BUCKETS = {0.1, 0.5, 1, 5, 10, 30, 60, 300, 600};
+
+    private final StringBuilder sb = new StringBuilder(4096);
+
+    private BuildMetrics() {
+    }
+
+    static String render(BuildState state, List<MojoTiming> mojos,
+                         Collection<TestSuiteTime> suites, long parseNanos) {
+        BuildMetrics m = new BuildMetrics();
+        m.family("mse_build_failed", "gauge", "1 if the build failed, otherwise 0.");
+        m.sample("mse_build_failed", state.isBuildFailed() ? 1 : 0);
+        m.family("mse_build_duration_seconds", "gauge", "Wall time of the build session.");
+        m.sample("mse_build_duration_seconds", state.getElapsedNanos() / 1e9);
+
+        m.family("mse_modules", "gauge", "Modules in the reactor by outcome.");
+        m.labeled("mse_modules", "state", "total", state.getTotalModules());
+        m.labeled("mse_modules", "state", "succeeded", state.getSucceededModules());
+        m.labeled("mse_modules", "state", "failed", state.getFailedModules());
+        m.labeled("mse_modules", "state", "unfinished", state.getUnfinishedModules());
+
+        m.family("mse_tests", "gauge", "Tests run in the build by result.");
+        m.labeled("mse_tests", "result", "passed", state.getTestPassed());
+        m.labeled("mse_tests", "result", "failed", state.getTestFailed());
+        m.labeled("mse_tests", "result", "error", state.getTestErrors());
+        m.labeled("mse_tests", "result", "skipped", state.getTestSkipped());
+
+        m.family("mse_compiler_errors", "gauge", "Compiler errors reported by failed compilations.");
+        m.sample("mse_compiler_errors", state.getCompilerErrors());
+
+        m.family("mse_parse_duration_seconds", "gauge", "Time MSE spent parsing test reports and compiler output.");
+        m.sample("mse_parse_duration_seconds", parseNanos / 1e9);
+
+        Map<String, Long> moduleNanos = new TreeMap<>(state.getModuleNanos());
+        m.family("mse_module_wall_seconds", "gauge", "Wall time of each finished module.");
+        for (Map.Entry<String, Long> module : moduleNanos.entrySet()) {
+            m.labeled("mse_module_wall_seconds", "module", module.getKey(), module.getValue() / 1e9);
+        }
+        m.histogram("mse_module_duration_seconds", "Distribution of module wall times.",
+                new ArrayList<>(moduleNanos.values()));
+
+        Map<String, List<Long>> mojoNanos = new TreeMap<>();
+        for (MojoTiming mojo : mojos) {
+            mojoNanos.computeIfAbsent(mojo.getPlugin() + '\0' + mojo.getGoal(), k -> new ArrayList<>())
+                    .add(mojo.getDurationNanos());
+        }
+        m.family("mse_mojo_duration_seconds", "histogram", "Mojo execution wall times by plugin and goal.");
+        for (Map.Entry<String, List<Long>> mojo : mojoNanos.entrySet()) {
+            String[] pluginGoal = mojo.getKey().split("\0", 2);
+            m.buckets("mse_mojo_duration_seconds",
+                    "plugin=" + quote(pluginGoal[0]) + ",goal=" + quote(pluginGoal[1]), mojo.getValue());
+        }
+
+        List<Long> suiteNanos = new ArrayList<>(suites.size());
+        for (TestSuiteTime suite : suites) {
+            suiteNanos.add(suite.getTimeMillis() * 1_000_000L);
+        }
+        m.histogram("mse_test_suite_duration_seconds", "Test suite times from the Surefire/Failsafe reports.",
+                suiteNanos);
+
+        m.sb.append("# EOF\n");
+        return m.sb.toString();
+    }
+
+    private void family(String name, String type, String help) {
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    }
+
+    private void sample(String name, double value) {
+        sb.append(name).append(' ').append(number(value)).append('\n');
+    }
+
+    private void labeled(String name, String label, String labelValue, double value) {
+        sb.append(name).append('{').append(label).append('=').append(quote(labelValue)).append("} ")
+                .append(number(value)).append('\n');
+    }
+
+    private void histogram(String name, String help, List<Long> nanos) {
+        family(name, "histogram", help);
+        buckets(name, null, nanos);
+    }
+
+    private void buckets(String name, String labels, List<Long> nanos) {
+        String prefix = labels != null ? labels + "," : "";
+        double sum = 0;
+        for (long n : nanos) sum += n / 1e9;
+        for (double bound : DURATION_BUCKETS) {
+            int count = 0;
+            for (long n : nanos) {
+                if (n / 1e9 <= bound) count++;
+            }
+            sb.append(name).append("_bucket{").append(prefix).append("le=\"").append(Double.toString(bound)).append("\"} ")
+                    .append(count).append('\n');
+        }
+        sb.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ").append(nanos.size()).append('\n');
+        String suffix = labels != null ? "{" + labels + "}" : "";
+        sb.append(name).append("_sum").append(suffix).append(' ').append(number(sum)).append('\n');
+        sb.append(name).append("_count").append(suffix).append(' ').append(nanos.size()).append('\n');
+    }
+
+    private static String number(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + '"';
+    }
+}
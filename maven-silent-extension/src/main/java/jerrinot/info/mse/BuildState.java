@@ -2,12 +2,18 @@ package jerrinot.info.mse;
 
 import jerrinot.info.mse.model.TestSummary;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 class BuildState {
 
     private final long startTimeMillis;
+    private final long startNanos = System.nanoTime();
     private final int totalModules;
     private final AtomicInteger succeededModules = new AtomicInteger();
     private final AtomicInteger failedModules = new AtomicInteger();
@@ -17,6 +23,12 @@ class BuildState {
     private final AtomicInteger testSkipped = new AtomicInteger();
     private final AtomicInteger compilerErrors = new AtomicInteger();
     private final AtomicBoolean buildFailed = new AtomicBoolean(false);
+    private final Set<String> succeededModuleKeys = ConcurrentHashMap.newKeySet();
+    private final Set<String> failedModuleKeys = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Long> moduleStartNanos = new ConcurrentHashMap<>();
+    private final AtomicLong finishedModuleNanos = new AtomicLong();
+    private final AtomicInteger timedModules = new AtomicInteger();
+    private final ConcurrentHashMap<String, Long> moduleNanos = new ConcurrentHashMap<>();
 
     BuildState(int totalModules, long startTimeMillis) {
         this.totalModules = totalModules;
@@ -36,6 +48,41 @@ class BuildState {
         buildFailed.set(true);
     }
 
+    public void moduleStarted(String moduleKey) {
+        if (moduleKey != null) moduleStartNanos.put(moduleKey, System.nanoTime());
+    }
+
+    /**
+     * Like {@link #moduleSucceeded()}, additionally remembering which module it was.
+     */
+    public void moduleSucceeded(String moduleKey) {
+        moduleSucceeded();
+        if (moduleKey != null) {
+            succeededModuleKeys.add(moduleKey);
+            moduleFinished(moduleKey);
+        }
+    }
+
+    /**
+     * Like {@link #moduleFailed()}, additionally remembering which module it was.
+     */
+    public void moduleFailed(String moduleKey) {
+        moduleFailed();
+        if (moduleKey != null) {
+            failedModuleKeys.add(moduleKey);
+            moduleFinished(moduleKey);
+        }
+    }
+
+    private void moduleFinished(String moduleKey) {
+        Long start = moduleStartNanos.remove(moduleKey);
+        if (start == null) return;
+        long nanos = System.nanoTime() - start;
+        moduleNanos.put(moduleKey, nanos);
+        finishedModuleNanos.addAndGet(nanos);
+        timedModules.incrementAndGet();
+    }
+
     public void setBuildFailed() {
         buildFailed.set(true);
     }
@@ -61,11 +108,35 @@ class BuildState {
     public int getTestSkipped() { return testSkipped.get(); }
     public int getCompilerErrors() { return compilerErrors.get(); }
     public boolean isBuildFailed() { return buildFailed.get(); }
+    public Set<String> getSucceededModuleKeys() { return Collections.unmodifiableSet(succeededModuleKeys); }
+    public Set<String> getFailedModuleKeys() { return Collections.unmodifiableSet(failedModuleKeys); }
+    public int getUnfinishedModules() { return Math.max(0, totalModules - succeededModules.get() - failedModules.get()); }
+
+    /**
+     * Mean wall time of modules that finished with a start event, or 0 if none did.
+     */
+    public long getAverageModuleMillis() {
+        int count = timedModules.get();
+        return count == 0 ? 0 : finishedModuleNanos.get() / count / 1_000_000;
+    }
+
+    /**
+     * Wall time per finished module key, for modules whose start was seen.
+     */
+    public Map<String, Long> getModuleNanos() { return Collections.unmodifiableMap(moduleNanos); }
+
+    public long getElapsedNanos() {
+        return Math.max(0, System.nanoTime() - startNanos);
+    }
 
     public long getElapsedSeconds() {
         return Math.max(0, (System.currentTimeMillis() - startTimeMillis) / 1000);
     }
 
+    long getStartNanos() {
+        return startNanos;
+    }
+
     long getStartTimeMillis() {
         return startTimeMillis;
     }
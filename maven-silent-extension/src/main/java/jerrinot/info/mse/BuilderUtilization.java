@@ -0,0 +1,182 @@
+package jerrinot.info.mse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * How many builder threads were busy building a module over the session's lifetime.
+ *
+ * <p>Maven's parallel builder never leaves a thread idle while a module is ready to build, so
+ * whenever fewer threads than {@code -T} are busy, every remaining module is waiting on the ones
+ * still running. Idle thread time is therefore charged to the running modules, split evenly.
+ */
+final class BuilderUtilization {
+
+    static final int TOP_WAITED = 5;
+
+    private final int threads;
+    private final long startNanos;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Long> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> artifactIds = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Interval> intervals = new ConcurrentLinkedQueue<>();
+
+    BuilderUtilization(int threads, long startNanos) {
+        this(threads, startNanos, System::nanoTime);
+    }
+
+    BuilderUtilization(int threads, long startNanos, LongSupplier clock) {
+        this.threads = Math.max(1, threads);
+        this.startNanos = startNanos;
+        this.clock = clock;
+    }
+
+    void moduleStarted(String moduleKey, String artifactId) {
+        if (moduleKey == null) return;
+        inFlight.put(moduleKey, clock.getAsLong());
+        artifactIds.put(moduleKey, artifactId != null ? artifactId : moduleKey);
+    }
+
+    void moduleFinished(String moduleKey) {
+        if (moduleKey == null) return;
+        Long start = inFlight.remove(moduleKey);
+        if (start == null) return;
+        intervals.add(new Interval(moduleKey, start, clock.getAsLong()));
+    }
+
+    int getThreads() { return threads; }
+
+    /**
+     * Summarizes the session up to now; modules still building count as running until now.
+     */
+    Summary summarize() {
+        long end = clock.getAsLong();
+        List<Interval> all = new ArrayList<>(intervals);
+        for (Map.Entry<String, Long> running : inFlight.entrySet()) {
+            all.add(new Interval(running.getKey(), running.getValue(), end));
+        }
+        return new Summary(threads, startNanos, end, all, artifactIds);
+    }
+
+    private static final class Interval {
+        final String moduleKey;
+        final long start;
+        final long end;
+
+        Interval(String moduleKey, long start, long end) {
+            this.moduleKey = moduleKey;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    static final class Summary {
+        private final int threads;
+        private final long wallNanos;
+        private final long[] nanosAtLevel;
+        private final long busyNanos;
+        private final List<Map.Entry<String, Long>> waitedOn;
+
+        private Summary(int threads, long start, long end, List<Interval> intervals,
+                        Map<String, String> artifactIds) {
+            this.threads = threads;
+            this.wallNanos = Math.max(0, end - start);
+            // {time, +1 start / -1 end, interval index}; ends before starts at equal times
+            long[][] edges = new long[intervals.size() * 2][];
+            for (int i = 0; i < intervals.size(); i++) {
+                Interval interval = intervals.get(i);
+                edges[2 * i] = new long[]{Math.max(start, interval.start), 1, i};
+                edges[2 * i + 1] = new long[]{Math.min(end, Math.max(start, interval.end)), -1, i};
+            }
+            Arrays.sort(edges, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+            int maxLevel = Math.max(threads, intervals.size());
+            long[] atLevel = new long[maxLevel + 1];
+            Map<Integer, Long> idleByInterval = new HashMap<>();
+            List<Integer> running = new ArrayList<>();
+            long busy = 0;
+            long previous = start;
+            for (long[] edge : edges) {
+                long segment = edge[0] - previous;
+                if (segment > 0) {
+                    int level = running.size();
+                    atLevel[level] += segment;
+                    busy += segment * level;
+                    if (level > 0 && level < threads) {
+                        long share = segment * (threads - level) / level;
+                        for (int interval : running) {
+                            idleByInterval.merge(interval, share, Long::sum);
+                        }
+                    }
+                }
+                previous = edge[0];
+                if (edge[1] > 0) {
+                    running.add((int) edge[2]);
+                } else {
+                    running.remove(Integer.valueOf((int) edge[2]));
+                }
+            }
+            if (end > previous) atLevel[0] += end - previous;
+
+            Map<String, Long> idleByModule = new HashMap<>();
+            for (Map.Entry<Integer, Long> idle : idleByInterval.entrySet()) {
+                String key = intervals.get(idle.getKey()).moduleKey;
+                idleByModule.merge(artifactIds.getOrDefault(key, key), idle.getValue(), Long::sum);
+            }
+            List<Map.Entry<String, Long>> waited = new ArrayList<>(idleByModule.entrySet());
+            waited.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+            this.waitedOn = waited.subList(0, Math.min(TOP_WAITED, waited.size()));
+            this.nanosAtLevel = atLevel;
+            this.busyNanos = busy;
+        }
+
+        int getThreads() { return threads; }
+        long getWallNanos() { return wallNanos; }
+
+        /** Highest number of modules that were building at the same time. */
+        int getMaxLevel() {
+            for (int level = nanosAtLevel.length - 1; level > 0; level--) {
+                if (nanosAtLevel[level] > 0) return level;
+            }
+            return 0;
+        }
+
+        /** Wall time during which exactly {@code level} modules were building. */
+        long getNanosAtLevel(int level) {
+            return level < nanosAtLevel.length ? nanosAtLevel[level] : 0;
+        }
+
+        /** Wall time during which fewer than {@code k} modules were building. */
+        long getNanosBelow(int k) {
+            long sum = 0;
+            for (int level = 0; level < Math.min(k, nanosAtLevel.length); level++) {
+                sum += nanosAtLevel[level];
+            }
+            return sum;
+        }
+
+        double getAverageBusy() {
+            return wallNanos <= 0 ? 0 : (double) busyNanos / wallNanos;
+        }
+
+        /** The busy-thread count that at least {@code percent}% of the wall time stayed at or below. */
+        int percentile(int percent) {
+            long target = (long) Math.ceil(wallNanos * percent / 100.0);
+            long sum = 0;
+            for (int level = 0; level < nanosAtLevel.length; level++) {
+                sum += nanosAtLevel[level];
+                if (sum >= target) return level;
+            }
+            return nanosAtLevel.length - 1;
+        }
+
+        /** Modules by idle builder-thread time charged to them, most first. */
+        List<Map.Entry<String, Long>> getWaitedOn() { return waitedOn; }
+    }
+}
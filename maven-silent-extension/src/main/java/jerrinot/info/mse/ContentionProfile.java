@@ -0,0 +1,183 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lock contention of builder threads while they run mojos, from {@link ThreadMXBean} thread
+ * contention monitoring.
+ *
+ * <p>Blocked and waited times are exact per mojo: the thread's counters are read at mojo start
+ * and end. Which locks were involved is sampled: a daemon thread periodically inspects the
+ * builder threads that are inside a mojo and counts the class of the lock each one is blocked
+ * on or waiting for. Nothing of this runs unless the mode was requested.
+ */
+final class ContentionProfile {
+
+    static final long DEFAULT_INTERVAL_MILLIS = 10;
+    static final int TOP = 5;
+
+    private final ThreadMXBean threads;
+    private final boolean wasEnabled;
+    private final long intervalMillis;
+    private final ConcurrentHashMap<MojoExecution, long[]> inFlight = new ConcurrentHashMap<>();
+    /** Builder thread id to the mojo label it is running. */
+    private final ConcurrentHashMap<Long, String> activeThreads = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, long[]> byMojo = new ConcurrentHashMap<>();
+    // written by the sampler thread only, read after it stopped
+    private final Map<String, long[]> samplesByLock = new HashMap<>();
+    private long samples;
+    private final Thread sampler;
+    private volatile boolean running = true;
+
+    ContentionProfile(ThreadMXBean threads, long intervalMillis) {
+        this.threads = threads;
+        this.wasEnabled = threads.isThreadContentionMonitoringEnabled();
+        this.intervalMillis = Math.max(1, intervalMillis);
+        threads.setThreadContentionMonitoringEnabled(true);
+        this.sampler = new Thread(this::sampleLoop, "mse-contention-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    /**
+     * Enables contention monitoring and starts sampling, or returns null when the JVM does not
+     * support contention monitoring.
+     */
+    static ContentionProfile start(long intervalMillis) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadContentionMonitoringSupported()) return null;
+        return new ContentionProfile(threads, intervalMillis);
+    }
+
+    static String mojoLabel(MavenProject project, MojoExecution mojo) {
+        return mojo.getArtifactId() + ":" + mojo.getGoal() + " @ " + (project != null ? project.getArtifactId() : "unknown");
+    }
+
+    void mojoStarted(MavenProject project, MojoExecution mojo) {
+        if (mojo == null) return;
+        long id = Thread.currentThread().getId();
+        ThreadInfo info = threads.getThreadInfo(id);
+        if (info == null) return;
+        inFlight.put(mojo, new long[]{info.getBlockedTime(), info.getWaitedTime()});
+        activeThreads.put(id, mojoLabel(project, mojo));
+    }
+
+    void mojoFinished(MavenProject project, MojoExecution mojo) {
+        if (mojo == null) return;
+        long id = Thread.currentThread().getId();
+        activeThreads.remove(id);
+        long[] start = inFlight.remove(mojo);
+        ThreadInfo info = threads.getThreadInfo(id);
+        if (start == null || info == null) return;
+        long blocked = Math.max(0, info.getBlockedTime() - start[0]);
+        long waited = Math.max(0, info.getWaitedTime() - start[1]);
+        byMojo.merge(mojoLabel(project, mojo), new long[]{blocked, waited},
+                (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]});
+    }
+
+    private void sampleLoop() {
+        while (running) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            sample();
+        }
+    }
+
+    private void sample() {
+        List<Long> ids = new ArrayList<>(activeThreads.keySet());
+        if (ids.isEmpty()) return;
+        long[] idArray = new long[ids.size()];
+        for (int i = 0; i < idArray.length; i++) idArray[i] = ids.get(i);
+        ThreadInfo[] infos = threads.getThreadInfo(idArray);
+        if (infos == null) return;
+        samples++;
+        for (ThreadInfo info : infos) {
+            if (info == null || info.getLockName() == null) continue;
+            int slot;
+            switch (info.getThreadState()) {
+                case BLOCKED:
+                    slot = 0;
+                    break;
+                case WAITING:
+                case TIMED_WAITING:
+                    slot = 1;
+                    break;
+                default:
+                    continue;
+            }
+            samplesByLock.computeIfAbsent(lockClass(info.getLockName()), k -> new long[2])[slot]++;
+        }
+    }
+
+    /** {@code java.lang.Object@1b6d3586} becomes {@code java.lang.Object}. */
+    static String lockClass(String lockName) {
+        int at = lockName.indexOf('@');
+        return at > 0 ? lockName.substring(0, at) : lockName;
+    }
+
+    /**
+     * Stops sampling and restores the JVM's previous contention monitoring setting.
+     */
+    void close() {
+        running = false;
+        sampler.interrupt();
+        try {
+            sampler.join(1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!wasEnabled) {
+            threads.setThreadContentionMonitoringEnabled(false);
+        }
+    }
+
+    long getIntervalMillis() { return intervalMillis; }
+
+    /** Sampling rounds that found at least one builder thread in a mojo; valid after {@link #close()}. */
+    long getSamples() { return samples; }
+
+    long getBlockedMillis() {
+        long sum = 0;
+        for (long[] times : byMojo.values()) sum += times[0];
+        return sum;
+    }
+
+    long getWaitedMillis() {
+        long sum = 0;
+        for (long[] times : byMojo.values()) sum += times[1];
+        return sum;
+    }
+
+    /** Mojo labels with {blocked, waited} milliseconds, by blocked then waited time. */
+    List<Map.Entry<String, long[]>> topMojos() {
+        return top(new ArrayList<>(byMojo.entrySet()));
+    }
+
+    /**
+     * Lock classes with {blocked, waiting} sample counts, most blocked first; valid after
+     * {@link #close()}.
+     */
+    List<Map.Entry<String, long[]>> topLocks() {
+        return top(new ArrayList<>(samplesByLock.entrySet()));
+    }
+
+    private static List<Map.Entry<String, long[]>> top(List<Map.Entry<String, long[]>> entries) {
+        entries.sort((a, b) -> a.getValue()[0] != b.getValue()[0]
+                ? Long.compare(b.getValue()[0], a.getValue()[0])
+                : Long.compare(b.getValue()[1], a.getValue()[1]));
+        return entries.subList(0, Math.min(TOP, entries.size()));
+    }
+}
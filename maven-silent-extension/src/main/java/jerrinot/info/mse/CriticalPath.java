@@ -0,0 +1,80 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The longest chain of dependent modules through the reactor, weighted by module wall time.
+ * With enough builder threads this chain bounds the build's wall time, so only shortening a
+ * module on it makes the build faster.
+ */
+final class CriticalPath {
+
+    private final List<MavenProject> modules;
+    private final List<Long> moduleNanos;
+    private final long lengthNanos;
+
+    private CriticalPath(List<MavenProject> modules, List<Long> moduleNanos, long lengthNanos) {
+        this.modules = modules;
+        this.moduleNanos = moduleNanos;
+        this.lengthNanos = lengthNanos;
+    }
+
+    /**
+     * @param durations wall time per module key; modules without one count as zero
+     */
+    static CriticalPath compute(ProjectDependencyGraph graph, Map<String, Long> durations) {
+        Map<MavenProject, Long> finish = new IdentityHashMap<>();
+        Map<MavenProject, MavenProject> predecessor = new IdentityHashMap<>();
+        MavenProject last = null;
+        long longest = 0;
+        // Sorted projects are topologically ordered, so upstream finishes are already known
+        for (MavenProject project : graph.getSortedProjects()) {
+            MavenProject slowestUpstream = null;
+            long start = 0;
+            for (MavenProject upstream : graph.getUpstreamProjects(project, false)) {
+                Long upstreamFinish = finish.get(upstream);
+                if (upstreamFinish != null && (slowestUpstream == null || upstreamFinish > start)) {
+                    slowestUpstream = upstream;
+                    start = upstreamFinish;
+                }
+            }
+            long end = start + duration(durations, project);
+            finish.put(project, end);
+            if (slowestUpstream != null) predecessor.put(project, slowestUpstream);
+            if (last == null || end > longest) {
+                last = project;
+                longest = end;
+            }
+        }
+        List<MavenProject> modules = new ArrayList<>();
+        List<Long> nanos = new ArrayList<>();
+        for (MavenProject project = last; project != null; project = predecessor.get(project)) {
+            modules.add(project);
+            nanos.add(duration(durations, project));
+        }
+        Collections.reverse(modules);
+        Collections.reverse(nanos);
+        return new CriticalPath(modules, nanos, longest);
+    }
+
+    private static long duration(Map<String, Long> durations, MavenProject project) {
+        Long nanos = durations.get(ModuleSelection.moduleKey(project));
+        return nanos != null ? nanos : 0;
+    }
+
+    boolean isEmpty() { return lengthNanos <= 0; }
+
+    /** Modules on the path, upstream first. */
+    List<MavenProject> getModules() { return Collections.unmodifiableList(modules); }
+
+    long getModuleNanos(int index) { return moduleNanos.get(index); }
+
+    long getLengthNanos() { return lengthNanos; }
+}
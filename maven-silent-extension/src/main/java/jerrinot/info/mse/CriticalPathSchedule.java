@@ -0,0 +1,145 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * A reactor order that starts, among the modules ready to build, the one with the longest
+ * remaining chain of downstream work first, based on module durations from earlier builds.
+ */
+final class CriticalPathSchedule {
+
+    private final List<MavenProject> order;
+    private final int moved;
+    private final int unknown;
+    private final long reactorOrderNanos;
+    private final long scheduledNanos;
+
+    private CriticalPathSchedule(List<MavenProject> order, int moved, int unknown,
+                                 long reactorOrderNanos, long scheduledNanos) {
+        this.order = order;
+        this.moved = moved;
+        this.unknown = unknown;
+        this.reactorOrderNanos = reactorOrderNanos;
+        this.scheduledNanos = scheduledNanos;
+    }
+
+    /**
+     * Plans the order for {@code threads} builder threads, or returns null when no module of
+     * the reactor has a recorded duration. Modules without one are assumed to take the average.
+     *
+     * @param historyMillis module wall times from earlier builds, keyed by module key
+     */
+    static CriticalPathSchedule plan(ProjectDependencyGraph graph, Map<String, Long> historyMillis, int threads) {
+        List<MavenProject> sorted = graph.getSortedProjects();
+        long knownNanos = 0;
+        int known = 0;
+        for (MavenProject project : sorted) {
+            Long millis = historyMillis.get(ModuleSelection.moduleKey(project));
+            if (millis != null) {
+                knownNanos += millis * 1_000_000;
+                known++;
+            }
+        }
+        if (known == 0) return null;
+        long averageNanos = knownNanos / known;
+        Map<String, Long> durations = new HashMap<>();
+        for (MavenProject project : sorted) {
+            String key = ModuleSelection.moduleKey(project);
+            Long millis = historyMillis.get(key);
+            durations.put(key, millis != null ? millis * 1_000_000 : averageNanos);
+        }
+
+        List<MavenProject> order = order(graph, durations);
+        int moved = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i) != order.get(i)) moved++;
+        }
+        return new CriticalPathSchedule(order, moved, sorted.size() - known,
+                ReactorSimulation.of(graph, durations).wallNanos(threads),
+                ReactorSimulation.of(graph, order, durations).wallNanos(threads));
+    }
+
+    /**
+     * Topological order of the reactor in which, whenever several modules are unblocked,
+     * the one with the longest remaining path (itself plus its slowest downstream chain) comes
+     * first. Ties keep reactor order.
+     */
+    static List<MavenProject> order(ProjectDependencyGraph graph, Map<String, Long> durations) {
+        List<MavenProject> sorted = graph.getSortedProjects();
+        Map<MavenProject, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            index.put(sorted.get(i), i);
+        }
+        long[] remaining = new long[sorted.size()];
+        for (int i = sorted.size() - 1; i >= 0; i--) {
+            long downstream = 0;
+            for (MavenProject d : graph.getDownstreamProjects(sorted.get(i), false)) {
+                Integer j = index.get(d);
+                if (j != null) downstream = Math.max(downstream, remaining[j]);
+            }
+            Long nanos = durations.get(ModuleSelection.moduleKey(sorted.get(i)));
+            remaining[i] = (nanos != null ? nanos : 0) + downstream;
+        }
+
+        int[] pending = new int[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            for (MavenProject u : graph.getUpstreamProjects(sorted.get(i), false)) {
+                if (index.containsKey(u)) pending[i]++;
+            }
+        }
+        PriorityQueue<Integer> ready = new PriorityQueue<>(
+                (a, b) -> remaining[a] != remaining[b] ? Long.compare(remaining[b], remaining[a]) : Integer.compare(a, b));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (pending[i] == 0) ready.add(i);
+        }
+        List<MavenProject> order = new ArrayList<>(sorted.size());
+        while (!ready.isEmpty()) {
+            int next = ready.poll();
+            order.add(sorted.get(next));
+            for (MavenProject d : graph.getDownstreamProjects(sorted.get(next), false)) {
+                Integer j = index.get(d);
+                if (j != null && --pending[j] == 0) ready.add(j);
+            }
+        }
+        // a cycle cannot reach us from Maven, but never drop projects if the graph disagrees
+        return order.size() == sorted.size() ? order : new ArrayList<>(sorted);
+    }
+
+    /**
+     * Makes the session build in this order, unless that is not predicted to help. Must run
+     * no later than {@code SessionStarted}, like {@link ModuleSelection#retain}.
+     */
+    void apply(MavenSession session) {
+        if (!isBeneficial()) return;
+        session.setProjects(new ArrayList<>(order));
+        session.setProjectDependencyGraph(new OrderedDependencyGraph(session.getProjectDependencyGraph(), order));
+    }
+
+    /** True when the order differs from Maven's and is predicted to finish sooner. */
+    boolean isBeneficial() {
+        return moved > 0 && scheduledNanos < reactorOrderNanos;
+    }
+
+    List<MavenProject> getOrder() { return order; }
+
+    /** Number of positions in the reactor order that changed. */
+    int getMoved() { return moved; }
+
+    /** Modules without a recorded duration. */
+    int getUnknown() { return unknown; }
+
+    /** Predicted wall time in Maven's own order. */
+    long getReactorOrderNanos() { return reactorOrderNanos; }
+
+    /** Predicted wall time in this order. */
+    long getScheduledNanos() { return scheduledNanos; }
+}
@@ -0,0 +1,200 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.project.DependencyResolutionRequest;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.RequestTrace;
+import org.eclipse.aether.artifact.Artifact;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Remote artifact downloads of the session, from the resolver's {@link RepositoryEvent}s.
+ *
+ * <p>A download is timed from {@code ARTIFACT_DOWNLOADING} to {@code ARTIFACT_DOWNLOADED}. The
+ * resolver fires both on the requesting thread around a whole batch, so artifacts fetched in
+ * parallel share the batch time; repository time is therefore the union of the intervals, not
+ * their sum. The module is taken from the request trace, or else from the builder thread.
+ */
+final class DownloadProfile {
+
+    static final String NO_MODULE = "none";
+    static final int TOP = 5;
+    /** Download time worth reporting without {@code -Dmse.profile}. */
+    static final long SIGNIFICANT_NANOS = TimeUnit.MINUTES.toNanos(3);
+
+    static final class Download {
+        final String repository;
+        final String module;
+        final long startNanos;
+        final long endNanos;
+        final long bytes;
+        final boolean failed;
+
+        Download(String repository, String module, long startNanos, long endNanos, long bytes, boolean failed) {
+            this.repository = repository;
+            this.module = module;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.bytes = bytes;
+            this.failed = failed;
+        }
+
+        long getDurationNanos() { return Math.max(0, endNanos - startNanos); }
+    }
+
+    /** Totals for one repository or one module. */
+    static final class Totals {
+        private final String name;
+        private int artifacts;
+        private int failed;
+        private long bytes;
+        private long busyNanos;
+        private long totalNanos;
+        private long maxNanos;
+
+        Totals(String name) {
+            this.name = name;
+        }
+
+        String getName() { return name; }
+        int getArtifacts() { return artifacts; }
+        int getFailed() { return failed; }
+        long getBytes() { return bytes; }
+        /** Time at least one download from here was in progress. */
+        long getBusyNanos() { return busyNanos; }
+        long getAverageNanos() { return artifacts + failed > 0 ? totalNanos / (artifacts + failed) : 0; }
+        long getMaxNanos() { return maxNanos; }
+
+        /** Bytes per second while busy, or 0 when nothing was timed. */
+        double getBytesPerSecond() {
+            return busyNanos > 0 ? bytes * 1e9 / busyNanos : 0;
+        }
+    }
+
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Long> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> threadModules = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Download> downloads = new ConcurrentLinkedQueue<>();
+
+    DownloadProfile() {
+        this(System::nanoTime);
+    }
+
+    DownloadProfile(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    void projectStarted(MavenProject project) {
+        if (project == null) return;
+        threadModules.put(Thread.currentThread().getId(), project.getArtifactId());
+    }
+
+    void projectFinished() {
+        threadModules.remove(Thread.currentThread().getId());
+    }
+
+    void onEvent(RepositoryEvent event) {
+        Artifact artifact = event.getArtifact();
+        if (artifact == null) return;
+        switch (event.getType()) {
+            case ARTIFACT_DOWNLOADING:
+                inFlight.put(Intervals.inFlightKey(artifact, event.getRepository()), clock.getAsLong());
+                break;
+            case ARTIFACT_DOWNLOADED:
+                Long start = inFlight.remove(Intervals.inFlightKey(artifact, event.getRepository()));
+                if (start == null) return;
+                File file = event.getFile();
+                boolean failed = event.getException() != null;
+                downloads.add(new Download(Intervals.repositoryId(event.getRepository()), module(event.getTrace()),
+                        start, clock.getAsLong(), !failed && file != null ? file.length() : 0, failed));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private String module(RequestTrace trace) {
+        String module = traceModule(trace);
+        if (module == null) module = threadModules.get(Thread.currentThread().getId());
+        return module != null ? module : NO_MODULE;
+    }
+
+    /** The module whose dependency resolution the trace belongs to, or null. */
+    static String traceModule(RequestTrace trace) {
+        for (RequestTrace t = trace; t != null; t = t.getParent()) {
+            if (t.getData() instanceof DependencyResolutionRequest) {
+                MavenProject project = ((DependencyResolutionRequest) t.getData()).getMavenProject();
+                if (project != null) return project.getArtifactId();
+            }
+        }
+        return null;
+    }
+
+    boolean isEmpty() {
+        return downloads.isEmpty();
+    }
+
+    /** True once downloads kept the build busy for at least {@link #SIGNIFICANT_NANOS}. */
+    boolean isSignificant() {
+        return total().getBusyNanos() >= SIGNIFICANT_NANOS;
+    }
+
+    /** All downloads as one entry. */
+    Totals total() {
+        return totals("all", new ArrayList<>(downloads));
+    }
+
+    /** Per repository, most bytes first. */
+    List<Totals> byRepository() {
+        return grouped(true);
+    }
+
+    /** Per module, most bytes first, at most {@value #TOP}. */
+    List<Totals> byModule() {
+        List<Totals> modules = grouped(false);
+        return modules.subList(0, Math.min(TOP, modules.size()));
+    }
+
+    private List<Totals> grouped(boolean byRepository) {
+        Map<String, List<Download>> groups = new LinkedHashMap<>();
+        for (Download download : downloads) {
+            groups.computeIfAbsent(byRepository ? download.repository : download.module, k -> new ArrayList<>())
+                    .add(download);
+        }
+        List<Totals> result = new ArrayList<>();
+        for (Map.Entry<String, List<Download>> group : groups.entrySet()) {
+            result.add(totals(group.getKey(), group.getValue()));
+        }
+        result.sort(Comparator.comparingLong(Totals::getBytes).reversed().thenComparing(Totals::getName));
+        return result;
+    }
+
+    private static Totals totals(String name, Collection<Download> group) {
+        Totals totals = new Totals(name);
+        List<long[]> intervals = new ArrayList<>();
+        for (Download download : group) {
+            if (download.failed) {
+                totals.failed++;
+            } else {
+                totals.artifacts++;
+            }
+            totals.bytes += download.bytes;
+            totals.totalNanos += download.getDurationNanos();
+            totals.maxNanos = Math.max(totals.maxNanos, download.getDurationNanos());
+            intervals.add(new long[]{download.startNanos, download.endNanos});
+        }
+        totals.busyNanos = Intervals.unionNanos(intervals);
+        return totals;
+    }
+}
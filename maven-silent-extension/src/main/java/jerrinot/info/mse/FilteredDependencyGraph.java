@@ -0,0 +1,69 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Restricts a reactor dependency graph to a subset of its projects, the same way Maven's own
+ * (package-private) {@code FilteredProjectDependencyGraph} does for {@code -pl}. The builders
+ * schedule from the graph, so trimming {@code session.getProjects()} alone is not enough.
+ *
+ * <p>Direct (non-transitive) upstream queries are only exact when the kept set is closed under
+ * downstream edges, which holds for every selection MSE makes.
+ */
+class FilteredDependencyGraph implements ProjectDependencyGraph {
+
+    private final ProjectDependencyGraph delegate;
+    private final Set<MavenProject> whiteList;
+    private final List<MavenProject> sortedProjects;
+
+    FilteredDependencyGraph(ProjectDependencyGraph delegate, Collection<MavenProject> kept) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.whiteList = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.whiteList.addAll(kept);
+        this.sortedProjects = applyFilter(delegate.getSortedProjects());
+    }
+
+    @Override
+    public List<MavenProject> getAllProjects() {
+        return delegate.getAllProjects();
+    }
+
+    @Override
+    public List<MavenProject> getSortedProjects() {
+        return new ArrayList<>(sortedProjects);
+    }
+
+    @Override
+    public List<MavenProject> getDownstreamProjects(MavenProject project, boolean transitive) {
+        return applyFilter(delegate.getDownstreamProjects(project, transitive));
+    }
+
+    @Override
+    public List<MavenProject> getUpstreamProjects(MavenProject project, boolean transitive) {
+        return applyFilter(delegate.getUpstreamProjects(project, transitive));
+    }
+
+    private List<MavenProject> applyFilter(Collection<? extends MavenProject> projects) {
+        List<MavenProject> filtered = new ArrayList<>(projects.size());
+        for (MavenProject project : projects) {
+            if (whiteList.contains(project)) {
+                filtered.add(project);
+            }
+        }
+        return filtered;
+    }
+
+    @Override
+    public String toString() {
+        return sortedProjects.toString();
+    }
+}
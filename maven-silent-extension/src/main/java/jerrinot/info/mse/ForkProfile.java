@@ -0,0 +1,153 @@
+package jerrinot.info.mse;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Condensed JFR telemetry of the forked test JVMs of one module.
+ */
+final class ForkProfile {
+
+    static final String JFR_DIR = "mse-jfr";
+    static final int TOP_FRAMES = 3;
+
+    private int recordings;
+    private int gcPauses;
+    private long gcPauseNanos;
+    private long peakHeapBytes;
+    private long monitorWaitNanos;
+    private long allocatedBytes;
+    private long executionSamples;
+    private final Map<String, Long> allocationByFrame = new HashMap<>();
+    private final Map<String, Long> samplesByMethod = new HashMap<>();
+    private final Map<String, Long> monitorWaitByClass = new HashMap<>();
+
+    /**
+     * The {@code -XX:StartFlightRecording} argument that makes a fork dump a recording into
+     * {@code dir} on exit. Given an existing directory, the JVM names the recording after its
+     * pid and start time, so forks that reuse a fork number ({@code reuseForks=false}) do not
+     * overwrite each other's recordings.
+     */
+    static String jfrArgument(String dir) {
+        return "-XX:StartFlightRecording=settings=profile,dumponexit=true,filename=" + dir;
+    }
+
+    static File jfrDir(File buildDirectory) {
+        return new File(buildDirectory, JFR_DIR);
+    }
+
+    static List<Path> recordingFiles(File dir) {
+        List<Path> files = new ArrayList<>();
+        File[] jfrs = dir.listFiles(f -> f.isFile() && f.getName().endsWith(".jfr"));
+        if (jfrs != null) {
+            for (File jfr : jfrs) files.add(jfr.toPath());
+        }
+        return files;
+    }
+
+    /**
+     * Aggregates all recordings; unreadable ones (e.g. a fork killed mid-dump) are reported to
+     * {@code diagnostics} and skipped.
+     */
+    static ForkProfile parse(Collection<Path> recordingFiles, Consumer<String> diagnostics) {
+        ForkProfile profile = new ForkProfile();
+        for (Path file : recordingFiles) {
+            try (RecordingFile recording = new RecordingFile(file)) {
+                while (recording.hasMoreEvents()) {
+                    profile.accept(recording.readEvent());
+                }
+                profile.recordings++;
+            } catch (IOException | RuntimeException e) {
+                diagnostics.accept("skipping unreadable recording " + file.getFileName() + ": " + e.getMessage());
+            }
+        }
+        return profile;
+    }
+
+    private void accept(RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case "jdk.GarbageCollection":
+                gcPauses++;
+                if (event.hasField("sumOfPauses")) {
+                    gcPauseNanos += event.getDuration("sumOfPauses").toNanos();
+                }
+                break;
+            case "jdk.GCHeapSummary":
+                if (event.hasField("heapUsed")) {
+                    peakHeapBytes = Math.max(peakHeapBytes, event.getLong("heapUsed"));
+                }
+                break;
+            case "jdk.ObjectAllocationSample":
+                addAllocation(event, "weight");
+                break;
+            case "jdk.ObjectAllocationInNewTLAB":
+                addAllocation(event, "tlabSize");
+                break;
+            case "jdk.ObjectAllocationOutsideTLAB":
+                addAllocation(event, "allocationSize");
+                break;
+            case "jdk.ExecutionSample":
+                executionSamples++;
+                samplesByMethod.merge(topFrame(event.getStackTrace()), 1L, Long::sum);
+                break;
+            case "jdk.JavaMonitorEnter":
+                long nanos = event.getDuration().toNanos();
+                monitorWaitNanos += nanos;
+                RecordedClass monitorClass = event.hasField("monitorClass") ? event.getClass("monitorClass") : null;
+                monitorWaitByClass.merge(monitorClass != null ? monitorClass.getName() : "?", nanos, Long::sum);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void addAllocation(RecordedEvent event, String field) {
+        if (!event.hasField(field)) return;
+        long bytes = event.getLong(field);
+        allocatedBytes += bytes;
+        allocationByFrame.merge(topFrame(event.getStackTrace()), bytes, Long::sum);
+    }
+
+    private static String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) return "?";
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) continue;
+            RecordedMethod method = frame.getMethod();
+            return method.getType().getName() + "." + method.getName();
+        }
+        return "?";
+    }
+
+    boolean isEmpty() { return recordings == 0; }
+    int getRecordings() { return recordings; }
+    int getGcPauses() { return gcPauses; }
+    long getGcPauseMillis() { return gcPauseNanos / 1_000_000; }
+    long getPeakHeapBytes() { return peakHeapBytes; }
+    long getMonitorWaitMillis() { return monitorWaitNanos / 1_000_000; }
+    long getAllocatedBytes() { return allocatedBytes; }
+    long getExecutionSamples() { return executionSamples; }
+
+    List<Map.Entry<String, Long>> topAllocationFrames() { return top(allocationByFrame); }
+    List<Map.Entry<String, Long>> topHotMethods() { return top(samplesByMethod); }
+    List<Map.Entry<String, Long>> topMonitorClasses() { return top(monitorWaitByClass); }
+
+    private static List<Map.Entry<String, Long>> top(Map<String, Long> counts) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return entries.subList(0, Math.min(TOP_FRAMES, entries.size()));
+    }
+}
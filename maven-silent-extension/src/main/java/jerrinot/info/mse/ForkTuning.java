@@ -0,0 +1,158 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chooses a Surefire/Failsafe {@code forkCount} for the session from host capacity and test
+ * history, and measures how much test parallelism it actually bought.
+ */
+final class ForkTuning {
+
+    /** Rough heap plus metaspace footprint budgeted per forked test JVM. */
+    static final long FORK_MEMORY_BYTES = 512L * 1024 * 1024;
+    /** Below this much serial test time per module, extra fork start-up outweighs the gain. */
+    static final long MIN_TEST_MILLIS_FOR_FORKS = 5_000;
+    static final String FORK_COUNT_PROP = "forkCount";
+    static final String REUSE_FORKS_PROP = "reuseForks";
+    private static final List<String> TUNED_PROPS = List.of(FORK_COUNT_PROP, REUSE_FORKS_PROP);
+    private static final File PROC_MEMINFO = new File("/proc/meminfo");
+
+    private final int forkCount;
+    private final String reuseForks;
+    private final int cores;
+    private final int threads;
+    private final AtomicLong serialTestMillis = new AtomicLong();
+    private final AtomicLong testWallNanos = new AtomicLong();
+    private final AtomicInteger pomConfigured = new AtomicInteger();
+
+    ForkTuning(int forkCount, String reuseForks, int cores, int threads) {
+        this.forkCount = forkCount;
+        this.reuseForks = reuseForks;
+        this.cores = cores;
+        this.threads = threads;
+    }
+
+    /**
+     * @param maxModuleTestMillis longest serial test time of a module in the previous build,
+     *                            or a negative value when there is no history
+     */
+    static int chooseForkCount(int cores, int threads, long availableMemoryBytes, long maxModuleTestMillis) {
+        int builderThreads = Math.max(1, threads);
+        int byCpu = Math.max(1, cores / builderThreads);
+        int byMemory = availableMemoryBytes > 0
+                ? (int) Math.max(1, Math.min(Integer.MAX_VALUE, availableMemoryBytes / FORK_MEMORY_BYTES / builderThreads))
+                : 1;
+        if (maxModuleTestMillis >= 0 && maxModuleTestMillis < MIN_TEST_MILLIS_FOR_FORKS) {
+            return 1;
+        }
+        return Math.min(byCpu, byMemory);
+    }
+
+    /**
+     * True when the mojo's effective configuration sets {@code forkCount} to something other
+     * than the {@code ${forkCount}} property, i.e. the POM decided and our value is ignored.
+     */
+    static boolean isForkCountConfigured(MojoExecution mojo) {
+        Xpp3Dom configuration = mojo.getConfiguration();
+        if (configuration == null) return false;
+        Xpp3Dom forkCount = configuration.getChild("forkCount");
+        if (forkCount == null || forkCount.getValue() == null) return false;
+        return !forkCount.getValue().contains("${forkCount}");
+    }
+
+    /**
+     * True when the mojo's configuration or the module's {@code <properties>} set
+     * {@code forkCount}; either way the POM decided.
+     */
+    static boolean isForkCountConfigured(MavenProject project, MojoExecution mojo) {
+        return isForkCountConfigured(mojo) || hasProperty(project, FORK_COUNT_PROP);
+    }
+
+    private static boolean hasProperty(MavenProject project, String name) {
+        Properties properties = project != null ? project.getProperties() : null;
+        return properties != null && properties.containsKey(name);
+    }
+
+    /**
+     * User properties win over module properties in parameter expressions, so our values
+     * would shadow a module's own {@code forkCount}/{@code reuseForks} properties. Before the
+     * mojo is configured, this writes the module's values into the parameters that would
+     * otherwise read the property, which leaves the module as the POM configured it.
+     */
+    static void keepModuleForkProperties(MavenProject project, MojoExecution mojo) {
+        Xpp3Dom configuration = mojo.getConfiguration();
+        if (configuration == null) return;
+        for (String name : TUNED_PROPS) {
+            if (!hasProperty(project, name)) continue;
+            Xpp3Dom parameter = configuration.getChild(name);
+            if (parameter == null) {
+                parameter = new Xpp3Dom(name);
+                configuration.addChild(parameter);
+            } else if (parameter.getValue() != null && !parameter.getValue().contains("${" + name + "}")) {
+                continue;
+            }
+            parameter.setValue(project.getProperties().getProperty(name));
+        }
+    }
+
+    /**
+     * Memory available for new processes: {@code MemAvailable} on Linux, the JVM's view of free
+     * physical memory elsewhere, or -1 if neither is known.
+     */
+    static long availableMemoryBytes() {
+        if (PROC_MEMINFO.isFile()) {
+            try (BufferedReader reader = Files.newBufferedReader(PROC_MEMINFO.toPath(), StandardCharsets.US_ASCII)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("MemAvailable:")) {
+                        String kb = line.substring("MemAvailable:".length()).replace("kB", "").trim();
+                        return Long.parseLong(kb) * 1024;
+                    }
+                }
+            } catch (Exception ignored) {
+                // fall through to the MXBean
+            }
+        }
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getFreePhysicalMemorySize();
+        }
+        return -1;
+    }
+
+    void recordTestMojo(long serialMillis, long wallNanos, boolean configuredInPom) {
+        if (configuredInPom) {
+            pomConfigured.incrementAndGet();
+            return;
+        }
+        serialTestMillis.addAndGet(serialMillis);
+        testWallNanos.addAndGet(wallNanos);
+    }
+
+    int getForkCount() { return forkCount; }
+    String getReuseForks() { return reuseForks; }
+    int getCores() { return cores; }
+    int getThreads() { return threads; }
+    int getPomConfigured() { return pomConfigured.get(); }
+
+    /**
+     * Serial test time divided by test mojo wall time, or 0 when nothing was measured.
+     */
+    double getSpeedup() {
+        long wallMillis = testWallNanos.get() / 1_000_000;
+        return wallMillis <= 0 ? 0 : (double) serialTestMillis.get() / wallMillis;
+    }
+}
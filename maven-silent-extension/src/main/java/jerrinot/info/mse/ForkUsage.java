@@ -0,0 +1,278 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * CPU time and memory of the processes mojos fork, such as test JVMs, {@code exec} and Node.
+ *
+ * <p>A daemon thread polls the Maven JVM's descendant processes. A new process belongs to the
+ * mojo of its parent when the parent is a known fork, otherwise to the running mojo whose module
+ * directory contains the process's working directory (Linux only), otherwise to the only running
+ * mojo. Processes that cannot be attributed are counted under {@value #UNATTRIBUTED}. CPU time
+ * a process uses after the last poll before it exits is not seen.
+ *
+ * <p>A process is known by its pid and start instant, so a pid the OS hands out again is a new
+ * process, and it is forgotten at the first poll that no longer sees it.
+ */
+final class ForkUsage {
+
+    static final long DEFAULT_INTERVAL_MILLIS = 500;
+    static final String UNATTRIBUTED = "unattributed";
+    static final int TOP = 10;
+    private static final File PROC = new File("/proc");
+
+    /** One descendant process as seen by a poll; -1 for values the OS does not report. */
+    static final class ProcessSample {
+        final long pid;
+        final long startMillis;
+        final long parentPid;
+        final String workingDir;
+        final long cpuNanos;
+        final long rssBytes;
+
+        ProcessSample(long pid, long startMillis, long parentPid, String workingDir, long cpuNanos, long rssBytes) {
+            this.pid = pid;
+            this.startMillis = startMillis;
+            this.parentPid = parentPid;
+            this.workingDir = workingDir;
+            this.cpuNanos = cpuNanos;
+            this.rssBytes = rssBytes;
+        }
+    }
+
+    static final class Entry {
+        private final String mojo;
+        private int processes;
+        private long cpuNanos;
+        private long peakRssBytes;
+        private long maxProcessRssBytes;
+
+        Entry(String mojo) {
+            this.mojo = mojo;
+        }
+
+        String getMojo() { return mojo; }
+        int getProcesses() { return processes; }
+        long getCpuNanos() { return cpuNanos; }
+        /** Largest summed RSS of the mojo's processes at one poll. */
+        long getPeakRssBytes() { return peakRssBytes; }
+        long getMaxProcessRssBytes() { return maxProcessRssBytes; }
+    }
+
+    private static final class Tracked {
+        final Entry entry;
+        final long startMillis;
+        long cpuNanos;
+
+        Tracked(Entry entry, long startMillis) {
+            this.entry = entry;
+            this.startMillis = startMillis;
+        }
+    }
+
+    private final long intervalMillis;
+    /** Builder thread id to {mojo label, module directory}. */
+    private final ConcurrentHashMap<Long, String[]> running = new ConcurrentHashMap<>();
+    // touched by the poller thread only, read after it stopped
+    /** Pid to the live process seen under it. */
+    private final Map<Long, Tracked> processes = new HashMap<>();
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private long polls;
+    private int seenProcesses;
+    private final Thread poller;
+    private volatile boolean active = true;
+
+    private ForkUsage(long intervalMillis, boolean poll) {
+        this.intervalMillis = Math.max(1, intervalMillis);
+        this.poller = poll ? new Thread(this::pollLoop, "mse-fork-poller") : null;
+        if (poller != null) {
+            poller.setDaemon(true);
+            poller.start();
+        }
+    }
+
+    static ForkUsage start(long intervalMillis) {
+        return new ForkUsage(intervalMillis, true);
+    }
+
+    /** Without a poller, for feeding {@link #observe(List)} directly. */
+    static ForkUsage manual() {
+        return new ForkUsage(DEFAULT_INTERVAL_MILLIS, false);
+    }
+
+    void mojoStarted(MavenProject project, MojoExecution mojo) {
+        if (mojo == null) return;
+        File basedir = project != null ? project.getBasedir() : null;
+        running.put(Thread.currentThread().getId(), new String[]{
+                ContentionProfile.mojoLabel(project, mojo),
+                basedir != null ? basedir.getAbsolutePath() : null});
+    }
+
+    void mojoFinished() {
+        running.remove(Thread.currentThread().getId());
+    }
+
+    private void pollLoop() {
+        while (active) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (!running.isEmpty()) {
+                observe(descendants());
+            }
+        }
+    }
+
+    /** Records one poll of the descendant processes. */
+    void observe(List<ProcessSample> samples) {
+        polls++;
+        Map<Entry, Long> rssByEntry = new HashMap<>();
+        Set<Long> live = new HashSet<>();
+        for (ProcessSample sample : samples) {
+            live.add(sample.pid);
+            Tracked tracked = processes.get(sample.pid);
+            if (tracked == null || tracked.startMillis != sample.startMillis) {
+                Entry entry = entries.computeIfAbsent(attribute(sample), Entry::new);
+                entry.processes++;
+                seenProcesses++;
+                tracked = new Tracked(entry, sample.startMillis);
+                processes.put(sample.pid, tracked);
+            }
+            Entry entry = tracked.entry;
+            if (sample.cpuNanos > tracked.cpuNanos) {
+                entry.cpuNanos += sample.cpuNanos - tracked.cpuNanos;
+                tracked.cpuNanos = sample.cpuNanos;
+            }
+            if (sample.rssBytes > 0) {
+                entry.maxProcessRssBytes = Math.max(entry.maxProcessRssBytes, sample.rssBytes);
+                rssByEntry.merge(entry, sample.rssBytes, Long::sum);
+            }
+        }
+        for (Map.Entry<Entry, Long> rss : rssByEntry.entrySet()) {
+            rss.getKey().peakRssBytes = Math.max(rss.getKey().peakRssBytes, rss.getValue());
+        }
+        processes.keySet().retainAll(live);
+    }
+
+    private String attribute(ProcessSample sample) {
+        Tracked parent = processes.get(sample.parentPid);
+        if (parent != null) return parent.entry.getMojo();
+        List<String[]> mojos = new ArrayList<>(running.values());
+        if (sample.workingDir != null) {
+            String best = null;
+            int bestLength = -1;
+            for (String[] mojo : mojos) {
+                String dir = mojo[1];
+                if (dir != null && isWithin(sample.workingDir, dir) && dir.length() > bestLength) {
+                    best = mojo[0];
+                    bestLength = dir.length();
+                }
+            }
+            if (best != null) return best;
+        }
+        Set<String> labels = new HashSet<>();
+        for (String[] mojo : mojos) labels.add(mojo[0]);
+        return labels.size() == 1 ? labels.iterator().next() : UNATTRIBUTED;
+    }
+
+    private static boolean isWithin(String path, String dir) {
+        return path.equals(dir) || path.startsWith(dir.endsWith(File.separator) ? dir : dir + File.separator);
+    }
+
+    void close() {
+        active = false;
+        if (poller == null) return;
+        poller.interrupt();
+        try {
+            poller.join(1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    long getIntervalMillis() { return intervalMillis; }
+    long getPolls() { return polls; }
+    /** Processes seen over the session, including those that exited. */
+    int getProcesses() { return seenProcesses; }
+    /** Processes alive at the last poll. */
+    int getLiveProcesses() { return processes.size(); }
+
+    long getCpuNanos() {
+        long sum = 0;
+        for (Entry entry : entries.values()) sum += entry.cpuNanos;
+        return sum;
+    }
+
+    /** Mojos by their forks' CPU time, then peak RSS; valid after {@link #close()}. */
+    List<Entry> topEntries() {
+        List<Entry> result = new ArrayList<>(entries.values());
+        result.sort((a, b) -> a.cpuNanos != b.cpuNanos
+                ? Long.compare(b.cpuNanos, a.cpuNanos)
+                : Long.compare(b.peakRssBytes, a.peakRssBytes));
+        return result.subList(0, Math.min(TOP, result.size()));
+    }
+
+    static List<ProcessSample> descendants() {
+        return ProcessHandle.current().descendants()
+                .map(ForkUsage::sample)
+                .collect(Collectors.toList());
+    }
+
+    private static ProcessSample sample(ProcessHandle process) {
+        long pid = process.pid();
+        ProcessHandle.Info info = process.info();
+        return new ProcessSample(pid,
+                info.startInstant().map(Instant::toEpochMilli).orElse(-1L),
+                process.parent().map(ProcessHandle::pid).orElse(-1L),
+                workingDir(pid),
+                info.totalCpuDuration().map(Duration::toNanos).orElse(-1L),
+                rssBytes(pid));
+    }
+
+    private static String workingDir(long pid) {
+        if (!PROC.isDirectory()) return null;
+        try {
+            return Files.readSymbolicLink(new File(PROC, pid + "/cwd").toPath()).toString();
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /** {@code VmRSS} from {@code /proc/<pid>/status}, or -1 off Linux. */
+    static long rssBytes(long pid) {
+        Path status = new File(PROC, pid + "/status").toPath();
+        if (!Files.isReadable(status)) return -1;
+        try (BufferedReader reader = Files.newBufferedReader(status, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.substring("VmRSS:".length()).replace("kB", "").trim()) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+        return -1;
+    }
+}
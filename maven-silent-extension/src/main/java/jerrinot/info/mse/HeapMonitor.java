@@ -0,0 +1,202 @@
+package jerrinot.info.mse;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Heap use and garbage collection of the Maven JVM, from GC notifications.
+ *
+ * <p>After every collection the old generation's occupancy is compared with a threshold. When
+ * it stays above it for {@value #PRESSURE_GCS} collections in a row the JVM is about to spend
+ * most of its time collecting or run out of memory, and the pressure callback fires once, while
+ * the build is still running.
+ */
+final class HeapMonitor implements NotificationListener {
+
+    static final double DEFAULT_THRESHOLD = 0.85;
+    static final int PRESSURE_GCS = 3;
+    static final int TOP = 5;
+    private static final long MB = 1024 * 1024;
+    private static final long SUGGESTION_STEP = 512 * MB;
+
+    private final double threshold;
+    private final long maxHeapBytes;
+    private final Consumer<HeapMonitor> onPressure;
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final Set<String> heapPools = new HashSet<>();
+    /** Builder thread id to the mojo it is running. */
+    private final ConcurrentHashMap<Long, String> running = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> majorGcsByMojo = new ConcurrentHashMap<>();
+
+    // updated from the JMX notification thread only
+    private volatile long collections;
+    private volatile long majorCollections;
+    private volatile long gcMillis;
+    private volatile long peakHeapBytes;
+    private volatile long liveBytes;
+    private volatile double occupancy;
+    private int highInARow;
+    private volatile boolean pressure;
+
+    /**
+     * @param maxHeapBytes {@code -Xmx} of this JVM, used when the old generation has no max
+     */
+    HeapMonitor(double threshold, long maxHeapBytes, Consumer<HeapMonitor> onPressure) {
+        this.threshold = threshold;
+        this.maxHeapBytes = maxHeapBytes;
+        this.onPressure = onPressure;
+    }
+
+    /**
+     * Subscribes to the GC notifications of this JVM; collectors that do not emit notifications
+     * are skipped.
+     */
+    static HeapMonitor start(double threshold, Consumer<HeapMonitor> onPressure) {
+        HeapMonitor monitor = new HeapMonitor(threshold, Runtime.getRuntime().maxMemory(), onPressure);
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                monitor.heapPools.add(pool.getName());
+            }
+        }
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) gc;
+                emitter.addNotificationListener(monitor, null, null);
+                monitor.emitters.add(emitter);
+            }
+        }
+        return monitor;
+    }
+
+    void close() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (ListenerNotFoundException ignored) {
+                // already gone
+            }
+        }
+        emitters.clear();
+    }
+
+    void mojoStarted(MavenProject project, MojoExecution mojo) {
+        if (mojo == null) return;
+        running.put(Thread.currentThread().getId(), ContentionProfile.mojoLabel(project, mojo));
+    }
+
+    void mojoFinished() {
+        running.remove(Thread.currentThread().getId());
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        GcInfo gc = info.getGcInfo();
+        long heapBefore = 0;
+        long heapAfter = 0;
+        MemoryUsage old = null;
+        for (Map.Entry<String, MemoryUsage> pool : gc.getMemoryUsageAfterGc().entrySet()) {
+            if (!heapPools.contains(pool.getKey())) continue;
+            heapAfter += pool.getValue().getUsed();
+            if (isOldGen(pool.getKey())) old = pool.getValue();
+        }
+        for (Map.Entry<String, MemoryUsage> pool : gc.getMemoryUsageBeforeGc().entrySet()) {
+            if (heapPools.contains(pool.getKey())) heapBefore += pool.getValue().getUsed();
+        }
+        long oldUsed = old != null ? old.getUsed() : heapAfter;
+        long oldMax = old != null && old.getMax() > 0 ? old.getMax() : maxHeapBytes;
+        gcFinished(isMajor(info.getGcAction()), gc.getDuration(), heapBefore, heapAfter, oldUsed, oldMax);
+    }
+
+    static boolean isOldGen(String pool) {
+        return pool.contains("Old") || pool.contains("Tenured");
+    }
+
+    /** HotSpot reports full and old-generation collections as {@code end of major GC}. */
+    static boolean isMajor(String gcAction) {
+        return gcAction != null && gcAction.contains("major");
+    }
+
+    /**
+     * @param heapBeforeBytes heap in use when the collection started, the peak since the last one
+     * @param heapAfterBytes  heap still in use afterwards, an upper bound of the live set
+     */
+    void gcFinished(boolean major, long durationMillis, long heapBeforeBytes, long heapAfterBytes,
+                    long oldUsedBytes, long oldMaxBytes) {
+        collections++;
+        gcMillis += durationMillis;
+        peakHeapBytes = Math.max(peakHeapBytes, heapBeforeBytes);
+        liveBytes = heapAfterBytes;
+        if (major) {
+            majorCollections++;
+            for (String mojo : running.values()) {
+                majorGcsByMojo.merge(mojo, 1L, Long::sum);
+            }
+        }
+        occupancy = oldMaxBytes > 0 ? (double) oldUsedBytes / oldMaxBytes : 0;
+        highInARow = occupancy >= threshold ? highInARow + 1 : 0;
+        if (highInARow >= PRESSURE_GCS && !pressure) {
+            pressure = true;
+            onPressure.accept(this);
+        }
+    }
+
+    boolean isPressure() { return pressure; }
+    double getThreshold() { return threshold; }
+    long getMaxHeapBytes() { return maxHeapBytes; }
+    long getCollections() { return collections; }
+    long getMajorCollections() { return majorCollections; }
+    long getGcMillis() { return gcMillis; }
+    long getPeakHeapBytes() { return peakHeapBytes; }
+    /** Old generation occupancy after the last collection, 0 to 1. */
+    double getOccupancy() { return occupancy; }
+
+    /** Mojos that were running during the most major collections. */
+    List<Map.Entry<String, Long>> topMajorGcMojos() {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(majorGcsByMojo.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        return entries.subList(0, Math.min(TOP, entries.size()));
+    }
+
+    /** Mojos running right now, for the pressure warning. */
+    List<String> runningMojos() {
+        return new ArrayList<>(running.values());
+    }
+
+    /**
+     * A heap that keeps the live set below half the heap and grows the current max by half,
+     * rounded up to 512 MB, as an {@code -Xmx} option.
+     */
+    String suggestedXmx() {
+        long target = Math.max(maxHeapBytes + maxHeapBytes / 2, 2 * liveBytes);
+        long rounded = (target + SUGGESTION_STEP - 1) / SUGGESTION_STEP * SUGGESTION_STEP;
+        long mb = rounded / MB;
+        return mb % 1024 == 0
+                ? String.format(Locale.ROOT, "-Xmx%dg", mb / 1024)
+                : String.format(Locale.ROOT, "-Xmx%dm", mb);
+    }
+}
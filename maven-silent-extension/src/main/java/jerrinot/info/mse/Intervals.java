@@ -0,0 +1,60 @@
+package jerrinot.info.mse;
+
+import org.eclipse.aether.repository.ArtifactRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Time interval arithmetic shared by the mojo, download and resolution reports, and the keys the
+ * resolver profiles use to pair a start event with its end event.
+ */
+final class Intervals {
+
+    private Intervals() {
+    }
+
+    /** Length of {@code [from, to]} covered by at least one of the intervals. */
+    static long coveredNanos(List<long[]> intervals, long from, long to) {
+        List<long[]> clipped = new ArrayList<>();
+        for (long[] interval : intervals) {
+            long start = Math.max(from, interval[0]);
+            long end = Math.min(to, interval[1]);
+            if (end > start) clipped.add(new long[]{start, end});
+        }
+        clipped.sort(Comparator.comparingLong(i -> i[0]));
+        long covered = 0;
+        long reach = from;
+        for (long[] interval : clipped) {
+            if (interval[1] <= reach) continue;
+            covered += interval[1] - Math.max(reach, interval[0]);
+            reach = interval[1];
+        }
+        return covered;
+    }
+
+    /** Time covered by at least one of the intervals, overlaps counted once. */
+    static long unionNanos(List<long[]> intervals) {
+        long from = Long.MAX_VALUE;
+        long to = Long.MIN_VALUE;
+        for (long[] interval : intervals) {
+            from = Math.min(from, interval[0]);
+            to = Math.max(to, interval[1]);
+        }
+        return intervals.isEmpty() ? 0 : coveredNanos(intervals, from, to);
+    }
+
+    static String repositoryId(ArtifactRepository repository) {
+        return repository != null ? repository.getId() : "unknown";
+    }
+
+    /**
+     * Pairs the resolver's start and end events of one transfer: both are fired on the requesting
+     * thread, so the same artifact or metadata from the same repository may be in flight on
+     * several threads at once.
+     */
+    static String inFlightKey(Object transferred, ArtifactRepository repository) {
+        return transferred + "@" + repositoryId(repository) + "@" + Thread.currentThread().getId();
+    }
+}
@@ -0,0 +1,66 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Helpers for narrowing the reactor to a subset of modules before execution starts.
+ */
+final class ModuleSelection {
+
+    private ModuleSelection() {
+    }
+
+    static String moduleKey(MavenProject project) {
+        return project.getGroupId() + ":" + project.getArtifactId();
+    }
+
+    static Set<MavenProject> newProjectSet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Returns the seeds plus every project that transitively depends on one of them.
+     */
+    static Set<MavenProject> withDownstream(ProjectDependencyGraph graph, Collection<MavenProject> seeds) {
+        Set<MavenProject> result = newProjectSet();
+        result.addAll(seeds);
+        if (graph == null) return result;
+        for (MavenProject seed : seeds) {
+            result.addAll(graph.getDownstreamProjects(seed, true));
+        }
+        return result;
+    }
+
+    /**
+     * Restricts the session to {@code kept}, preserving reactor order, and returns how many
+     * modules were dropped. Must run before the lifecycle starter calculates project builds,
+     * i.e. no later than {@code SessionStarted}.
+     */
+    static int retain(MavenSession session, Set<MavenProject> kept) {
+        List<MavenProject> projects = session.getProjects();
+        if (projects == null || projects.isEmpty()) return 0;
+        List<MavenProject> retained = new ArrayList<>(projects.size());
+        for (MavenProject project : projects) {
+            if (kept.contains(project)) {
+                retained.add(project);
+            }
+        }
+        int skipped = projects.size() - retained.size();
+        if (skipped == 0 || retained.isEmpty()) return 0;
+        session.setProjects(retained);
+        ProjectDependencyGraph graph = session.getProjectDependencyGraph();
+        if (graph != null) {
+            session.setProjectDependencyGraph(new FilteredDependencyGraph(graph, retained));
+        }
+        return skipped;
+    }
+}
@@ -0,0 +1,153 @@
+package jerrinot.info.mse;
+
+import jerrinot.info.mse.model.MojoTiming;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Wall-clock timing of every mojo execution in the session, optionally with the builder
+ * thread's CPU time, allocation and class loading ({@link ThreadUsage}).
+ *
+ * <p>Builder threads only touch a concurrent map keyed by the (identity-compared) mojo
+ * execution and a lock-free queue of finished executions; aggregation happens once, at
+ * session end.
+ */
+final class MojoProfile {
+
+    static final String NO_PHASE = "none";
+
+    private final LongSupplier clock;
+    private final ThreadUsage usage;
+    private final ConcurrentHashMap<MojoExecution, long[]> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> readySince = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<MojoTiming> finished = new ConcurrentLinkedQueue<>();
+
+    MojoProfile() {
+        this(System::nanoTime);
+    }
+
+    MojoProfile(LongSupplier clock) {
+        this(clock, null);
+    }
+
+    /**
+     * @param usage reads resource usage at mojo start and end, or null to record wall time only
+     */
+    MojoProfile(LongSupplier clock, ThreadUsage usage) {
+        this.clock = clock;
+        this.usage = usage;
+    }
+
+    /**
+     * Marks the current builder thread as starting a module, so the wait before its first mojo
+     * is measured from here.
+     */
+    void projectStarted() {
+        readySince.put(Thread.currentThread().getId(), clock.getAsLong());
+    }
+
+    void mojoStarted(MojoExecution mojo) {
+        if (mojo == null) return;
+        long now = clock.getAsLong();
+        Long ready = readySince.get(Thread.currentThread().getId());
+        long[] used = usage != null ? usage.snapshot() : null;
+        inFlight.put(mojo, used != null
+                ? new long[]{ready != null ? ready : now, now, used[ThreadUsage.CPU], used[ThreadUsage.ALLOCATED], used[ThreadUsage.CLASSES]}
+                : new long[]{ready != null ? ready : now, now});
+    }
+
+    /**
+     * Returns the finished execution, or null when its start was not seen.
+     */
+    MojoTiming mojoFinished(MavenProject project, MojoExecution mojo, boolean failed) {
+        if (mojo == null) return null;
+        long[] started = inFlight.remove(mojo);
+        if (started == null) return null;
+        long end = clock.getAsLong();
+        long[] used = started.length > 2 ? usage.snapshot() : null;
+        readySince.put(Thread.currentThread().getId(), end);
+        MojoTiming.Builder builder = MojoTiming.builder(
+                        project != null ? ModuleSelection.moduleKey(project) : "unknown",
+                        project != null ? project.getArtifactId() : "unknown",
+                        mojo.getArtifactId() != null ? mojo.getArtifactId() : "unknown-plugin",
+                        mojo.getGoal() != null ? mojo.getGoal() : "unknown-goal")
+                .executionId(mojo.getExecutionId())
+                .phase(mojo.getLifecyclePhase())
+                .threadId(Thread.currentThread().getId())
+                .readyNanos(started[0])
+                .span(started[1], end)
+                .failed(failed);
+        if (used != null) {
+            builder.cpuNanos(ThreadUsage.delta(started[2], used[ThreadUsage.CPU]))
+                    .allocatedBytes(ThreadUsage.delta(started[3], used[ThreadUsage.ALLOCATED]))
+                    .loadedClasses(ThreadUsage.delta(started[4], used[ThreadUsage.CLASSES]));
+        }
+        MojoTiming timing = builder.build();
+        finished.add(timing);
+        return timing;
+    }
+
+    boolean isEmpty() {
+        return finished.isEmpty();
+    }
+
+    /**
+     * Finished executions ordered by start time.
+     */
+    List<MojoTiming> getTimings() {
+        List<MojoTiming> timings = new ArrayList<>(finished);
+        timings.sort(Comparator.comparingLong(MojoTiming::getStartNanos));
+        return timings;
+    }
+
+    long getTotalNanos() {
+        long total = 0;
+        for (MojoTiming timing : finished) total += timing.getDurationNanos();
+        return total;
+    }
+
+    List<MojoTiming> slowest(int limit) {
+        List<MojoTiming> timings = new ArrayList<>(finished);
+        timings.sort(Comparator.comparingLong(MojoTiming::getDurationNanos).reversed());
+        return timings.subList(0, Math.min(limit, timings.size()));
+    }
+
+    /**
+     * Summed mojo time per lifecycle phase across the reactor, longest first.
+     */
+    List<Map.Entry<String, Long>> nanosByPhase() {
+        Map<String, Long> totals = new HashMap<>();
+        for (MojoTiming timing : finished) {
+            String phase = timing.getPhase() != null ? timing.getPhase() : NO_PHASE;
+            totals.merge(phase, timing.getDurationNanos(), Long::sum);
+        }
+        return sortedByValue(totals);
+    }
+
+    /**
+     * Summed mojo time per plugin artifactId, longest first.
+     */
+    List<Map.Entry<String, Long>> nanosByPlugin() {
+        Map<String, Long> totals = new HashMap<>();
+        for (MojoTiming timing : finished) {
+            totals.merge(timing.getPlugin(), timing.getDurationNanos(), Long::sum);
+        }
+        return sortedByValue(totals);
+    }
+
+    private static List<Map.Entry<String, Long>> sortedByValue(Map<String, Long> totals) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(totals.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        return entries;
+    }
+}
@@ -0,0 +1,67 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Presents a reactor dependency graph in a different topological order. Maven's parallel
+ * builder queues newly unblocked modules in the order {@link #getDownstreamProjects} returns
+ * them, so reordering {@code session.getProjects()} alone only affects the first modules.
+ */
+class OrderedDependencyGraph implements ProjectDependencyGraph {
+
+    private final ProjectDependencyGraph delegate;
+    private final List<MavenProject> sortedProjects;
+    private final Map<MavenProject, Integer> positions = new IdentityHashMap<>();
+
+    /**
+     * @param order the delegate's sorted projects in a new order that still lists every
+     *              project after its upstream projects
+     */
+    OrderedDependencyGraph(ProjectDependencyGraph delegate, List<MavenProject> order) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.sortedProjects = new ArrayList<>(order);
+        for (int i = 0; i < order.size(); i++) {
+            positions.put(order.get(i), i);
+        }
+    }
+
+    @Override
+    public List<MavenProject> getAllProjects() {
+        return delegate.getAllProjects();
+    }
+
+    @Override
+    public List<MavenProject> getSortedProjects() {
+        return new ArrayList<>(sortedProjects);
+    }
+
+    @Override
+    public List<MavenProject> getDownstreamProjects(MavenProject project, boolean transitive) {
+        return reorder(delegate.getDownstreamProjects(project, transitive));
+    }
+
+    @Override
+    public List<MavenProject> getUpstreamProjects(MavenProject project, boolean transitive) {
+        return reorder(delegate.getUpstreamProjects(project, transitive));
+    }
+
+    private List<MavenProject> reorder(List<MavenProject> projects) {
+        List<MavenProject> reordered = new ArrayList<>(projects);
+        // projects outside the order (none in practice) keep their relative place at the end
+        reordered.sort(Comparator.comparingInt(p -> positions.getOrDefault(p, Integer.MAX_VALUE)));
+        return reordered;
+    }
+
+    @Override
+    public String toString() {
+        return sortedProjects.toString();
+    }
+}
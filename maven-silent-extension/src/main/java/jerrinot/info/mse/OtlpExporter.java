@@ -0,0 +1,250 @@
+package jerrinot.info.mse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends build spans to an OpenTelemetry collector as OTLP/HTTP JSON.
+ *
+ * <p>{@link #span} only enqueues, and drops the span when the queue is full, so builder threads
+ * never wait for the network. A daemon thread batches and posts the spans.
+ */
+final class OtlpExporter {
+
+    static final String DEFAULT_ENDPOINT = "http://localhost:4318/v1/traces";
+    static final int MAX_BATCH = 512;
+    static final int QUEUE_CAPACITY = 8192;
+    private static final long FLUSH_INTERVAL_MILLIS = 1_000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+
+    static final class Span {
+        final String name;
+        final String spanId;
+        final String parentSpanId;
+        final long startEpochNanos;
+        final long endEpochNanos;
+        final Map<String, String> attributes;
+        final boolean error;
+
+        Span(String name, String spanId, String parentSpanId, long startEpochNanos, long endEpochNanos,
+             Map<String, String> attributes, boolean error) {
+            this.name = name;
+            this.spanId = spanId;
+            this.parentSpanId = parentSpanId;
+            this.startEpochNanos = startEpochNanos;
+            this.endEpochNanos = endEpochNanos;
+            this.attributes = attributes;
+            this.error = error;
+        }
+    }
+
+    private static final Span POISON = new Span("", "", null, 0, 0, Map.of(), false);
+
+    private final URI endpoint;
+    private final String serviceName;
+    private final String traceId;
+    private final String parentSpanId;
+    private final HttpClient client;
+    private final BlockingQueue<Span> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final Map<String, String> moduleSpanIds = new ConcurrentHashMap<>();
+    private final AtomicInteger sent = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final AtomicInteger failedBatches = new AtomicInteger();
+    private volatile String lastError;
+    private final Thread sender;
+
+    /**
+     * @param traceparent W3C {@code traceparent} of the enclosing CI span, or null to start a
+     *                    new trace
+     */
+    OtlpExporter(URI endpoint, String serviceName, String traceparent) {
+        this.endpoint = endpoint;
+        this.serviceName = serviceName;
+        String[] parent = parseTraceparent(traceparent);
+        this.traceId = parent != null ? parent[0] : randomHex(16);
+        this.parentSpanId = parent != null ? parent[1] : null;
+        this.client = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+        this.sender = new Thread(this::sendLoop, "mse-otlp-exporter");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    /**
+     * Returns {traceId, spanId} of a valid version-00 {@code traceparent}, or null.
+     */
+    static String[] parseTraceparent(String traceparent) {
+        if (traceparent == null) return null;
+        String[] parts = traceparent.trim().toLowerCase(Locale.ROOT).split("-");
+        if (parts.length < 4 || !"00".equals(parts[0])) return null;
+        if (!isHex(parts[1], 32) || !isHex(parts[2], 16)) return null;
+        if (parts[1].matches("0+") || parts[2].matches("0+")) return null;
+        return new String[]{parts[1], parts[2]};
+    }
+
+    private static boolean isHex(String s, int length) {
+        return s.length() == length && s.chars().allMatch(c -> (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'));
+    }
+
+    static String randomHex(int bytes) {
+        StringBuilder sb = new StringBuilder(bytes * 2);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        do {
+            sb.setLength(0);
+            for (int i = 0; i < bytes; i++) {
+                sb.append(String.format("%02x", random.nextInt(256)));
+            }
+        } while (sb.toString().matches("0+"));
+        return sb.toString();
+    }
+
+    String getTraceId() { return traceId; }
+    /** Span id of the enclosing CI span, or null when the build is the trace root. */
+    String getParentSpanId() { return parentSpanId; }
+    URI getEndpoint() { return endpoint; }
+    int getSent() { return sent.get(); }
+    int getDropped() { return dropped.get(); }
+    int getFailedBatches() { return failedBatches.get(); }
+    String getLastError() { return lastError; }
+
+    /**
+     * Stable span id for a module, so its mojos can reference it before the module span ends.
+     */
+    String moduleSpanId(String moduleKey) {
+        return moduleSpanIds.computeIfAbsent(moduleKey, k -> randomHex(8));
+    }
+
+    void span(Span span) {
+        if (!queue.offer(span)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Sends what is queued and stops the sender, waiting at most {@code timeoutMillis}.
+     */
+    void close(long timeoutMillis) {
+        while (!queue.offer(POISON)) {
+            if (queue.poll() != null) dropped.incrementAndGet();
+        }
+        if (timeoutMillis > 0) {
+            try {
+                sender.join(timeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (sender.isAlive()) {
+            sender.interrupt();
+        }
+    }
+
+    private void sendLoop() {
+        List<Span> batch = new ArrayList<>(MAX_BATCH);
+        long deadline = 0;
+        try {
+            while (true) {
+                long wait = batch.isEmpty()
+                        ? FLUSH_INTERVAL_MILLIS
+                        : Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+                Span span = queue.poll(wait, TimeUnit.MILLISECONDS);
+                if (span == POISON) {
+                    // Spans that raced the poison pill go out with the last batch
+                    queue.drainTo(batch);
+                    batch.remove(POISON);
+                    for (int from = 0; from < batch.size(); from += MAX_BATCH) {
+                        post(batch.subList(from, Math.min(batch.size(), from + MAX_BATCH)));
+                    }
+                    return;
+                }
+                if (span != null) {
+                    if (batch.isEmpty()) {
+                        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MILLIS);
+                    }
+                    batch.add(span);
+                }
+                if (batch.size() >= MAX_BATCH || (!batch.isEmpty() && System.nanoTime() - deadline >= 0)) {
+                    post(batch);
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            // close() gave up waiting for the collector
+        }
+    }
+
+    private void post(List<Span> batch) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(batch)))
+                .build();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 == 2) {
+                sent.addAndGet(batch.size());
+            } else {
+                failedBatches.incrementAndGet();
+                lastError = "HTTP " + response.statusCode();
+            }
+        } catch (IOException | RuntimeException e) {
+            failedBatches.incrementAndGet();
+            lastError = e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+        }
+    }
+
+    String toJson(List<Span> batch) {
+        StringBuilder sb = new StringBuilder(256 + batch.size() * 256);
+        sb.append("{\"resourceSpans\":[{\"resource\":{\"attributes\":[");
+        appendAttribute(sb, "service.name", serviceName);
+        sb.append("]},\"scopeSpans\":[{\"scope\":{\"name\":\"mse\"},\"spans\":[");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) sb.append(',');
+            appendSpan(sb, batch.get(i));
+        }
+        sb.append("]}]}]}");
+        return sb.toString();
+    }
+
+    private void appendSpan(StringBuilder sb, Span span) {
+        sb.append("{\"traceId\":\"").append(traceId)
+                .append("\",\"spanId\":\"").append(span.spanId).append('"');
+        if (span.parentSpanId != null) {
+            sb.append(",\"parentSpanId\":\"").append(span.parentSpanId).append('"');
+        }
+        sb.append(",\"name\":");
+        TraceWriter.appendString(sb, span.name);
+        // 1 = SPAN_KIND_INTERNAL; 64-bit times are strings in OTLP/JSON
+        sb.append(",\"kind\":1,\"startTimeUnixNano\":\"").append(span.startEpochNanos)
+                .append("\",\"endTimeUnixNano\":\"").append(span.endEpochNanos).append("\",\"attributes\":[");
+        boolean first = true;
+        for (Map.Entry<String, String> attribute : span.attributes.entrySet()) {
+            if (!first) sb.append(',');
+            appendAttribute(sb, attribute.getKey(), attribute.getValue());
+            first = false;
+        }
+        // 2 = STATUS_CODE_ERROR, 0 = unset
+        sb.append("],\"status\":{\"code\":").append(span.error ? 2 : 0).append("}}");
+    }
+
+    private static void appendAttribute(StringBuilder sb, String key, String value) {
+        sb.append("{\"key\":");
+        TraceWriter.appendString(sb, key);
+        sb.append(",\"value\":{\"stringValue\":");
+        TraceWriter.appendString(sb, value);
+        sb.append("}}");
+    }
+}
@@ -1,19 +1,25 @@
 package jerrinot.info.mse;
 
 import jerrinot.info.mse.model.CompilerError;
+import jerrinot.info.mse.model.MojoTiming;
 import jerrinot.info.mse.model.TestFailure;
 import jerrinot.info.mse.model.TestSummary;
+import org.apache.maven.project.MavenProject;
 
 import java.io.File;
 import java.io.PrintStream;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 class OutputFormatter {
 
     private static final int MAX_FAILURE_DETAILS = 10;
     private static final int MAX_COMPILER_ERRORS = 25;
     private static final int MAX_GENERIC_FAILURE_LINES = 20;
+    private static final int MAX_PROFILE_MOJOS = 5;
+    private static final int MAX_PROFILE_PLUGINS = 5;
 
     private final PrintStream out;
 
@@ -22,10 +28,23 @@ class OutputFormatter {
     }
 
     public void emitSessionStart(int moduleCount, List<String> goals) {
+        emitSessionStart(moduleCount, goals, -1);
+    }
+
+    /**
+     * @param skippedModules modules trimmed from the reactor, or a negative value when no
+     *                       module selection was requested
+     */
+    public void emitSessionStart(int moduleCount, List<String> goals, int skippedModules) {
         String goalStr = (goals == null || goals.isEmpty())
                 ? "<none>"
                 : String.join(",", goals);
-        out.println("MSE:SESSION_START modules=" + moduleCount + " goals=" + goalStr);
+        StringBuilder sb = new StringBuilder("MSE:SESSION_START modules=");
+        sb.append(moduleCount).append(" goals=").append(goalStr);
+        if (skippedModules >= 0) {
+            sb.append(" skipped=").append(skippedModules);
+        }
+        out.println(sb);
     }
 
     public void emitOk(BuildState state) {
@@ -115,6 +134,447 @@ class OutputFormatter {
         out.println(sb);
     }
 
+    /**
+     * Emits the modules a follow-up build has to cover, as a ready-to-use {@code -pl} value.
+     */
+    public void emitResume(List<String> artifactIds) {
+        if (artifactIds.isEmpty()) return;
+        StringBuilder sb = new StringBuilder("MSE:RESUME modules=");
+        sb.append(artifactIds.size()).append(" pl=");
+        for (int i = 0; i < artifactIds.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(':').append(artifactIds.get(i));
+        }
+        out.println(sb);
+    }
+
+    public void emitForks(ForkTuning tuning) {
+        StringBuilder sb = new StringBuilder("MSE:FORKS forkCount=");
+        sb.append(tuning.getForkCount())
+                .append(" reuseForks=").append(tuning.getReuseForks())
+                .append(" cores=").append(tuning.getCores())
+                .append(" threads=").append(tuning.getThreads())
+                .append(" pom_configured=").append(tuning.getPomConfigured());
+        double speedup = tuning.getSpeedup();
+        if (speedup > 0) {
+            sb.append(" speedup=").append(String.format(java.util.Locale.ROOT, "%.1f", speedup)).append('x');
+        }
+        out.println(sb);
+    }
+
+    /**
+     * @param schedule null when no module had a recorded duration
+     * @param previousMillis wall time of the last successful build, or negative if unknown
+     */
+    public void emitSchedule(CriticalPathSchedule schedule, long wallNanos, long previousMillis) {
+        StringBuilder sb = new StringBuilder("MSE:SCHEDULE order=");
+        if (schedule == null) {
+            sb.append("reactor history=none");
+        } else {
+            sb.append(schedule.isBeneficial() ? "critical-path" : "reactor")
+                    .append(" moved=").append(schedule.isBeneficial() ? schedule.getMoved() : 0)
+                    .append(" unknown=").append(schedule.getUnknown())
+                    .append(" predicted=").append(seconds(schedule.getScheduledNanos()))
+                    .append(" reactor_order=").append(seconds(schedule.getReactorOrderNanos()));
+        }
+        sb.append(" wall=").append(seconds(wallNanos));
+        if (previousMillis >= 0) {
+            long previousNanos = previousMillis * 1_000_000;
+            sb.append(" previous_wall=").append(seconds(previousNanos))
+                    .append(" gained=").append(seconds(previousNanos - wallNanos));
+        }
+        out.println(sb);
+    }
+
+    public void emitForkProfile(String moduleId, ForkProfile profile) {
+        StringBuilder sb = new StringBuilder("MSE:FORK_PROFILE ");
+        sb.append(moduleId)
+                .append(" forks=").append(profile.getRecordings())
+                .append(" gc_pauses=").append(profile.getGcPauses())
+                .append(" gc_pause_ms=").append(profile.getGcPauseMillis())
+                .append(" peak_heap_mb=").append(profile.getPeakHeapBytes() / (1024 * 1024))
+                .append(" lock_wait_ms=").append(profile.getMonitorWaitMillis());
+        appendShares(sb, "alloc", profile.topAllocationFrames(), profile.getAllocatedBytes());
+        appendShares(sb, "hot", profile.topHotMethods(), profile.getExecutionSamples());
+        for (Map.Entry<String, Long> lock : profile.topMonitorClasses()) {
+            sb.append("\n  lock ").append(lock.getValue() / 1_000_000).append("ms ").append(lock.getKey());
+        }
+        out.println(sb);
+    }
+
+    private static void appendShares(StringBuilder sb, String label,
+                                     List<Map.Entry<String, Long>> entries, long total) {
+        if (total <= 0) return;
+        for (Map.Entry<String, Long> entry : entries) {
+            sb.append("\n  ").append(label).append(' ')
+                    .append(entry.getValue() * 100 / total).append("% ")
+                    .append(entry.getKey());
+        }
+    }
+
+    public void emitProfile(MojoProfile profile) {
+        List<MojoTiming> timings = profile.getTimings();
+        StringBuilder sb = new StringBuilder("MSE:PROFILE mojos=");
+        sb.append(timings.size()).append(" mojo_time=").append(seconds(profile.getTotalNanos()));
+        for (MojoTiming timing : profile.slowest(MAX_PROFILE_MOJOS)) {
+            sb.append("\n  mojo ").append(seconds(timing.getDurationNanos())).append(' ')
+                    .append(timing.getPlugin()).append(':').append(timing.getGoal());
+            String executionId = timing.getExecutionId();
+            if (executionId != null && !executionId.isEmpty() && !executionId.startsWith("default-")) {
+                sb.append(" (").append(executionId).append(')');
+            }
+            sb.append(" @ ").append(timing.getModuleId());
+            appendUsage(sb, timing);
+        }
+        for (Map.Entry<String, Long> phase : profile.nanosByPhase()) {
+            sb.append("\n  phase ").append(seconds(phase.getValue())).append(' ').append(phase.getKey());
+        }
+        List<Map.Entry<String, Long>> plugins = profile.nanosByPlugin();
+        for (Map.Entry<String, Long> plugin : plugins.subList(0, Math.min(MAX_PROFILE_PLUGINS, plugins.size()))) {
+            sb.append("\n  plugin ").append(seconds(plugin.getValue())).append(' ').append(plugin.getKey());
+        }
+        out.println(sb);
+    }
+
+    /**
+     * CPU time close to the wall time means the mojo computed; a large gap means it waited on
+     * I/O, locks or a forked process.
+     */
+    private static void appendUsage(StringBuilder sb, MojoTiming timing) {
+        if (timing.getCpuNanos() >= 0) {
+            sb.append(" cpu=").append(seconds(timing.getCpuNanos()));
+        }
+        if (timing.getAllocatedBytes() >= 0) {
+            sb.append(" alloc_mb=").append(timing.getAllocatedBytes() / (1024 * 1024));
+        }
+        if (timing.getLoadedClasses() >= 0) {
+            sb.append(" classes=").append(timing.getLoadedClasses());
+        }
+    }
+
+    public void emitBootstrap(BootstrapTimes bootstrap) {
+        StringBuilder sb = new StringBuilder("MSE:BOOTSTRAP total=");
+        sb.append(seconds(bootstrap.totalMillis() * 1_000_000));
+        long[] phases = bootstrap.phaseMillis();
+        for (int i = 0; i < phases.length; i++) {
+            sb.append(' ').append(BootstrapTimes.PHASES[i]).append('=').append(seconds(phases[i] * 1_000_000));
+        }
+        sb.append(" hint=").append(bootstrap.hint());
+        out.println(sb);
+    }
+
+    /**
+     * @param wallNanos session wall time the path and each module's share are measured against
+     */
+    public void emitCriticalPath(CriticalPath path, long wallNanos) {
+        List<MavenProject> modules = path.getModules();
+        StringBuilder sb = new StringBuilder("MSE:CRITICAL_PATH modules=");
+        sb.append(modules.size())
+                .append(" length=").append(seconds(path.getLengthNanos()))
+                .append(" wall=").append(seconds(wallNanos))
+                .append(" share=").append(percent(path.getLengthNanos(), wallNanos)).append('%');
+        for (int i = 0; i < modules.size(); i++) {
+            long nanos = path.getModuleNanos(i);
+            sb.append("\n  ").append(modules.get(i).getArtifactId()).append(' ')
+                    .append(seconds(nanos)).append(' ')
+                    .append(percent(nanos, wallNanos)).append('%');
+        }
+        out.println(sb);
+    }
+
+    public void emitParallelism(ParallelismAdvice advice) {
+        StringBuilder sb = new StringBuilder("MSE:PARALLELISM threads=");
+        sb.append(advice.getCurrentThreads())
+                .append(" cores=").append(advice.getCores())
+                .append(" recommended=-T").append(advice.getRecommended())
+                .append(" best=").append(seconds(advice.getBestNanos()));
+        List<Integer> candidates = advice.getCandidates();
+        for (int i = 0; i < candidates.size(); i++) {
+            int threads = candidates.get(i);
+            sb.append("\n  -T").append(threads).append(' ').append(seconds(advice.getPredictedNanos(i)));
+            if (threads == advice.getCurrentThreads()) {
+                sb.append(" current");
+            }
+        }
+        out.println(sb);
+    }
+
+    /**
+     * {@code bottleneck=threads} when all builder threads were busy for at least half the
+     * session, otherwise {@code reactor}: threads sat idle waiting on dependencies.
+     */
+    public void emitUtilization(BuilderUtilization.Summary summary) {
+        int threads = summary.getThreads();
+        long wall = summary.getWallNanos();
+        long underused = summary.getNanosBelow(threads);
+        StringBuilder sb = new StringBuilder("MSE:UTILIZATION threads=");
+        sb.append(threads)
+                .append(" avg=").append(String.format(java.util.Locale.ROOT, "%.1f", summary.getAverageBusy()))
+                .append(" p50=").append(summary.percentile(50))
+                .append(" p90=").append(summary.percentile(90))
+                .append(" max=").append(summary.getMaxLevel())
+                .append(" underused=").append(seconds(underused))
+                .append(" share=").append(percent(underused, wall)).append('%')
+                .append(" bottleneck=").append(underused * 2 > wall ? "reactor" : "threads");
+        for (int level = 0; level <= Math.max(threads, summary.getMaxLevel()); level++) {
+            long nanos = summary.getNanosAtLevel(level);
+            sb.append("\n  busy ").append(level).append(' ')
+                    .append(seconds(nanos)).append(' ').append(percent(nanos, wall)).append('%');
+        }
+        for (Map.Entry<String, Long> waited : summary.getWaitedOn()) {
+            sb.append("\n  waited_on ").append(waited.getKey()).append(" idle=").append(seconds(waited.getValue()));
+        }
+        out.println(sb);
+    }
+
+    public void emitUnsafeMojos(List<UnsafeMojos.Entry> entries) {
+        long held = 0;
+        long blocked = 0;
+        long overlapped = 0;
+        for (UnsafeMojos.Entry entry : entries) {
+            held += entry.getHeldNanos();
+            blocked += entry.getBlockedNanos();
+            overlapped += entry.getOverlappedNanos();
+        }
+        StringBuilder sb = new StringBuilder("MSE:UNSAFE_MOJO mojos=");
+        sb.append(entries.size())
+                .append(" held=").append(seconds(held))
+                .append(" blocked=").append(seconds(blocked))
+                .append(" overlapped=").append(seconds(overlapped));
+        for (UnsafeMojos.Entry entry : entries) {
+            sb.append("\n  ").append(entry.getMojo())
+                    .append(' ').append(entry.getKind().label())
+                    .append(" executions=").append(entry.getExecutions())
+                    .append(" held=").append(seconds(entry.getHeldNanos()))
+                    .append(" blocked=").append(seconds(entry.getBlockedNanos()))
+                    .append(" overlapped=").append(seconds(entry.getOverlappedNanos()));
+        }
+        out.println(sb);
+    }
+
+    /**
+     * Mojo blocked/waited times are measured; lock times are estimated from samples, one
+     * sampling interval per sample.
+     */
+    public void emitContention(ContentionProfile contention) {
+        StringBuilder sb = new StringBuilder("MSE:CONTENTION blocked=");
+        sb.append(contention.getBlockedMillis()).append("ms")
+                .append(" waited=").append(contention.getWaitedMillis()).append("ms")
+                .append(" samples=").append(contention.getSamples())
+                .append(" interval=").append(contention.getIntervalMillis()).append("ms");
+        for (Map.Entry<String, long[]> mojo : contention.topMojos()) {
+            sb.append("\n  mojo ").append(mojo.getKey())
+                    .append(" blocked=").append(mojo.getValue()[0]).append("ms")
+                    .append(" waited=").append(mojo.getValue()[1]).append("ms");
+        }
+        long interval = contention.getIntervalMillis();
+        for (Map.Entry<String, long[]> lock : contention.topLocks()) {
+            sb.append("\n  lock ").append(lock.getKey())
+                    .append(" blocked~").append(lock.getValue()[0] * interval).append("ms")
+                    .append(" waited~").append(lock.getValue()[1] * interval).append("ms");
+        }
+        out.println(sb);
+    }
+
+    /**
+     * Printed from the GC notification thread as soon as the pressure is detected, so it can
+     * precede an {@code OutOfMemoryError} by minutes.
+     */
+    public void emitHeapPressure(HeapMonitor heap) {
+        StringBuilder sb = new StringBuilder("MSE:HEAP_PRESSURE old_gen=");
+        sb.append(Math.round(heap.getOccupancy() * 100)).append('%')
+                .append(" threshold=").append(Math.round(heap.getThreshold() * 100)).append('%')
+                .append(" max_mb=").append(heap.getMaxHeapBytes() / (1024 * 1024))
+                .append(" suggest=MAVEN_OPTS=\"").append(heap.suggestedXmx()).append('"');
+        for (String mojo : heap.runningMojos()) {
+            sb.append("\n  running ").append(mojo);
+        }
+        out.println(sb);
+    }
+
+    /**
+     * @param wallNanos session wall time the GC time share is measured against
+     */
+    public void emitHeap(HeapMonitor heap, long wallNanos) {
+        long gcNanos = heap.getGcMillis() * 1_000_000;
+        StringBuilder sb = new StringBuilder("MSE:HEAP peak_mb=");
+        sb.append(heap.getPeakHeapBytes() / (1024 * 1024))
+                .append(" max_mb=").append(heap.getMaxHeapBytes() / (1024 * 1024))
+                .append(" gcs=").append(heap.getCollections())
+                .append(" major=").append(heap.getMajorCollections())
+                .append(" gc_time=").append(seconds(gcNanos))
+                .append(" gc_share=").append(percent(gcNanos, wallNanos)).append('%');
+        if (heap.isPressure()) {
+            sb.append(" pressure=yes");
+        }
+        for (Map.Entry<String, Long> mojo : heap.topMajorGcMojos()) {
+            sb.append("\n  major_gc ").append(mojo.getKey()).append(" count=").append(mojo.getValue());
+        }
+        out.println(sb);
+    }
+
+    public void emitForkUsage(ForkUsage forks) {
+        StringBuilder sb = new StringBuilder("MSE:FORK_USAGE processes=");
+        sb.append(forks.getProcesses())
+                .append(" cpu=").append(seconds(forks.getCpuNanos()))
+                .append(" polls=").append(forks.getPolls())
+                .append(" interval=").append(forks.getIntervalMillis()).append("ms");
+        for (ForkUsage.Entry entry : forks.topEntries()) {
+            sb.append("\n  ").append(entry.getMojo())
+                    .append(" processes=").append(entry.getProcesses())
+                    .append(" cpu=").append(seconds(entry.getCpuNanos()))
+                    .append(" peak_rss_mb=").append(entry.getPeakRssBytes() / (1024 * 1024))
+                    .append(" max_process_rss_mb=").append(entry.getMaxProcessRssBytes() / (1024 * 1024));
+        }
+        out.println(sb);
+    }
+
+    public void emitOversubscribed(Oversubscription load) {
+        StringBuilder sb = new StringBuilder("MSE:OVERSUBSCRIBED cores=");
+        sb.append(load.getCores())
+                .append(" peak_runnable=").append(Math.round(load.getPeakRunnable()))
+                .append(" periods=").append(load.getPeriodCount())
+                .append(" time=").append(seconds(load.getOversubscribedNanos()))
+                .append(" threads=").append(load.getThreads())
+                .append(" forks=").append(load.getForks());
+        if (load.isParallelTests()) {
+            sb.append(" parallel_tests=yes");
+        }
+        String suggestion = load.suggestion();
+        if (suggestion != null) {
+            sb.append(" suggest=").append(suggestion);
+        }
+        for (Oversubscription.Period period : load.topPeriods()) {
+            sb.append("\n  period at=").append(seconds(period.getStartNanos()))
+                    .append(" duration=").append(seconds(period.getDurationNanos()))
+                    .append(" peak_runnable=").append(Math.round(period.getPeakRunnable()));
+            if (period.getCpuLoad() >= 0) {
+                sb.append(" cpu=").append(Math.round(period.getCpuLoad() * 100)).append('%');
+            }
+            if (!period.getMojos().isEmpty()) {
+                sb.append(" mojos=").append(String.join(",", period.getMojos()));
+            }
+        }
+        out.println(sb);
+    }
+
+    /**
+     * Not tied to {@code -Dmse.profile}: time spent downloading is worth knowing about in any
+     * build.
+     */
+    public void emitDownloads(DownloadProfile downloads) {
+        DownloadProfile.Totals total = downloads.total();
+        StringBuilder sb = new StringBuilder("MSE:DOWNLOADS artifacts=");
+        sb.append(total.getArtifacts())
+                .append(" failed=").append(total.getFailed())
+                .append(" mb=").append(megabytes(total.getBytes()))
+                .append(" time=").append(seconds(total.getBusyNanos()));
+        for (DownloadProfile.Totals repository : downloads.byRepository()) {
+            sb.append("\n  repo ").append(repository.getName())
+                    .append(" artifacts=").append(repository.getArtifacts())
+                    .append(" failed=").append(repository.getFailed())
+                    .append(" mb=").append(megabytes(repository.getBytes()))
+                    .append(" time=").append(seconds(repository.getBusyNanos()))
+                    .append(" throughput=").append(megabytes((long) repository.getBytesPerSecond())).append("MB/s")
+                    .append(" avg=").append(millis(repository.getAverageNanos()))
+                    .append(" max=").append(millis(repository.getMaxNanos()));
+        }
+        for (DownloadProfile.Totals module : downloads.byModule()) {
+            sb.append("\n  module ").append(module.getName())
+                    .append(" artifacts=").append(module.getArtifacts())
+                    .append(" mb=").append(megabytes(module.getBytes()))
+                    .append(" time=").append(seconds(module.getBusyNanos()));
+        }
+        out.println(sb);
+    }
+
+    public void emitResolution(ResolutionProfile resolution) {
+        StringBuilder sb = new StringBuilder("MSE:RESOLUTION resolutions=");
+        sb.append(resolution.getResolutions())
+                .append(" time=").append(seconds(resolution.getResolutionNanos()))
+                .append(" artifacts=").append(resolution.getArtifacts())
+                .append(" repeated=").append(resolution.getRepeatedArtifacts())
+                .append(" repeated_resolutions=").append(resolution.getRepeatedResolutions())
+                .append(" metadata=").append(resolution.getMetadataResolutions())
+                .append(" round_trips=").append(resolution.getRoundTrips())
+                .append(" round_trip_time=").append(seconds(resolution.getRoundTripNanos()));
+        for (ResolutionProfile.Totals module : resolution.byModule()) {
+            sb.append("\n  module ").append(module.getName())
+                    .append(" resolutions=").append(module.getResolutions())
+                    .append(" time=").append(seconds(module.getResolutionNanos()))
+                    .append(" round_trips=").append(module.getRoundTrips())
+                    .append(" round_trip_time=").append(seconds(module.getRoundTripNanos()));
+        }
+        for (ResolutionProfile.Totals repository : resolution.byRepository()) {
+            sb.append("\n  repo ").append(repository.getName())
+                    .append(" round_trips=").append(repository.getRoundTrips())
+                    .append(" time=").append(seconds(repository.getRoundTripNanos()));
+        }
+        out.println(sb);
+    }
+
+    public void emitOfflineHint(ResolutionProfile resolution) {
+        out.println("MSE:OFFLINE_HINT saved=" + seconds(resolution.getRoundTripNanos())
+                + " round_trips=" + resolution.getRoundTrips()
+                + " suggest=" + (resolution.hasAlwaysUpdatePolicy() ? "-o,updatePolicy=daily" : "-o"));
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format(java.util.Locale.ROOT, "%.1f", bytes / (1024.0 * 1024));
+    }
+
+    private static long percent(long part, long whole) {
+        return whole <= 0 ? 0 : Math.round(part * 100.0 / whole);
+    }
+
+    public void emitOverhead(SelfOverhead overhead) {
+        SelfOverhead.Activity dispatch = overhead.getDispatch();
+        StringBuilder sb = new StringBuilder("MSE:OVERHEAD wall=");
+        sb.append(millis(dispatch.getWallNanos()))
+                .append(" cpu=").append(overhead.isCpuTimeSupported() ? millis(dispatch.getCpuNanos()) : "n/a")
+                .append(" events=").append(dispatch.getCalls());
+        if (overhead.getParseBudgetNanos() >= 0) {
+            sb.append(" parse_budget=").append(millis(overhead.getParseBudgetNanos()));
+        }
+        if (overhead.isDegraded()) {
+            sb.append(" degraded=counts-only");
+        }
+        for (Map.Entry<String, SelfOverhead.Activity> entry : overhead.getActivities()) {
+            SelfOverhead.Activity activity = entry.getValue();
+            sb.append("\n  ").append(entry.getKey())
+                    .append(" calls=").append(activity.getCalls())
+                    .append(" wall=").append(millis(activity.getWallNanos()));
+            if (overhead.isCpuTimeSupported()) {
+                sb.append(" cpu=").append(millis(activity.getCpuNanos()));
+            }
+        }
+        out.println(sb);
+    }
+
+    private static String millis(long nanos) {
+        return nanos / 1_000_000 + "ms";
+    }
+
+    static String seconds(long nanos) {
+        return String.format(java.util.Locale.ROOT, "%.1fs", nanos / 1e9);
+    }
+
+    /**
+     * @param testsSkipped modules whose tests were skipped after a failure that did not fail its
+     *                     mojo, e.g. with {@code testFailureIgnore}
+     */
+    public void emitFailFast(int skippedModules, long savedSeconds, Collection<String> testsSkipped) {
+        StringBuilder sb = new StringBuilder("MSE:FAIL_FAST skipped=");
+        sb.append(skippedModules).append(" saved_est=").append(savedSeconds).append('s');
+        if (!testsSkipped.isEmpty()) {
+            sb.append(" tests_skipped=").append(testsSkipped.size());
+            for (String module : new TreeSet<>(testsSkipped)) {
+                sb.append("\n  tests_skipped ").append(module);
+            }
+        }
+        out.println(sb);
+    }
+
     private void appendTestCounts(StringBuilder sb, BuildState state) {
         sb.append(" passed=").append(state.getTestPassed())
                 .append(" failed=").append(state.getTestFailed())
@@ -132,6 +592,39 @@ class OutputFormatter {
         out.println("MSE:BUILD_LOG " + logFile.getAbsolutePath());
     }
 
+    public void emitTrace(File traceFile) {
+        out.println("MSE:TRACE " + traceFile.getAbsolutePath());
+    }
+
+    public void emitMetrics(File metricsFile) {
+        out.println("MSE:METRICS " + metricsFile.getAbsolutePath());
+    }
+
+    public void emitSamples(File samplesFile, StackSampler sampler) {
+        StringBuilder sb = new StringBuilder("MSE:SAMPLES ");
+        sb.append(samplesFile.getAbsolutePath())
+                .append(" samples=").append(sampler.getSamples())
+                .append(" stacks=").append(sampler.getDistinctStacks())
+                .append(" interval=").append(sampler.getIntervalMillis()).append("ms")
+                .append(" overhead_wall=").append(millis(sampler.getSamplingNanos()))
+                .append(" overhead_cpu=").append(sampler.isCpuTimeSupported()
+                        ? millis(sampler.getSamplingCpuNanos()) : "n/a");
+        out.println(sb);
+    }
+
+    public void emitOtlp(OtlpExporter exporter) {
+        StringBuilder sb = new StringBuilder("MSE:OTLP trace_id=");
+        sb.append(exporter.getTraceId()).append(" spans=").append(exporter.getSent());
+        if (exporter.getDropped() > 0) {
+            sb.append(" dropped=").append(exporter.getDropped());
+        }
+        if (exporter.getFailedBatches() > 0) {
+            sb.append(" failed_batches=").append(exporter.getFailedBatches())
+                    .append(" error=").append(exporter.getLastError());
+        }
+        out.println(sb);
+    }
+
     public void emitPassthrough(String reason) {
         out.println("MSE:PASSTHROUGH " + reason);
     }
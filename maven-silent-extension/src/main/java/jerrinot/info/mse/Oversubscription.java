@@ -0,0 +1,249 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Periods in which the host had far more runnable threads than cores, as happens when
+ * {@code -T}, Surefire's {@code forkCount} and parallel test execution multiply.
+ *
+ * <p>A daemon thread samples the number of runnable threads, {@code procs_running} from
+ * {@code /proc/stat}, once a second. Hosts without it are not sampled at all: the load average
+ * lags by a minute and counts threads blocked on I/O, so it cannot tell short periods apart. At
+ * least {@value #MIN_SAMPLES} consecutive samples at or above {@value #FACTOR}
+ * times the core count form a period, which remembers the mojos that ran during it; single
+ * spikes, e.g. from JIT or GC threads, are ignored.
+ */
+final class Oversubscription {
+
+    static final long DEFAULT_INTERVAL_MILLIS = 1_000;
+    static final double FACTOR = 2.0;
+    static final int MIN_SAMPLES = 2;
+    static final int TOP = 5;
+    private static final File PROC_STAT = new File("/proc/stat");
+
+    static final class Period {
+        private final long startNanos;
+        private long endNanos;
+        private double peakRunnable;
+        private double cpuLoadSum;
+        private int cpuSamples;
+        private int samples;
+        private final Set<String> mojos = new LinkedHashSet<>();
+
+        Period(long startNanos) {
+            this.startNanos = startNanos;
+            this.endNanos = startNanos;
+        }
+
+        /** Offset from the session start. */
+        long getStartNanos() { return startNanos; }
+        long getEndNanos() { return endNanos; }
+        long getDurationNanos() { return endNanos - startNanos; }
+        double getPeakRunnable() { return peakRunnable; }
+        /** Average host CPU load during the period, 0 to 1, or -1 when unknown. */
+        double getCpuLoad() { return cpuSamples > 0 ? cpuLoadSum / cpuSamples : -1; }
+        Collection<String> getMojos() { return mojos; }
+    }
+
+    private final int cores;
+    private final int threads;
+    private final int forks;
+    private final boolean parallelTests;
+    private final long startNanos;
+    private final long intervalNanos;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<Long, String> running = new ConcurrentHashMap<>();
+    // touched by the sampler thread only, read after it stopped
+    private final List<Period> periods = new ArrayList<>();
+    private Period current;
+    private double peakRunnable;
+    private final Thread sampler;
+    private volatile boolean active = true;
+
+    /**
+     * @param forks          forked test JVMs per builder thread, from {@code forkCount}
+     * @param parallelTests  whether the session asks for parallel test execution inside forks
+     * @param startSampler   false to feed {@link #sample(double, double)} directly
+     */
+    Oversubscription(int cores, int threads, int forks, boolean parallelTests, long startNanos,
+                     long intervalMillis, LongSupplier clock, boolean startSampler) {
+        this.cores = Math.max(1, cores);
+        this.threads = Math.max(1, threads);
+        this.forks = Math.max(1, forks);
+        this.parallelTests = parallelTests;
+        this.startNanos = startNanos;
+        this.intervalNanos = intervalMillis * 1_000_000;
+        this.clock = clock;
+        if (startSampler) {
+            sampler = new Thread(() -> sampleLoop(intervalMillis), "mse-cpu-sampler");
+            sampler.setDaemon(true);
+            sampler.start();
+        } else {
+            sampler = null;
+        }
+    }
+
+    /**
+     * Starts sampling, or returns null when the host has no {@code procs_running} to sample.
+     */
+    static Oversubscription start(int cores, int threads, int forks, boolean parallelTests, long startNanos) {
+        if (runnableThreads(PROC_STAT) < 0) return null;
+        return new Oversubscription(cores, threads, forks, parallelTests, startNanos,
+                DEFAULT_INTERVAL_MILLIS, System::nanoTime, true);
+    }
+
+    /**
+     * Resolves Surefire's {@code forkCount}: {@code 2} is two forks, {@code 1.5C} one and a half
+     * per core; anything unparseable counts as one.
+     */
+    static int parseForkCount(String forkCount, int cores) {
+        if (forkCount == null || forkCount.trim().isEmpty()) return 1;
+        String value = forkCount.trim().toUpperCase(Locale.ROOT);
+        try {
+            if (value.endsWith("C")) {
+                return (int) Math.max(1, Double.parseDouble(value.substring(0, value.length() - 1)) * cores);
+            }
+            return Math.max(1, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    void mojoStarted(MavenProject project, MojoExecution mojo) {
+        if (mojo == null) return;
+        running.put(Thread.currentThread().getId(), ContentionProfile.mojoLabel(project, mojo));
+    }
+
+    void mojoFinished() {
+        running.remove(Thread.currentThread().getId());
+    }
+
+    private void sampleLoop(long intervalMillis) {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        com.sun.management.OperatingSystemMXBean extended = os instanceof com.sun.management.OperatingSystemMXBean
+                ? (com.sun.management.OperatingSystemMXBean) os : null;
+        while (active) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            double runnable = runnableThreads(PROC_STAT);
+            double cpuLoad = extended != null ? extended.getSystemCpuLoad() : -1;
+            if (runnable >= 0) {
+                sample(runnable, cpuLoad);
+            }
+        }
+    }
+
+    /** {@code procs_running} from {@code procStat}; -1 when it is not available. */
+    static long runnableThreads(File procStat) {
+        if (!procStat.isFile()) return -1;
+        try (BufferedReader reader = Files.newBufferedReader(procStat.toPath(), StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("procs_running ")) {
+                    return Long.parseLong(line.substring("procs_running ".length()).trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // not available
+        }
+        return -1;
+    }
+
+    /**
+     * @param cpuLoad host CPU load 0 to 1, or negative when unknown
+     */
+    void sample(double runnable, double cpuLoad) {
+        long now = clock.getAsLong() - startNanos;
+        peakRunnable = Math.max(peakRunnable, runnable);
+        if (runnable < FACTOR * cores) {
+            current = null;
+            return;
+        }
+        if (current == null) {
+            current = new Period(Math.max(0, now - intervalNanos));
+        }
+        if (++current.samples == MIN_SAMPLES) {
+            periods.add(current);
+        }
+        current.endNanos = now;
+        current.peakRunnable = Math.max(current.peakRunnable, runnable);
+        if (cpuLoad >= 0) {
+            current.cpuLoadSum += cpuLoad;
+            current.cpuSamples++;
+        }
+        current.mojos.addAll(running.values());
+    }
+
+    void close() {
+        active = false;
+        if (sampler == null) return;
+        sampler.interrupt();
+        try {
+            sampler.join(1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    boolean isOversubscribed() { return !periods.isEmpty(); }
+    int getCores() { return cores; }
+    int getThreads() { return threads; }
+    int getForks() { return forks; }
+    boolean isParallelTests() { return parallelTests; }
+    double getPeakRunnable() { return peakRunnable; }
+    int getPeriodCount() { return periods.size(); }
+
+    long getOversubscribedNanos() {
+        long sum = 0;
+        for (Period period : periods) sum += period.getDurationNanos();
+        return sum;
+    }
+
+    /** Longest periods first. */
+    List<Period> topPeriods() {
+        List<Period> result = new ArrayList<>(periods);
+        result.sort((a, b) -> Long.compare(b.getDurationNanos(), a.getDurationNanos()));
+        return result.subList(0, Math.min(TOP, result.size()));
+    }
+
+    /** Builder threads times forks per thread: the test JVMs the settings allow at once. */
+    int getConfiguredParallelism() {
+        return threads * forks;
+    }
+
+    /**
+     * Lower settings that scale the peak back to the core count: fewer forks when there are
+     * several per builder thread, otherwise fewer builder threads. Null when neither can go
+     * lower, i.e. the threads come from inside the forks or from outside the build.
+     */
+    String suggestion() {
+        double scale = Math.min(1, cores / Math.max(1, peakRunnable));
+        if (forks > 1) {
+            int suggested = (int) Math.max(1, Math.floor(forks * scale));
+            if (suggested < forks) return "-DforkCount=" + suggested;
+        }
+        int suggested = (int) Math.max(1, Math.floor(threads * scale));
+        if (suggested < threads) return "-T" + suggested;
+        return null;
+    }
+}
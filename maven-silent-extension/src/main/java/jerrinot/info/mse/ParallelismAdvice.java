@@ -0,0 +1,80 @@
+package jerrinot.info.mse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Predicted wall time of the session's reactor at candidate {@code -T} values, and the
+ * smallest thread count on this host that gets close to the best of them.
+ */
+final class ParallelismAdvice {
+
+    /** More threads must shorten the predicted build by more than this share to be recommended. */
+    static final double MIN_GAIN = 0.05;
+
+    private final int cores;
+    private final int currentThreads;
+    private final List<Integer> candidates;
+    private final List<Long> predictedNanos;
+    private final long bestNanos;
+    private final int recommended;
+
+    private ParallelismAdvice(int cores, int currentThreads, List<Integer> candidates,
+                              List<Long> predictedNanos, long bestNanos, int recommended) {
+        this.cores = cores;
+        this.currentThreads = currentThreads;
+        this.candidates = candidates;
+        this.predictedNanos = predictedNanos;
+        this.bestNanos = bestNanos;
+        this.recommended = recommended;
+    }
+
+    /**
+     * @param criticalPathNanos length of the reactor's critical path, the wall time with
+     *                          unlimited threads
+     */
+    static ParallelismAdvice advise(ReactorSimulation simulation, long criticalPathNanos, int cores, int currentThreads) {
+        int hostCores = Math.max(1, cores);
+        List<Integer> candidates = new ArrayList<>(candidateThreads(hostCores, currentThreads, simulation.size()));
+        List<Long> predicted = new ArrayList<>();
+        long fastestOnHost = Long.MAX_VALUE;
+        for (int threads : candidates) {
+            long nanos = simulation.wallNanos(threads);
+            predicted.add(nanos);
+            if (threads <= hostCores) fastestOnHost = Math.min(fastestOnHost, nanos);
+        }
+        int recommended = 1;
+        for (int i = 0; i < candidates.size(); i++) {
+            if (candidates.get(i) <= hostCores && predicted.get(i) <= fastestOnHost * (1 + MIN_GAIN)) {
+                recommended = candidates.get(i);
+                break;
+            }
+        }
+        return new ParallelismAdvice(hostCores, currentThreads, Collections.unmodifiableList(candidates),
+                Collections.unmodifiableList(predicted), criticalPathNanos, recommended);
+    }
+
+    /**
+     * Powers of two up to the core count, the core count itself and the session's own thread
+     * count; no more threads than modules, since extra threads would sit idle.
+     */
+    static TreeSet<Integer> candidateThreads(int cores, int currentThreads, int modules) {
+        int max = Math.max(1, Math.min(cores, modules));
+        TreeSet<Integer> candidates = new TreeSet<>();
+        for (int t = 1; t <= max; t *= 2) {
+            candidates.add(t);
+        }
+        candidates.add(max);
+        candidates.add(Math.max(1, currentThreads));
+        return candidates;
+    }
+
+    int getCores() { return cores; }
+    int getCurrentThreads() { return currentThreads; }
+    List<Integer> getCandidates() { return candidates; }
+    long getPredictedNanos(int index) { return predictedNanos.get(index); }
+    long getBestNanos() { return bestNanos; }
+    int getRecommended() { return recommended; }
+}
@@ -0,0 +1,48 @@
+package jerrinot.info.mse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Records session property changes made by MSE so they can be undone when the session ends.
+ */
+final class PropertyOverrides {
+
+    private final Properties target;
+    // Original value per overridden key; null means the key was absent.
+    private final Map<String, String> previous = new LinkedHashMap<>();
+
+    PropertyOverrides(Properties target) {
+        this.target = target;
+    }
+
+    synchronized void set(String key, String value) {
+        if (target == null) return;
+        if (!previous.containsKey(key)) {
+            previous.put(key, target.getProperty(key));
+        }
+        target.setProperty(key, value);
+    }
+
+    /**
+     * Sets {@code key} only if the user has not, so explicit {@code -D} values always win.
+     */
+    synchronized boolean setIfAbsent(String key, String value) {
+        if (target == null || target.getProperty(key) != null) return false;
+        set(key, value);
+        return true;
+    }
+
+    synchronized void restore() {
+        if (target == null) return;
+        for (Map.Entry<String, String> entry : previous.entrySet()) {
+            if (entry.getValue() != null) {
+                target.setProperty(entry.getKey(), entry.getValue());
+            } else {
+                target.remove(entry.getKey());
+            }
+        }
+        previous.clear();
+    }
+}
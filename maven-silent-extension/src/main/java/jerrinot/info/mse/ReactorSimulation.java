@@ -0,0 +1,128 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Replays the reactor with known module durations the way Maven's multi-threaded builder
+ * schedules it: root modules are queued in project order, a finished module queues its newly
+ * unblocked downstream modules, and free builder threads take modules from the queue in order.
+ */
+final class ReactorSimulation {
+
+    private final List<MavenProject> projects;
+    private final long[] durations;
+    private final int[][] downstream;
+    private final int[] upstreamCounts;
+
+    private ReactorSimulation(List<MavenProject> projects, long[] durations, int[][] downstream, int[] upstreamCounts) {
+        this.projects = projects;
+        this.durations = durations;
+        this.downstream = downstream;
+        this.upstreamCounts = upstreamCounts;
+    }
+
+    /**
+     * @param durations wall time per module key; modules without one count as zero
+     */
+    static ReactorSimulation of(ProjectDependencyGraph graph, Map<String, Long> durations) {
+        return of(graph, graph.getSortedProjects(), durations);
+    }
+
+    /**
+     * @param order the project order to schedule in; must be a topological order of {@code graph}
+     */
+    static ReactorSimulation of(ProjectDependencyGraph graph, List<MavenProject> order, Map<String, Long> durations) {
+        int n = order.size();
+        Map<MavenProject, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < n; i++) {
+            index.put(order.get(i), i);
+        }
+        long[] nanos = new long[n];
+        int[] upstreamCounts = new int[n];
+        List<List<Integer>> down = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            down.add(new ArrayList<>());
+        }
+        for (int i = 0; i < n; i++) {
+            MavenProject project = order.get(i);
+            Long d = durations.get(ModuleSelection.moduleKey(project));
+            nanos[i] = d != null ? Math.max(0, d) : 0;
+            for (MavenProject upstream : graph.getUpstreamProjects(project, false)) {
+                Integer u = index.get(upstream);
+                // upstream modules outside the reactor (e.g. excluded with -pl) never block
+                if (u == null) continue;
+                upstreamCounts[i]++;
+                down.get(u).add(i);
+            }
+        }
+        int[][] downstream = new int[n][];
+        for (int i = 0; i < n; i++) {
+            // Maven lists downstream projects in reactor order
+            downstream[i] = down.get(i).stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+        return new ReactorSimulation(new ArrayList<>(order), nanos, downstream, upstreamCounts);
+    }
+
+    int size() { return projects.size(); }
+
+    /** Summed duration of all modules, i.e. the wall time of a single-threaded build. */
+    long getSerialNanos() {
+        long sum = 0;
+        for (long d : durations) sum += d;
+        return sum;
+    }
+
+    /** Predicted wall time of the build with {@code threads} builder threads. */
+    long wallNanos(int threads) {
+        return schedule(threads, null);
+    }
+
+    /**
+     * Predicted start time of each module with {@code threads} builder threads, in the order
+     * this simulation was created with.
+     */
+    long[] startNanos(int threads) {
+        long[] starts = new long[projects.size()];
+        schedule(threads, starts);
+        return starts;
+    }
+
+    private long schedule(int threads, long[] starts) {
+        int n = projects.size();
+        int[] pending = Arrays.copyOf(upstreamCounts, n);
+        ArrayDeque<Integer> ready = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            if (pending[i] == 0) ready.add(i);
+        }
+        // {end time, module, start sequence}; equal end times finish in start sequence order
+        PriorityQueue<long[]> running = new PriorityQueue<>(
+                (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[2], b[2]));
+        int free = Math.max(1, threads);
+        long now = 0;
+        long sequence = 0;
+        while (!ready.isEmpty() || !running.isEmpty()) {
+            while (free > 0 && !ready.isEmpty()) {
+                int next = ready.poll();
+                if (starts != null) starts[next] = now;
+                running.add(new long[]{now + durations[next], next, sequence++});
+                free--;
+            }
+            long[] done = running.poll();
+            now = done[0];
+            free++;
+            for (int d : downstream[(int) done[1]]) {
+                if (--pending[d] == 0) ready.add(d);
+            }
+        }
+        return now;
+    }
+}
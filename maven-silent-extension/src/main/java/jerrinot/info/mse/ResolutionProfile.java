@@ -0,0 +1,369 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.project.DependencyResolutionRequest;
+import org.apache.maven.project.DependencyResolutionResult;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.metadata.Metadata;
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.repository.LocalRepositoryManager;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Dependency resolution of the session: time per module, remote metadata round trips and
+ * artifacts that several modules resolved again.
+ *
+ * <p>Maven hands spies the {@link DependencyResolutionRequest} before and the
+ * {@link DependencyResolutionResult} after resolving a module's dependencies, both on the
+ * builder thread, so the two are paired by thread. A round trip is timed from
+ * {@code METADATA_DOWNLOADING} to {@code METADATA_DOWNLOADED}; the resolver fires these only when
+ * the update policy makes it ask the remote repository, whether or not anything changed there.
+ * The versions in the local copy of the metadata are compared before and after, so a round trip
+ * that brought a new version or SNAPSHOT timestamp does not count as a check {@code -o} could
+ * have skipped.
+ */
+final class ResolutionProfile {
+
+    /** Round trips worth less than this are not worth a hint. */
+    static final long HINT_MIN_NANOS = 1_000_000_000L;
+    static final int TOP = 5;
+    /** Metadata elements that decide which version resolves; {@code lastUpdated} is not one. */
+    private static final Set<String> VERSION_ELEMENTS = new HashSet<>(Arrays.asList(
+            "version", "latest", "release", "timestamp", "buildNumber", "value"));
+    private static final ThreadLocal<XMLInputFactory> XIF = ThreadLocal.withInitial(() -> {
+        XMLInputFactory xif = XMLInputFactory.newInstance();
+        xif.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xif.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return xif;
+    });
+
+    static final class Resolution {
+        final String module;
+        final long startNanos;
+        final long endNanos;
+
+        Resolution(String module, long startNanos, long endNanos) {
+            this.module = module;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+        }
+
+        long getDurationNanos() { return Math.max(0, endNanos - startNanos); }
+    }
+
+    /** A round trip in progress and the versions the local metadata held before it. */
+    private static final class InFlight {
+        final long startNanos;
+        final String versionsBefore;
+
+        InFlight(long startNanos, String versionsBefore) {
+            this.startNanos = startNanos;
+            this.versionsBefore = versionsBefore;
+        }
+    }
+
+    static final class RoundTrip {
+        final String repository;
+        final String module;
+        final long startNanos;
+        final long endNanos;
+        final boolean alwaysUpdate;
+
+        RoundTrip(String repository, String module, long startNanos, long endNanos, boolean alwaysUpdate) {
+            this.repository = repository;
+            this.module = module;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.alwaysUpdate = alwaysUpdate;
+        }
+    }
+
+    /** Totals for one module or one repository. */
+    static final class Totals {
+        private final String name;
+        private int resolutions;
+        private long resolutionNanos;
+        private int roundTrips;
+        private long roundTripNanos;
+
+        Totals(String name) {
+            this.name = name;
+        }
+
+        String getName() { return name; }
+        int getResolutions() { return resolutions; }
+        long getResolutionNanos() { return resolutionNanos; }
+        int getRoundTrips() { return roundTrips; }
+        /** Time at least one round trip was in progress. */
+        long getRoundTripNanos() { return roundTripNanos; }
+    }
+
+    private final LongSupplier clock;
+    /** Builder thread id to the resolution in progress on it. */
+    private final ConcurrentHashMap<Long, Resolution> pending = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Resolution> resolutions = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<String, InFlight> metadataInFlight = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<RoundTrip> roundTrips = new ConcurrentLinkedQueue<>();
+    /** Artifact to the modules that resolved it. */
+    private final ConcurrentHashMap<String, Set<String>> artifactModules = new ConcurrentHashMap<>();
+    private final AtomicInteger metadataResolutions = new AtomicInteger();
+    private final AtomicInteger artifactDownloads = new AtomicInteger();
+    private final AtomicInteger unresolved = new AtomicInteger();
+    private final AtomicInteger versionChanges = new AtomicInteger();
+
+    ResolutionProfile() {
+        this(System::nanoTime);
+    }
+
+    ResolutionProfile(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    void requested(DependencyResolutionRequest request) {
+        MavenProject project = request.getMavenProject();
+        String module = project != null ? project.getArtifactId() : DownloadProfile.NO_MODULE;
+        pending.put(Thread.currentThread().getId(), new Resolution(module, clock.getAsLong(), 0));
+    }
+
+    void resolved(DependencyResolutionResult result) {
+        Resolution started = pending.remove(Thread.currentThread().getId());
+        if (started == null) return;
+        resolutions.add(new Resolution(started.module, started.startNanos, clock.getAsLong()));
+    }
+
+    void onEvent(RepositoryEvent event) {
+        switch (event.getType()) {
+            case METADATA_RESOLVED:
+                metadataResolutions.incrementAndGet();
+                break;
+            case METADATA_DOWNLOADING:
+                if (event.getMetadata() != null) {
+                    metadataInFlight.put(Intervals.inFlightKey(event.getMetadata(), event.getRepository()),
+                            new InFlight(clock.getAsLong(), versions(localMetadataFile(event))));
+                }
+                break;
+            case METADATA_DOWNLOADED:
+                if (event.getMetadata() == null) return;
+                InFlight started = metadataInFlight.remove(
+                        Intervals.inFlightKey(event.getMetadata(), event.getRepository()));
+                if (started == null) return;
+                roundTrips.add(new RoundTrip(Intervals.repositoryId(event.getRepository()), module(event),
+                        started.startNanos, clock.getAsLong(),
+                        isAlwaysUpdate(event.getMetadata(), event.getRepository())));
+                if (event.getException() == null && event.getFile() != null
+                        && !Objects.equals(started.versionsBefore, versions(event.getFile()))) {
+                    versionChanges.incrementAndGet();
+                }
+                break;
+            case ARTIFACT_DOWNLOADING:
+                artifactDownloads.incrementAndGet();
+                break;
+            case ARTIFACT_RESOLVED:
+                artifactResolved(event);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void artifactResolved(RepositoryEvent event) {
+        Artifact artifact = event.getArtifact();
+        if (artifact == null) return;
+        if (event.getException() != null || event.getFile() == null) {
+            unresolved.incrementAndGet();
+            return;
+        }
+        String module = DownloadProfile.traceModule(event.getTrace());
+        if (module == null) return;
+        artifactModules.computeIfAbsent(artifact.toString(), k -> ConcurrentHashMap.newKeySet()).add(module);
+    }
+
+    private static String module(RepositoryEvent event) {
+        String module = DownloadProfile.traceModule(event.getTrace());
+        return module != null ? module : DownloadProfile.NO_MODULE;
+    }
+
+    /**
+     * The local copy of the metadata the resolver is about to refresh; {@code METADATA_DOWNLOADING}
+     * carries no file, so the path comes from the local repository manager.
+     */
+    private static File localMetadataFile(RepositoryEvent event) {
+        if (!(event.getRepository() instanceof RemoteRepository) || event.getSession() == null) return null;
+        LocalRepositoryManager manager = event.getSession().getLocalRepositoryManager();
+        if (manager == null || manager.getRepository() == null) return null;
+        String path = manager.getPathForRemoteMetadata(event.getMetadata(),
+                (RemoteRepository) event.getRepository(), "");
+        return path != null ? new File(manager.getRepository().getBasedir(), path) : null;
+    }
+
+    /**
+     * The version-deciding values of a metadata file in document order, or {@code null} if there
+     * is no readable file.
+     */
+    static String versions(File metadata) {
+        if (metadata == null || !metadata.isFile()) return null;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(metadata))) {
+            XMLStreamReader reader = XIF.get().createXMLStreamReader(in);
+            try {
+                StringBuilder sb = new StringBuilder();
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamReader.START_ELEMENT
+                            && VERSION_ELEMENTS.contains(reader.getLocalName())) {
+                        sb.append(reader.getLocalName()).append('=').append(reader.getElementText().trim()).append('\n');
+                    }
+                }
+                return sb.toString();
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            return null;
+        }
+    }
+
+    private static boolean isAlwaysUpdate(Metadata metadata, ArtifactRepository repository) {
+        if (!(repository instanceof RemoteRepository)) return false;
+        boolean snapshot = metadata.getVersion() != null && metadata.getVersion().endsWith("SNAPSHOT");
+        RepositoryPolicy policy = ((RemoteRepository) repository).getPolicy(snapshot);
+        return RepositoryPolicy.UPDATE_POLICY_ALWAYS.equals(policy.getUpdatePolicy());
+    }
+
+    boolean isEmpty() {
+        return resolutions.isEmpty() && roundTrips.isEmpty();
+    }
+
+    int getResolutions() { return resolutions.size(); }
+    int getMetadataResolutions() { return metadataResolutions.get(); }
+    int getRoundTrips() { return roundTrips.size(); }
+    int getArtifactDownloads() { return artifactDownloads.get(); }
+    int getUnresolved() { return unresolved.get(); }
+    /** Round trips after which the metadata named a different version than before. */
+    int getVersionChanges() { return versionChanges.get(); }
+    int getArtifacts() { return artifactModules.size(); }
+
+    /** Sum of the resolution times; modules resolved in parallel overlap. */
+    long getResolutionNanos() {
+        long sum = 0;
+        for (Resolution resolution : resolutions) sum += resolution.getDurationNanos();
+        return sum;
+    }
+
+    /** Time at least one round trip was in progress. */
+    long getRoundTripNanos() {
+        return busyNanos(roundTrips);
+    }
+
+    /** Artifacts resolved by more than one module. */
+    int getRepeatedArtifacts() {
+        int count = 0;
+        for (Set<String> modules : artifactModules.values()) {
+            if (modules.size() > 1) count++;
+        }
+        return count;
+    }
+
+    /** Resolutions beyond the first module's for the same artifact. */
+    int getRepeatedResolutions() {
+        int count = 0;
+        for (Set<String> modules : artifactModules.values()) {
+            count += Math.max(0, modules.size() - 1);
+        }
+        return count;
+    }
+
+    /**
+     * Whether every artifact came from the local repository and no round trip changed a version,
+     * so the round trips only confirmed what was already there and {@code -o} would have built
+     * the same.
+     */
+    boolean isAllLocal() {
+        return artifactDownloads.get() == 0 && unresolved.get() == 0 && versionChanges.get() == 0;
+    }
+
+    /** Round trips to a repository whose update policy is {@code always}. */
+    boolean hasAlwaysUpdatePolicy() {
+        for (RoundTrip roundTrip : roundTrips) {
+            if (roundTrip.alwaysUpdate) return true;
+        }
+        return false;
+    }
+
+    /** Whether to suggest going offline: all local and the round trips took long enough. */
+    boolean isOfflineHint() {
+        return isAllLocal() && getRoundTripNanos() >= HINT_MIN_NANOS;
+    }
+
+    /** Per module, longest resolution time first, at most {@value #TOP}. */
+    List<Totals> byModule() {
+        Map<String, Totals> modules = new LinkedHashMap<>();
+        for (Resolution resolution : resolutions) {
+            Totals totals = modules.computeIfAbsent(resolution.module, Totals::new);
+            totals.resolutions++;
+            totals.resolutionNanos += resolution.getDurationNanos();
+        }
+        Map<String, List<RoundTrip>> trips = group(false);
+        for (Map.Entry<String, List<RoundTrip>> group : trips.entrySet()) {
+            Totals totals = modules.computeIfAbsent(group.getKey(), Totals::new);
+            totals.roundTrips = group.getValue().size();
+            totals.roundTripNanos = busyNanos(group.getValue());
+        }
+        List<Totals> result = new ArrayList<>(modules.values());
+        result.sort(Comparator.comparingLong(Totals::getResolutionNanos).reversed().thenComparing(Totals::getName));
+        return result.subList(0, Math.min(TOP, result.size()));
+    }
+
+    /** Per repository, longest round-trip time first. */
+    List<Totals> byRepository() {
+        List<Totals> result = new ArrayList<>();
+        for (Map.Entry<String, List<RoundTrip>> group : group(true).entrySet()) {
+            Totals totals = new Totals(group.getKey());
+            totals.roundTrips = group.getValue().size();
+            totals.roundTripNanos = busyNanos(group.getValue());
+            result.add(totals);
+        }
+        result.sort(Comparator.comparingLong(Totals::getRoundTripNanos).reversed().thenComparing(Totals::getName));
+        return result;
+    }
+
+    private Map<String, List<RoundTrip>> group(boolean byRepository) {
+        Map<String, List<RoundTrip>> groups = new LinkedHashMap<>();
+        for (RoundTrip roundTrip : roundTrips) {
+            groups.computeIfAbsent(byRepository ? roundTrip.repository : roundTrip.module, k -> new ArrayList<>())
+                    .add(roundTrip);
+        }
+        return groups;
+    }
+
+    private static long busyNanos(Collection<RoundTrip> group) {
+        List<long[]> intervals = new ArrayList<>();
+        for (RoundTrip roundTrip : group) {
+            intervals.add(new long[]{roundTrip.startNanos, roundTrip.endNanos});
+        }
+        return Intervals.unionNanos(intervals);
+    }
+}
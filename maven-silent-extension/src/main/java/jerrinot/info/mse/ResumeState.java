@@ -0,0 +1,85 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Computes and persists the minimal set of modules that must be rebuilt after a failed build:
+ * failed modules, their downstream dependents and modules that never finished.
+ */
+final class ResumeState {
+
+    static final String RESUME_FILE = "target/mse-resume.txt";
+
+    private ResumeState() {
+    }
+
+    static File resumeFile(File topLevelBaseDir) {
+        return new File(topLevelBaseDir, RESUME_FILE);
+    }
+
+    /**
+     * Returns the modules to rerun, in reactor order.
+     */
+    static List<MavenProject> modulesToResume(List<MavenProject> projects, ProjectDependencyGraph graph,
+                                              Set<String> succeeded, Set<String> failed) {
+        Set<MavenProject> failedProjects = ModuleSelection.newProjectSet();
+        for (MavenProject project : projects) {
+            if (failed.contains(ModuleSelection.moduleKey(project))) {
+                failedProjects.add(project);
+            }
+        }
+        Set<MavenProject> rerun = ModuleSelection.withDownstream(graph, failedProjects);
+        for (MavenProject project : projects) {
+            if (!succeeded.contains(ModuleSelection.moduleKey(project))) {
+                rerun.add(project);
+            }
+        }
+        List<MavenProject> ordered = new ArrayList<>(rerun.size());
+        for (MavenProject project : projects) {
+            if (rerun.contains(project)) {
+                ordered.add(project);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Replaces the file in one step, so a build killed mid-write cannot leave a truncated list
+     * that makes the next resumed build skip modules.
+     */
+    static void write(File file, Collection<MavenProject> modules) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (MavenProject module : modules) {
+            sb.append(ModuleSelection.moduleKey(module)).append('\n');
+        }
+        AtomicFiles.write(file, sb.toString());
+    }
+
+    /**
+     * Returns the recorded module keys, or an empty set when there is nothing to resume.
+     */
+    static Set<String> read(File file) throws IOException {
+        Set<String> keys = new LinkedHashSet<>();
+        if (!file.isFile()) return keys;
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty()) keys.add(trimmed);
+        }
+        return keys;
+    }
+
+    static void clear(File file) throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+}
@@ -0,0 +1,135 @@
+package jerrinot.info.mse;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wall and CPU time MSE spends on its own work, per activity, plus an optional budget for report
+ * parsing.
+ *
+ * <p>The budget applies to each parse on its own, e.g. one reports directory, so one huge module
+ * does not cost the modules after it their details. A parse that runs over it falls back to
+ * counts-only parsing for its remaining passing reports, and {@link #isDegraded()} records that
+ * this happened at least once.
+ */
+final class SelfOverhead {
+
+    static final String DISPATCH = "dispatch";
+    static final String PARSE_PREFIX = "parse-";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    static final class Activity {
+        final LongAdder calls = new LongAdder();
+        final LongAdder wallNanos = new LongAdder();
+        final LongAdder cpuNanos = new LongAdder();
+
+        long getCalls() { return calls.sum(); }
+        long getWallNanos() { return wallNanos.sum(); }
+        long getCpuNanos() { return cpuNanos.sum(); }
+    }
+
+    /**
+     * One in-progress activity; also carries its JFR event, if a recording wants one.
+     */
+    static final class Measurement {
+        final String activity;
+        final long wallStart;
+        final long cpuStart;
+        final BuildEvents.ActivityEvent event;
+        volatile boolean overBudget;
+
+        Measurement(String activity, long wallStart, long cpuStart, BuildEvents.ActivityEvent event) {
+            this.activity = activity;
+            this.wallStart = wallStart;
+            this.cpuStart = cpuStart;
+            this.event = event;
+        }
+    }
+
+    private final long parseBudgetNanos;
+    private final boolean cpuTimeSupported;
+    private final Map<String, Activity> activities = new ConcurrentHashMap<>();
+    private final LongAdder parseNanos = new LongAdder();
+    private final AtomicBoolean degraded = new AtomicBoolean();
+
+    /**
+     * @param parseBudgetNanos wall time one parse may take before it degrades, or a negative
+     *                         value for no budget
+     */
+    SelfOverhead(long parseBudgetNanos) {
+        this.parseBudgetNanos = parseBudgetNanos;
+        boolean supported;
+        try {
+            supported = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+        } catch (UnsupportedOperationException e) {
+            supported = false;
+        }
+        this.cpuTimeSupported = supported;
+    }
+
+    Measurement begin(String activity, String subject) {
+        BuildEvents.ActivityEvent event = DISPATCH.equals(activity) ? null : BuildEvents.begin(activity, subject);
+        return new Measurement(activity, System.nanoTime(), cpuTime(), event);
+    }
+
+    void end(Measurement m) {
+        if (m == null) return;
+        long wall = System.nanoTime() - m.wallStart;
+        long cpu = cpuTimeSupported ? Math.max(0, cpuTime() - m.cpuStart) : 0;
+        BuildEvents.end(m.event);
+        Activity activity = activities.computeIfAbsent(m.activity, k -> new Activity());
+        activity.calls.increment();
+        activity.wallNanos.add(wall);
+        activity.cpuNanos.add(cpu);
+        if (m.activity.startsWith(PARSE_PREFIX)) {
+            parseNanos.add(wall);
+        }
+    }
+
+    /**
+     * True once {@code running}, a parse still in progress, has exceeded the budget. Stays true
+     * for that parse; the next one starts with the full budget again.
+     */
+    boolean isOverBudget(Measurement running) {
+        if (running == null || !running.activity.startsWith(PARSE_PREFIX)) return false;
+        if (running.overBudget) return true;
+        if (parseBudgetNanos < 0 || System.nanoTime() - running.wallStart <= parseBudgetNanos) return false;
+        running.overBudget = true;
+        degraded.set(true);
+        return true;
+    }
+
+    private long cpuTime() {
+        return cpuTimeSupported ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    boolean isDegraded() { return degraded.get(); }
+    boolean isCpuTimeSupported() { return cpuTimeSupported; }
+    long getParseBudgetNanos() { return parseBudgetNanos; }
+    long getParseNanos() { return parseNanos.sum(); }
+
+    /** Time spent handling Maven events in total; activities are nested inside it. */
+    Activity getDispatch() {
+        Activity dispatch = activities.get(DISPATCH);
+        return dispatch != null ? dispatch : new Activity();
+    }
+
+    /**
+     * Activities other than dispatch, most expensive first.
+     */
+    List<Map.Entry<String, Activity>> getActivities() {
+        List<Map.Entry<String, Activity>> entries = new ArrayList<>();
+        for (Map.Entry<String, Activity> entry : activities.entrySet()) {
+            if (!DISPATCH.equals(entry.getKey())) entries.add(entry);
+        }
+        entries.sort((a, b) -> Long.compare(b.getValue().getWallNanos(), a.getValue().getWallNanos()));
+        return entries;
+    }
+}
@@ -1,12 +1,19 @@
 package jerrinot.info.mse;
 
 import jerrinot.info.mse.model.CompilerError;
+import jerrinot.info.mse.model.MojoTiming;
+import jerrinot.info.mse.model.TestSuiteTime;
 import jerrinot.info.mse.model.TestSummary;
 import org.apache.maven.eventspy.AbstractEventSpy;
 import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
 import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.DependencyResolutionRequest;
+import org.apache.maven.project.DependencyResolutionResult;
 import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositoryEvent;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -18,14 +25,22 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.lang.reflect.Method;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 @Named("silent-spy")
@@ -42,20 +57,76 @@ public class SilentEventSpy extends AbstractEventSpy {
     private static final String COMPILER_PLUGIN = "maven-compiler-plugin";
     private static final String REDIRECT_TEST_OUTPUT_PROP = "maven.test.redirectTestOutputToFile";
     private static final int BUILD_LOG_TAIL_LINES = 200;
+    private static final String AFFECTED_OPTION = "mse.affected";
+    private static final String RESUME_OPTION = "mse.resume";
+    private static final String FAIL_FAST_OPTION = "mse.failFast";
+    private static final List<String> SKIP_AFTER_FAILURE_PROPS = List.of(
+            "surefire.skipAfterFailureCount", "failsafe.skipAfterFailureCount");
+    private static final String SKIP_TESTS_PROP = "skipTests";
+    private static final String FORKS_OPTION = "mse.forks";
+    private static final String FORK_PROFILE_OPTION = "mse.forkProfile";
+    private static final String ARG_LINE_PROP = "argLine";
+    private static final String PROFILE_OPTION = "mse.profile";
+    private static final String TRACE_OPTION = "mse.trace";
+    private static final String METRICS_OPTION = "mse.metrics";
+    private static final String OTLP_OPTION = "mse.otlp";
+    private static final long OTLP_CLOSE_TIMEOUT_MILLIS = 5_000;
+    private static final String SCHEDULE_OPTION = "mse.schedule";
+    private static final String CONTENTION_OPTION = "mse.contention";
+    private static final String HEAP_OPTION = "mse.heap";
+    private static final String SAMPLE_INTERVAL_OPTION = "mse.sampleInterval";
+    private static final String OVERSUBSCRIPTION_OPTION = "mse.oversubscription";
+    private static final String PROFILE_SAMPLE = "sample";
+    private static final String OVERHEAD_BUDGET_OPTION = "mse.overheadBudget";
 
     private final ArtifactParser artifactParser = new ArtifactParser();
+    private final BuildEvents buildEvents = new BuildEvents();
     private final OutputFormatter formatter;
 
     private final AtomicBoolean active = new AtomicBoolean();
     private final AtomicBoolean loggingSuppressed = new AtomicBoolean();
     private final AtomicBoolean redirectFailed = new AtomicBoolean();
+    private final AtomicBoolean failFastTriggered = new AtomicBoolean();
+    private volatile boolean failFast;
+    private volatile boolean testsSkippedByFailFast;
+    private final Set<String> testsSkippedModules = ConcurrentHashMap.newKeySet();
+    private volatile PropertyOverrides userPropertyOverrides;
+    private volatile BuildHistory buildHistory;
+    private volatile ForkTuning forkTuning;
+    private volatile boolean forkProfiling;
+    private volatile boolean forkProfilingViaUserArgLine;
+    private final List<PropertyOverrides> projectPropertyOverrides = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<MojoExecution, Long> testMojoStartNanos = new ConcurrentHashMap<>();
+    private volatile MojoProfile mojoProfile;
+    private volatile boolean profileReport;
+    private volatile BuilderUtilization builderUtilization;
+    private volatile UnsafeMojos unsafeMojos;
+    private volatile ContentionProfile contentionProfile;
+    private volatile HeapMonitor heapMonitor;
+    private volatile StackSampler stackSampler;
+    private volatile ForkUsage forkUsage;
+    private volatile Oversubscription oversubscription;
+    private volatile boolean scheduling;
+    private volatile CriticalPathSchedule schedule;
+    private volatile TraceWriter traceWriter;
+    private volatile File traceFile;
+    private volatile File metricsFile;
+    private volatile OtlpExporter otlpExporter;
+    private volatile String sessionSpanId;
+    private final Queue<TestSuiteTime> testSuites = new ConcurrentLinkedQueue<>();
+    private volatile SelfOverhead selfOverhead;
     private volatile ActivationMode activationMode = ActivationMode.OFF;
     private volatile BuildState buildState;
+    private final BootstrapTimes bootstrap = BootstrapTimes.now();
+    // not reset with the session state: the resolver is busy before SessionStarted
+    private volatile DownloadProfile downloads = new DownloadProfile();
+    private volatile ResolutionProfile resolution = new ResolutionProfile();
     private final Set<String> parsedModules = ConcurrentHashMap.newKeySet();
     private final Set<File> reportsDirs = ConcurrentHashMap.newKeySet();
     private volatile String previousLogLevel;
     private volatile String previousRedirectTestOutput;
     private volatile MavenSession session;
+    private volatile File topLevelBaseDir;
     private volatile PrintStream originalOut;
     private volatile PrintStream originalErr;
     private volatile File buildLogFile;
@@ -71,6 +142,7 @@ public class SilentEventSpy extends AbstractEventSpy {
 
     @Override
     public void init(Context context) throws Exception {
+        bootstrap.initialized(System.currentTimeMillis());
         activationMode = resolveMode();
         boolean activated = activationMode != ActivationMode.OFF;
         active.set(activated);
@@ -178,6 +250,14 @@ public class SilentEventSpy extends AbstractEventSpy {
 
     private void resetSessionState(boolean restoreConsole) {
         restoreTestOutput();
+        if (userPropertyOverrides != null) {
+            userPropertyOverrides.restore();
+            userPropertyOverrides = null;
+        }
+        for (PropertyOverrides overrides : projectPropertyOverrides) {
+            overrides.restore();
+        }
+        projectPropertyOverrides.clear();
         if (restoreConsole) {
             restoreConsoleOutput();
             if (fileStream != null) {
@@ -188,9 +268,41 @@ public class SilentEventSpy extends AbstractEventSpy {
         }
         parsedModules.clear();
         reportsDirs.clear();
+        testMojoStartNanos.clear();
+        mojoProfile = null;
+        profileReport = false;
+        builderUtilization = null;
+        unsafeMojos = null;
+        closeContentionProfile();
+        closeHeapMonitor();
+        closeStackSampler();
+        closeForkUsage();
+        closeOversubscription();
+        scheduling = false;
+        schedule = null;
+        buildEvents.clear();
+        closeTrace();
+        traceFile = null;
+        metricsFile = null;
+        if (otlpExporter != null) {
+            otlpExporter.close(0);
+            otlpExporter = null;
+        }
+        sessionSpanId = null;
+        testSuites.clear();
+        selfOverhead = null;
+        buildHistory = null;
+        forkTuning = null;
+        forkProfiling = false;
+        forkProfilingViaUserArgLine = false;
         redirectFailed.set(false);
+        failFastTriggered.set(false);
+        failFast = false;
+        testsSkippedByFailFast = false;
+        testsSkippedModules.clear();
         previousRedirectTestOutput = null;
         session = null;
+        topLevelBaseDir = null;
         buildState = null;
         if (restoreConsole) {
             originalOut = null;
@@ -268,35 +380,58 @@ public class SilentEventSpy extends AbstractEventSpy {
         }
         String value = rawValue.trim().toLowerCase(Locale.ROOT);
         if (value.isEmpty()
-                || "true".equals(value)
-                || "1".equals(value)
-                || "yes".equals(value)
-                || "on".equals(value)
+                || isOnValue(value)
                 || "strict".equals(value)) {
             return ActivationMode.STRICT;
         }
         if ("relaxed".equals(value)) {
             return ActivationMode.RELAXED;
         }
-        if ("false".equals(value)
-                || "0".equals(value)
-                || "off".equals(value)
-                || "no".equals(value)
-                || "disabled".equals(value)) {
+        if (isOffValue(value)) {
             return ActivationMode.OFF;
         }
         // Backward-compatible default: any unknown explicit value still activates MSE.
         return ActivationMode.STRICT;
     }
 
+    static boolean isOnValue(String value) {
+        return "true".equals(value)
+                || "1".equals(value)
+                || "yes".equals(value)
+                || "on".equals(value);
+    }
+
+    static boolean isOffValue(String value) {
+        return "false".equals(value)
+                || "0".equals(value)
+                || "off".equals(value)
+                || "no".equals(value)
+                || "disabled".equals(value);
+    }
+
+    /**
+     * Reads an {@code mse.*} option from the session's user properties ({@code -D} on the
+     * command line), falling back to JVM system properties.
+     */
+    static String sessionOption(MavenSession session, String key) {
+        java.util.Properties userProps = session != null ? session.getUserProperties() : null;
+        String value = userProps != null ? userProps.getProperty(key) : null;
+        return value != null ? value : System.getProperty(key);
+    }
+
     @Override
     public void onEvent(Object event) throws Exception {
         if (!active.get()) return;
-        if (!(event instanceof ExecutionEvent)) return;
+        if (!(event instanceof ExecutionEvent || event instanceof RepositoryEvent
+                || event instanceof DependencyResolutionRequest || event instanceof DependencyResolutionResult)) {
+            return;
+        }
 
-        ExecutionEvent ee = (ExecutionEvent) event;
+        SelfOverhead overhead = selfOverhead;
+        SelfOverhead.Measurement measurement = overhead != null ? overhead.begin(SelfOverhead.DISPATCH, null) : null;
         try {
-            dispatch(ee);
+            dispatch(event);
+            if (overhead != null) overhead.end(measurement);
         } catch (Exception e) {
             formatter.emitPassthrough(e.getClass().getSimpleName() + ": " + e.getMessage());
             active.set(false);
@@ -305,7 +440,25 @@ public class SilentEventSpy extends AbstractEventSpy {
         }
     }
 
+    private void dispatch(Object event) {
+        if (event instanceof RepositoryEvent) {
+            downloads.onEvent((RepositoryEvent) event);
+            resolution.onEvent((RepositoryEvent) event);
+        } else if (event instanceof DependencyResolutionRequest) {
+            resolution.requested((DependencyResolutionRequest) event);
+        } else if (event instanceof DependencyResolutionResult) {
+            resolution.resolved((DependencyResolutionResult) event);
+        } else {
+            dispatch((ExecutionEvent) event);
+        }
+    }
+
     private void dispatch(ExecutionEvent ee) {
+        if (ee.getType() == ExecutionEvent.Type.ProjectDiscoveryStarted) {
+            // precedes SessionStarted, so there is no build state yet
+            bootstrap.discoveryStarted(System.currentTimeMillis());
+            return;
+        }
         if (ee.getType() != ExecutionEvent.Type.SessionStarted && buildState == null) {
             return;
         }
@@ -313,6 +466,17 @@ public class SilentEventSpy extends AbstractEventSpy {
             case SessionStarted:
                 handleSessionStarted(ee);
                 break;
+            case ProjectStarted:
+                buildState.moduleStarted(moduleKey(ee.getProject()));
+                mojoProfile.projectStarted();
+                builderUtilization.moduleStarted(moduleKey(ee.getProject()),
+                        ee.getProject() != null ? ee.getProject().getArtifactId() : null);
+                buildEvents.projectStarted(moduleKey(ee.getProject()));
+                downloads.projectStarted(ee.getProject());
+                break;
+            case MojoStarted:
+                handleMojoStarted(ee);
+                break;
             case MojoSucceeded:
                 handleMojoSucceeded(ee);
                 break;
@@ -320,10 +484,20 @@ public class SilentEventSpy extends AbstractEventSpy {
                 handleMojoFailed(ee);
                 break;
             case ProjectSucceeded:
-                buildState.moduleSucceeded();
+                buildState.moduleSucceeded(moduleKey(ee.getProject()));
+                builderUtilization.moduleFinished(moduleKey(ee.getProject()));
+                traceModule(ee.getProject(), false);
+                exportModuleSpan(ee.getProject(), false);
+                buildEvents.projectFinished(moduleKey(ee.getProject()), false);
+                downloads.projectFinished();
                 break;
             case ProjectFailed:
-                buildState.moduleFailed();
+                buildState.moduleFailed(moduleKey(ee.getProject()));
+                builderUtilization.moduleFinished(moduleKey(ee.getProject()));
+                traceModule(ee.getProject(), true);
+                exportModuleSpan(ee.getProject(), true);
+                buildEvents.projectFinished(moduleKey(ee.getProject()), true);
+                downloads.projectFinished();
                 break;
             case SessionEnded:
                 handleSessionEnded();
@@ -335,17 +509,484 @@ public class SilentEventSpy extends AbstractEventSpy {
     }
 
     private void handleSessionStarted(ExecutionEvent ee) {
+        bootstrap.sessionStarted(System.currentTimeMillis());
         resetSessionState();
         session = ee.getSession();
+        userPropertyOverrides = new PropertyOverrides(session.getUserProperties());
         suppressTestOutput();
+        configureFailFast();
         List<MavenProject> projects = session.getProjects();
+        topLevelBaseDir = projects != null && !projects.isEmpty()
+                ? projects.get(0).getBasedir() : null;
+        int skippedModules = combineSkipped(
+                selectAffectedModules(topLevelBaseDir), selectResumeModules(topLevelBaseDir));
+        projects = session.getProjects();
         int moduleCount = projects != null ? projects.size() : 0;
-        if (projects != null && !projects.isEmpty()) {
-            redirectConsoleToFile(projects.get(0).getBasedir());
-        }
+        buildHistory = topLevelBaseDir != null
+                ? BuildHistory.load(BuildHistory.historyFile(topLevelBaseDir)) : BuildHistory.empty();
+        configureSchedule();
+        configureForks();
+        configureForkProfiling();
+        configureProfile();
+        configureContention();
+        configureHeapMonitor();
+        selfOverhead = new SelfOverhead(parseBudgetNanos());
+        redirectConsoleToFile(topLevelBaseDir);
         List<String> goals = session.getGoals();
         buildState = new BuildState(moduleCount);
-        formatter.emitSessionStart(moduleCount, goals);
+        builderUtilization = new BuilderUtilization(builderThreads(), buildState.getStartNanos());
+        configureOversubscription();
+        buildEvents.sessionStarted(goals != null ? String.join(",", goals) : "", moduleCount);
+        openTrace();
+        metricsFile = optionFile(METRICS_OPTION, BuildMetrics.METRICS_FILE);
+        openOtlpExporter();
+        formatter.emitSessionStart(moduleCount, goals, skippedModules);
+        bootstrap.sessionConfigured(System.currentTimeMillis());
+    }
+
+    /**
+     * Opt-in ({@code -Dmse.affected[=<rev>]}): trims the reactor to modules touched by
+     * working-tree changes plus their downstream dependents. Returns the number of skipped
+     * modules, or -1 when the mode is off. Any git problem falls back to a full build.
+     */
+    private int selectAffectedModules(File topLevelBaseDir) {
+        String base = AffectedModules.resolveBase(sessionOption(session, AFFECTED_OPTION));
+        if (base == null) return -1;
+        List<MavenProject> projects = session.getProjects();
+        if (topLevelBaseDir == null || projects == null || projects.isEmpty()) return 0;
+        List<Path> changed;
+        try {
+            changed = AffectedModules.changedPaths(topLevelBaseDir, base);
+        } catch (java.io.IOException e) {
+            formatter.emitPassthrough("affected-modules detection failed: " + e.getMessage()
+                    + ". Building all modules.");
+            return 0;
+        }
+        Set<MavenProject> affected = AffectedModules.affected(
+                projects, session.getProjectDependencyGraph(), changed);
+        // Nothing changed inside the reactor: keep the full build rather than an empty one.
+        if (affected.isEmpty()) return 0;
+        return ModuleSelection.retain(session, affected);
+    }
+
+    /**
+     * Opt-in ({@code -Dmse.resume}): limits the build to the modules recorded by the last failed
+     * build. Returns the number of skipped modules, or -1 when the mode is off.
+     */
+    private int selectResumeModules(File topLevelBaseDir) {
+        if (!isOptionOn(RESUME_OPTION)) return -1;
+        List<MavenProject> projects = session.getProjects();
+        if (topLevelBaseDir == null || projects == null || projects.isEmpty()) return 0;
+        Set<String> keys;
+        try {
+            keys = ResumeState.read(ResumeState.resumeFile(topLevelBaseDir));
+        } catch (java.io.IOException e) {
+            formatter.emitPassthrough("resume state unreadable: " + e.getMessage()
+                    + ". Building all modules.");
+            return 0;
+        }
+        if (keys.isEmpty()) return 0;
+        Set<MavenProject> kept = ModuleSelection.newProjectSet();
+        for (MavenProject project : projects) {
+            if (keys.contains(ModuleSelection.moduleKey(project))) {
+                kept.add(project);
+            }
+        }
+        return ModuleSelection.retain(session, kept);
+    }
+
+    static int combineSkipped(int first, int second) {
+        if (first < 0 && second < 0) return -1;
+        return Math.max(0, first) + Math.max(0, second);
+    }
+
+    private static String moduleKey(MavenProject project) {
+        return project != null ? ModuleSelection.moduleKey(project) : null;
+    }
+
+    /**
+     * Opt-in ({@code -Dmse.failFast}): forked test JVMs stop after their first failing test, and
+     * once a failure is detected the remaining modules skip their tests.
+     */
+    private void configureFailFast() {
+        failFast = isOptionOn(FAIL_FAST_OPTION);
+        if (!failFast) return;
+        for (String prop : SKIP_AFTER_FAILURE_PROPS) {
+            userPropertyOverrides.setIfAbsent(prop, "1");
+        }
+    }
+
+    /**
+     * Called from whichever builder thread detected the failure. A failing mojo is left to
+     * Maven's default fail-fast reactor, which stops scheduling modules; an explicit
+     * {@code -fae} or {@code -fn} keeps its meaning. Failures that don't fail their mojo (e.g.
+     * testFailureIgnore) never stop the reactor, so remaining modules are told to skip their
+     * tests instead, and the summary names those modules.
+     */
+    private void triggerFailFast(boolean mojoFailed) {
+        if (!failFast || session == null) return;
+        failFastTriggered.set(true);
+        if (!mojoFailed) {
+            userPropertyOverrides.set(SKIP_TESTS_PROP, "true");
+            testsSkippedByFailFast = true;
+        }
+    }
+
+    /**
+     * Opt-in ({@code -Dmse.schedule}): in parallel builds, reorders the reactor so that ready
+     * modules with the longest remaining downstream path start first, using module durations
+     * from earlier builds.
+     */
+    private void configureSchedule() {
+        if (!isOptionOn(SCHEDULE_OPTION)) return;
+        int threads = builderThreads();
+        ProjectDependencyGraph graph = session.getProjectDependencyGraph();
+        if (threads <= 1 || graph == null) return;
+        scheduling = true;
+        schedule = CriticalPathSchedule.plan(graph, buildHistory.previousModuleMillis(), threads);
+        if (schedule != null) {
+            schedule.apply(session);
+        }
+    }
+
+    /**
+     * Opt-in ({@code -Dmse.forks}): sets {@code forkCount}/{@code reuseForks} user properties
+     * sized to the host. They never override an explicit {@code <forkCount>} in the POM or a
+     * module's {@code forkCount} property, and explicit {@code -DforkCount} is left untouched.
+     */
+    private void configureForks() {
+        if (!isOptionOn(FORKS_OPTION)) return;
+        int cores = Runtime.getRuntime().availableProcessors();
+        MavenExecutionRequest request = session.getRequest();
+        int threads = request != null ? Math.max(1, request.getDegreeOfConcurrency()) : 1;
+        int forkCount = ForkTuning.chooseForkCount(cores, threads,
+                ForkTuning.availableMemoryBytes(), buildHistory.previousMaxTestMillis());
+        if (!userPropertyOverrides.setIfAbsent("forkCount", Integer.toString(forkCount))) {
+            return;
+        }
+        userPropertyOverrides.setIfAbsent("reuseForks", "true");
+        forkTuning = new ForkTuning(forkCount,
+                session.getUserProperties().getProperty("reuseForks"), cores, threads);
+    }
+
+    /**
+     * Opt-in ({@code -Dmse.forkProfile}): adds a JFR recording to the forks' {@code argLine}.
+     * An explicit {@code -DargLine} is extended in place. Otherwise each module's own
+     * {@code argLine} property is extended instead of setting a user property, because a user
+     * property would shadow module values such as a JaCoCo agent.
+     */
+    private void configureForkProfiling() {
+        if (!isOptionOn(FORK_PROFILE_OPTION)) return;
+        forkProfiling = true;
+        java.util.Properties userProps = session.getUserProperties();
+        String userArgLine = userProps != null ? userProps.getProperty(ARG_LINE_PROP) : null;
+        if (userArgLine != null) {
+            forkProfilingViaUserArgLine = true;
+            // Relative to the fork's working directory, which defaults to the module basedir
+            userPropertyOverrides.set(ARG_LINE_PROP,
+                    userArgLine + " " + ForkProfile.jfrArgument("target/" + ForkProfile.JFR_DIR));
+            return;
+        }
+        List<MavenProject> projects = session.getProjects();
+        if (projects == null) return;
+        for (MavenProject project : projects) {
+            java.util.Properties projectProps = project.getProperties();
+            if (projectProps == null) continue;
+            String jfrArg = ForkProfile.jfrArgument(forkProfileDir(project).getAbsolutePath());
+            String existing = projectProps.getProperty(ARG_LINE_PROP);
+            PropertyOverrides overrides = new PropertyOverrides(projectProps);
+            overrides.set(ARG_LINE_PROP, existing != null ? existing + " " + jfrArg : jfrArg);
+            projectPropertyOverrides.add(overrides);
+        }
+    }
+
+    private File forkProfileDir(MavenProject project) {
+        if (!forkProfilingViaUserArgLine && project.getBuild() != null
+                && project.getBuild().getDirectory() != null) {
+            return ForkProfile.jfrDir(new File(project.getBuild().getDirectory()));
+        }
+        return new File(project.getBasedir(), "target/" + ForkProfile.JFR_DIR);
+    }
+
+    /**
+     * Mojo timing is always recorded, as it is cheap and feeds other reports; the
+     * {@code MSE:PROFILE} summary itself is opt-in ({@code -Dmse.profile}), and only then are
+     * the builder thread's CPU time, allocation and class loading read around each mojo.
+     * {@code -Dmse.profile=sample} also samples the mojos' stacks every
+     * {@code -Dmse.sampleInterval} milliseconds.
+     */
+    private void configureProfile() {
+        String raw = sessionOption(session, PROFILE_OPTION);
+        String value = raw != null ? raw.trim().toLowerCase(Locale.ROOT) : null;
+        profileReport = value != null && !isOffValue(value);
+        mojoProfile = new MojoProfile(System::nanoTime, profileReport ? new ThreadUsage() : null);
+        unsafeMojos = new UnsafeMojos();
+        if (profileReport) {
+            forkUsage = ForkUsage.start(ForkUsage.DEFAULT_INTERVAL_MILLIS);
+        }
+        if (PROFILE_SAMPLE.equals(value) && topLevelBaseDir != null) {
+            stackSampler = StackSampler.start(sampleIntervalMillis());
+        }
+    }
+
+    /**
+     * {@code -Dmse.oversubscription}: samples the host's runnable threads once a second and
+     * compares them with the core count. Only where {@code /proc/stat} reports them.
+     */
+    private void configureOversubscription() {
+        if (!isOptionOn(OVERSUBSCRIPTION_OPTION)) return;
+        int cores = Runtime.getRuntime().availableProcessors();
+        String parallel = sessionOption(session, "parallel");
+        boolean parallelTests = (parallel != null && !parallel.trim().isEmpty() && !"none".equals(parallel.trim()))
+                || "true".equalsIgnoreCase(sessionOption(session, "junit.jupiter.execution.parallel.enabled"));
+        oversubscription = Oversubscription.start(cores, builderThreads(),
+                Oversubscription.parseForkCount(sessionOption(session, "forkCount"), cores), parallelTests,
+                buildState.getStartNanos());
+    }
+
+    private Oversubscription closeOversubscription() {
+        Oversubscription load = oversubscription;
+        oversubscription = null;
+        if (load != null) {
+            load.close();
+        }
+        return load;
+    }
+
+    private ForkUsage closeForkUsage() {
+        ForkUsage usage = forkUsage;
+        forkUsage = null;
+        if (usage != null) {
+            usage.close();
+        }
+        return usage;
+    }
+
+    private long sampleIntervalMillis() {
+        String raw = sessionOption(session, SAMPLE_INTERVAL_OPTION);
+        if (raw == null || raw.trim().isEmpty()) return StackSampler.DEFAULT_INTERVAL_MILLIS;
+        try {
+            return Long.parseLong(raw.trim());
+        } catch (NumberFormatException e) {
+            formatter.emitPassthrough("invalid " + SAMPLE_INTERVAL_OPTION + " value: " + raw);
+            return StackSampler.DEFAULT_INTERVAL_MILLIS;
+        }
+    }
+
+    private StackSampler closeStackSampler() {
+        StackSampler sampler = stackSampler;
+        stackSampler = null;
+        if (sampler != null) {
+            sampler.close();
+        }
+        return sampler;
+    }
+
+    private void writeStackSamples() {
+        StackSampler sampler = closeStackSampler();
+        if (sampler == null) return;
+        File file = new File(topLevelBaseDir, StackSampler.SAMPLES_FILE);
+        try {
+            AtomicFiles.write(file, sampler.render());
+            formatter.emitSamples(file, sampler);
+        } catch (java.io.IOException e) {
+            formatter.emitPassthrough("stack samples not written: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opt-in ({@code -Dmse.contention}): turns on JVM thread contention monitoring for the
+     * session. When off, no contention counters are enabled and no sampler thread runs.
+     */
+    private void configureContention() {
+        if (!isOptionOn(CONTENTION_OPTION)) return;
+        contentionProfile = ContentionProfile.start(ContentionProfile.DEFAULT_INTERVAL_MILLIS);
+        if (contentionProfile == null) {
+            formatter.emitPassthrough("contention not profiled: not supported by this JVM");
+        }
+    }
+
+    /**
+     * On by default, as a GC notification listener costs next to nothing; {@code -Dmse.heap=off}
+     * disables it and {@code -Dmse.heap=<percent>} sets the old generation occupancy that counts
+     * as pressure. A percentage outside 1-99 would warn on every collection or never, so it is
+     * reported and the default kept.
+     */
+    private void configureHeapMonitor() {
+        String raw = sessionOption(session, HEAP_OPTION);
+        double threshold = HeapMonitor.DEFAULT_THRESHOLD;
+        if (raw != null) {
+            String value = raw.trim().toLowerCase(Locale.ROOT);
+            if (isOffValue(value)) return;
+            if (!value.isEmpty() && !isOnValue(value)) {
+                int percent = -1;
+                try {
+                    percent = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    // reported below
+                }
+                if (percent >= 1 && percent <= 99) {
+                    threshold = percent / 100.0;
+                } else {
+                    formatter.emitPassthrough("invalid " + HEAP_OPTION + " value: " + raw);
+                }
+            }
+        }
+        heapMonitor = HeapMonitor.start(threshold, formatter::emitHeapPressure);
+    }
+
+    private HeapMonitor closeHeapMonitor() {
+        HeapMonitor monitor = heapMonitor;
+        heapMonitor = null;
+        if (monitor != null) {
+            monitor.close();
+        }
+        return monitor;
+    }
+
+    private ContentionProfile closeContentionProfile() {
+        ContentionProfile profile = contentionProfile;
+        contentionProfile = null;
+        if (profile != null) {
+            profile.close();
+        }
+        return profile;
+    }
+
+    /**
+     * Opt-in ({@code -Dmse.trace[=<file>]}): streams the build timeline in Chrome trace-event
+     * format, by default to {@value TraceWriter#TRACE_FILE} under the top-level project.
+     */
+    private void openTrace() {
+        File file = optionFile(TRACE_OPTION, TraceWriter.TRACE_FILE);
+        if (file == null) return;
+        try {
+            traceWriter = TraceWriter.open(file, buildState.getStartNanos());
+            traceFile = file;
+        } catch (java.io.IOException e) {
+            formatter.emitPassthrough("trace not written: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Whether a {@code -Dmse.x} switch is on: given, with no value or any value but an off value.
+     */
+    private boolean isOptionOn(String option) {
+        String raw = sessionOption(session, option);
+        return raw != null && !isOffValue(raw.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Resolves a {@code -Dmse.x[=<file>]} output option: null when off, {@code defaultPath} when
+     * given without a file, and relative paths against the top-level project.
+     */
+    private File optionFile(String option, String defaultPath) {
+        String raw = sessionOption(session, option);
+        if (raw == null) return null;
+        String value = raw.trim();
+        String lower = value.toLowerCase(Locale.ROOT);
+        if (isOffValue(lower)) return null;
+        String path = value.isEmpty() || isOnValue(lower) ? defaultPath : value;
+        File file = new File(path);
+        if (file.isAbsolute()) return file;
+        return topLevelBaseDir != null ? new File(topLevelBaseDir, path) : null;
+    }
+
+    private void traceModule(MavenProject project, boolean failed) {
+        TraceWriter writer = traceWriter;
+        if (writer == null || project == null) return;
+        Long nanos = buildState.getModuleNanos().get(ModuleSelection.moduleKey(project));
+        if (nanos == null) return;
+        long end = System.nanoTime();
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("module", ModuleSelection.moduleKey(project));
+        if (failed) args.put("failed", "true");
+        traceSpan(writer, project.getArtifactId(), "module", end - nanos, end, args);
+    }
+
+    private void traceMojo(MojoTiming timing) {
+        TraceWriter writer = traceWriter;
+        if (writer == null || timing == null) return;
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("module", timing.getModuleId());
+        if (timing.getExecutionId() != null) args.put("execution", timing.getExecutionId());
+        if (timing.getPhase() != null) args.put("phase", timing.getPhase());
+        if (timing.isFailed()) args.put("failed", "true");
+        traceSpanOnThread(writer, timing.getPlugin() + ":" + timing.getGoal(), "mojo", timing.getThreadId(),
+                timing.getStartNanos(), timing.getEndNanos(), args);
+    }
+
+    /**
+     * Suite times come from the reports, not a clock, so suites are laid out back to back from
+     * the mojo start; with parallel forks their sum can exceed the mojo, in which case they are
+     * scaled to fit so they stay nested under it.
+     */
+    private void traceSuites(MojoTiming mojo, TestSummary summary) {
+        TraceWriter writer = traceWriter;
+        if (writer == null || mojo == null || summary == null || summary.getSuites().isEmpty()) return;
+        long total = summary.getTimeMillis() * 1_000_000L;
+        double scale = total > mojo.getDurationNanos() ? (double) mojo.getDurationNanos() / total : 1.0;
+        long start = mojo.getStartNanos();
+        for (TestSuiteTime suite : summary.getSuites()) {
+            long end = start + (long) (suite.getTimeMillis() * 1_000_000L * scale);
+            Map<String, String> args = new LinkedHashMap<>();
+            args.put("tests", Integer.toString(suite.getTests()));
+            args.put("time_ms", Long.toString(suite.getTimeMillis()));
+            traceSpanOnThread(writer, suite.getName(), "test", mojo.getThreadId(), start, end, args);
+            start = end;
+        }
+    }
+
+    private void traceSpan(TraceWriter writer, String name, String category, long start, long end,
+                           Map<String, String> args) {
+        traceSpanOnThread(writer, name, category, Thread.currentThread().getId(), start, end, args);
+    }
+
+    private void traceSpanOnThread(TraceWriter writer, String name, String category, long threadId,
+                                   long start, long end, Map<String, String> args) {
+        try {
+            writer.span(name, category, threadId, start, end, args);
+        } catch (java.io.IOException e) {
+            if (traceWriter == writer) {
+                traceWriter = null;
+                formatter.emitPassthrough("trace not written: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns true if a trace was open and is now complete on disk.
+     */
+    private boolean closeTrace() {
+        TraceWriter writer = traceWriter;
+        if (writer == null) return false;
+        traceWriter = null;
+        try {
+            writer.close();
+            return true;
+        } catch (java.io.IOException e) {
+            formatter.emitPassthrough("trace not written: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * {@code -Dmse.overheadBudget=<ms>} caps the wall time one reports directory may take before
+     * its remaining passing reports are read counts-only. Without it there is no cap. Numbers are
+     * read first, so {@code 0} means counts-only from the start rather than off.
+     */
+    private long parseBudgetNanos() {
+        String raw = sessionOption(session, OVERHEAD_BUDGET_OPTION);
+        if (raw == null) return -1;
+        String value = raw.trim().toLowerCase(Locale.ROOT);
+        try {
+            long millis = Long.parseLong(value.endsWith("ms") ? value.substring(0, value.length() - 2) : value);
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+        } catch (NumberFormatException e) {
+            if (isOffValue(value)) return -1;
+            formatter.emitPassthrough("ignoring " + OVERHEAD_BUDGET_OPTION + "=" + raw + ", expected milliseconds");
+            return -1;
+        }
     }
 
     private void suppressTestOutput() {
@@ -366,20 +1007,111 @@ public class SilentEventSpy extends AbstractEventSpy {
         }
     }
 
+    private void handleMojoStarted(ExecutionEvent ee) {
+        MojoExecution mojo = ee.getMojoExecution();
+        bootstrap.mojoStarted(System.currentTimeMillis());
+        mojoProfile.mojoStarted(mojo);
+        ContentionProfile contention = contentionProfile;
+        if (contention != null) {
+            contention.mojoStarted(ee.getProject(), mojo);
+        }
+        HeapMonitor heap = heapMonitor;
+        if (heap != null) {
+            heap.mojoStarted(ee.getProject(), mojo);
+        }
+        StackSampler sampler = stackSampler;
+        if (sampler != null) {
+            sampler.mojoStarted(ee.getProject(), mojo);
+        }
+        ForkUsage forks = forkUsage;
+        if (forks != null) {
+            forks.mojoStarted(ee.getProject(), mojo);
+        }
+        Oversubscription load = oversubscription;
+        if (load != null) {
+            load.mojoStarted(ee.getProject(), mojo);
+        }
+        buildEvents.mojoStarted(ee.getProject(), mojo);
+        if (mojo != null && isTestPlugin(mojo)) {
+            testMojoStartNanos.put(mojo, System.nanoTime());
+            if (testsSkippedByFailFast && ee.getProject() != null) {
+                testsSkippedModules.add(moduleKey(ee.getProject()));
+            }
+            if (forkTuning != null) {
+                ForkTuning.keepModuleForkProperties(ee.getProject(), mojo);
+            }
+            if (forkProfiling && ee.getProject() != null && ee.getProject().getBasedir() != null) {
+                // JFR refuses to start if the directory is missing. Forks dump on exit, so
+                // recordings of an earlier run or test execution are dropped first.
+                File jfrDir = forkProfileDir(ee.getProject());
+                jfrDir.mkdirs();
+                for (Path stale : ForkProfile.recordingFiles(jfrDir)) {
+                    stale.toFile().delete();
+                }
+            }
+        }
+    }
+
+    private void recordUnsafeMojo(MojoExecution mojo, MojoTiming timing) {
+        if (timing == null) return;
+        unsafeMojos.record(timing, UnsafeMojos.classify(mojo), mojo.getVersion());
+    }
+
+    private void finishMonitoredMojo(ExecutionEvent ee) {
+        ContentionProfile contention = contentionProfile;
+        if (contention != null) {
+            contention.mojoFinished(ee.getProject(), ee.getMojoExecution());
+        }
+        HeapMonitor heap = heapMonitor;
+        if (heap != null) {
+            heap.mojoFinished();
+        }
+        StackSampler sampler = stackSampler;
+        if (sampler != null) {
+            sampler.mojoFinished();
+        }
+        ForkUsage forks = forkUsage;
+        if (forks != null) {
+            forks.mojoFinished();
+        }
+        Oversubscription load = oversubscription;
+        if (load != null) {
+            load.mojoFinished();
+        }
+    }
+
     private void handleMojoSucceeded(ExecutionEvent ee) {
         MojoExecution mojo = ee.getMojoExecution();
+        MojoTiming timing = mojoProfile.mojoFinished(ee.getProject(), mojo, false);
+        recordUnsafeMojo(mojo, timing);
+        finishMonitoredMojo(ee);
+        buildEvents.mojoFinished(mojo, false);
+        traceMojo(timing);
+        exportMojoSpan(timing);
         if (mojo == null || !isTestPlugin(mojo)) return;
 
         MavenProject project = ee.getProject();
         if (project == null) return;
 
-        parseAndAccumulateTests(project, mojo);
+        TestSummary summary = parseAndAccumulateTests(project, mojo);
+        traceSuites(timing, summary);
+        if (summary != null && summary.hasFailures()) {
+            // The mojo passed despite failing tests (e.g. testFailureIgnore)
+            triggerFailFast(false);
+        }
     }
 
     private void handleMojoFailed(ExecutionEvent ee) {
         buildState.setBuildFailed();
+        triggerFailFast(true);
 
         MojoExecution mojo = ee.getMojoExecution();
+        MojoTiming timing = mojoProfile.mojoFinished(ee.getProject(), mojo, true);
+        recordUnsafeMojo(mojo, timing);
+        finishMonitoredMojo(ee);
+        buildEvents.mojoFinished(mojo, true);
+        traceMojo(timing);
+        exportMojoSpan(timing);
         if (mojo == null) return;
 
         MavenProject project = ee.getProject();
@@ -392,7 +1124,7 @@ public class SilentEventSpy extends AbstractEventSpy {
                 moduleId);
 
         if (isTestPlugin(mojo) && project != null) {
-            parseAndAccumulateTests(project, mojo);
+            traceSuites(timing, parseAndAccumulateTests(project, mojo));
         } else if (isCompilerPlugin(mojo)) {
             parseAndEmitCompilerErrors(ee);
         } else {
@@ -400,29 +1132,67 @@ public class SilentEventSpy extends AbstractEventSpy {
         }
     }
 
-    private void parseAndAccumulateTests(MavenProject project, MojoExecution mojo) {
+    /**
+     * Returns the parsed summary, or null if the reports were not (re)parsed.
+     */
+    private TestSummary parseAndAccumulateTests(MavenProject project, MojoExecution mojo) {
         File baseDir = project.getBasedir();
-        if (baseDir == null) return;
+        if (baseDir == null) return null;
 
         String reportsSubdir = "maven-failsafe-plugin".equals(mojo.getArtifactId())
                 ? "target/failsafe-reports" : "target/surefire-reports";
         String parseKey = project.getGroupId() + ":" + project.getArtifactId() + ":" + mojo.getExecutionId() + ":" + reportsSubdir;
-        if (!parsedModules.add(parseKey)) return;
+        if (!parsedModules.add(parseKey)) return null;
 
         File reportsDir = new File(baseDir, reportsSubdir);
         reportsDirs.add(reportsDir);
+        SelfOverhead overhead = selfOverhead;
+        SelfOverhead.Measurement activity = overhead.begin("parse-test-reports", reportsDir.getPath());
         TestSummary summary = artifactParser.parseReportsDir(reportsDir,
-                formatter::emitPassthrough);
+                formatter::emitPassthrough, () -> overhead.isOverBudget(activity));
+        overhead.end(activity);
+        if (metricsFile != null) {
+            testSuites.addAll(summary.getSuites());
+        }
         buildState.accumulateTests(summary);
+        recordTestTiming(project, mojo, summary);
+        if (forkProfiling && !activity.overBudget) {
+            emitForkProfile(project);
+        }
         if (summary.hasFailures()) {
             formatter.emitTestResults(summary);
         }
+        return summary;
+    }
+
+    private void recordTestTiming(MavenProject project, MojoExecution mojo, TestSummary summary) {
+        Long start = testMojoStartNanos.remove(mojo);
+        if (summary.getSuites().isEmpty()) return;
+        buildHistory.recordTestMillis(ModuleSelection.moduleKey(project), summary.getTimeMillis());
+        if (forkTuning != null && start != null) {
+            forkTuning.recordTestMojo(summary.getTimeMillis(), System.nanoTime() - start,
+                    ForkTuning.isForkCountConfigured(project, mojo));
+        }
+    }
+
+    private void emitForkProfile(MavenProject project) {
+        List<Path> recordings = ForkProfile.recordingFiles(forkProfileDir(project));
+        if (recordings.isEmpty()) return;
+        SelfOverhead.Measurement activity = selfOverhead.begin("parse-fork-recordings", project.getArtifactId());
+        ForkProfile profile = ForkProfile.parse(recordings, formatter::emitPassthrough);
+        selfOverhead.end(activity);
+        if (!profile.isEmpty()) {
+            formatter.emitForkProfile(project.getArtifactId(), profile);
+        }
     }
 
     private void parseAndEmitCompilerErrors(ExecutionEvent ee) {
         String output = extractCompilerOutput(ee);
         if (output == null || output.isEmpty()) return;
+        SelfOverhead.Measurement activity = selfOverhead.begin("parse-compiler-output",
+                ee.getProject() != null ? ee.getProject().getArtifactId() : null);
         List<CompilerError> errors = ArtifactParser.parseCompilerOutput(output);
+        selfOverhead.end(activity);
         if (!errors.isEmpty()) {
             formatter.emitCompilerErrors(errors);
             buildState.addCompilerErrors(errors.size());
@@ -430,6 +1200,16 @@ public class SilentEventSpy extends AbstractEventSpy {
     }
 
     private void parseAndEmitFailureDetails(ExecutionEvent ee) {
+        SelfOverhead.Measurement activity = selfOverhead.begin("failure-details",
+                ee.getProject() != null ? ee.getProject().getArtifactId() : null);
+        try {
+            emitFailureDetails(ee);
+        } finally {
+            selfOverhead.end(activity);
+        }
+    }
+
+    private void emitFailureDetails(ExecutionEvent ee) {
         List<String> details = new ArrayList<>();
         String output = extractFailureOutput(ee);
         if (output != null && !output.trim().isEmpty()) {
@@ -528,22 +1308,250 @@ public class SilentEventSpy extends AbstractEventSpy {
     }
 
     private void handleSessionEnded() {
+        // JFR only: the overhead report is part of the summary, so it cannot include it
+        BuildEvents.ActivityEvent activity = BuildEvents.begin("session-summary", null);
         try {
             formatter.emitTestOutputPaths(reportsDirs);
             if (buildLogFile != null && buildLogFile.exists()) {
                 formatter.emitBuildLog(buildLogFile);
             }
+            if (closeTrace()) {
+                formatter.emitTrace(traceFile);
+            }
+            recordResumePoint();
+            saveBuildHistory();
+            if (forkTuning != null) {
+                formatter.emitForks(forkTuning);
+            }
+            if (scheduling) {
+                formatter.emitSchedule(schedule, buildState.getElapsedNanos(),
+                        buildHistory.previousSessionMillis());
+            }
+            if (profileReport && !mojoProfile.isEmpty()) {
+                formatter.emitProfile(mojoProfile);
+            }
+            if (profileReport && bootstrap.isComplete()) {
+                formatter.emitBootstrap(bootstrap);
+            }
+            if (profileReport) {
+                emitReactorProfile();
+                if (builderUtilization.getThreads() > 1) {
+                    formatter.emitUtilization(builderUtilization.summarize());
+                    if (!unsafeMojos.isEmpty()) {
+                        formatter.emitUnsafeMojos(unsafeMojos.summarize(mojoProfile.getTimings()));
+                    }
+                }
+            }
+            ForkUsage forks = closeForkUsage();
+            if (forks != null && forks.getProcesses() > 0) {
+                formatter.emitForkUsage(forks);
+            }
+            ContentionProfile contention = closeContentionProfile();
+            if (contention != null) {
+                formatter.emitContention(contention);
+            }
+            DownloadProfile sessionDownloads = downloads;
+            downloads = new DownloadProfile();
+            if (!sessionDownloads.isEmpty() && (profileReport || sessionDownloads.isSignificant())) {
+                formatter.emitDownloads(sessionDownloads);
+            }
+            ResolutionProfile sessionResolution = resolution;
+            resolution = new ResolutionProfile();
+            if (profileReport && !sessionResolution.isEmpty()) {
+                formatter.emitResolution(sessionResolution);
+            }
+            if (profileReport && sessionResolution.isOfflineHint() && session != null && !session.isOffline()) {
+                formatter.emitOfflineHint(sessionResolution);
+            }
+            Oversubscription load = closeOversubscription();
+            if (load != null && load.isOversubscribed()) {
+                formatter.emitOversubscribed(load);
+            }
+            HeapMonitor heap = closeHeapMonitor();
+            if (heap != null && profileReport) {
+                formatter.emitHeap(heap, buildState.getElapsedNanos());
+            }
+            writeStackSamples();
+            writeMetrics();
+            closeOtlpExporter();
+            if (failFastTriggered.get()) {
+                formatter.emitFailFast(buildState.getUnfinishedModules(), estimateFailFastSavingsSeconds(),
+                        testsSkippedModules);
+            }
+            SelfOverhead overhead = selfOverhead;
+            if (overhead != null && (profileReport || overhead.isDegraded())) {
+                formatter.emitOverhead(overhead);
+            }
             if (buildState.isBuildFailed()) {
                 formatter.emitBuildFailed(buildState);
             } else {
                 formatter.emitOk(buildState);
             }
         } finally {
+            BuildEvents.end(activity);
+            buildEvents.sessionEnded(buildState.isBuildFailed());
             boolean keepRedirectForStrict = active.get() && activationMode == ActivationMode.STRICT;
             resetSessionState(!keepRedirectForStrict);
         }
     }
 
+    private void emitReactorProfile() {
+        ProjectDependencyGraph graph = session != null ? session.getProjectDependencyGraph() : null;
+        if (graph == null) return;
+        Map<String, Long> durations = buildState.getModuleNanos();
+        CriticalPath path = CriticalPath.compute(graph, durations);
+        if (path.isEmpty()) return;
+        formatter.emitCriticalPath(path, buildState.getElapsedNanos());
+        formatter.emitParallelism(ParallelismAdvice.advise(ReactorSimulation.of(graph, durations),
+                path.getLengthNanos(), Runtime.getRuntime().availableProcessors(), builderThreads()));
+    }
+
+    private int builderThreads() {
+        MavenExecutionRequest request = session != null ? session.getRequest() : null;
+        return request != null ? Math.max(1, request.getDegreeOfConcurrency()) : 1;
+    }
+
+    /**
+     * After a failure, emits and persists the modules that still need to be built so the next
+     * {@code -Dmse.resume} build can skip the rest; after a success, forgets any earlier state.
+     */
+    private void recordResumePoint() {
+        if (session == null || topLevelBaseDir == null) return;
+        File resumeFile = ResumeState.resumeFile(topLevelBaseDir);
+        try {
+            if (!buildState.isBuildFailed()) {
+                ResumeState.clear(resumeFile);
+                return;
+            }
+            List<MavenProject> projects = session.getProjects();
+            if (projects == null || projects.isEmpty()) return;
+            List<MavenProject> rerun = ResumeState.modulesToResume(projects,
+                    session.getProjectDependencyGraph(),
+                    buildState.getSucceededModuleKeys(), buildState.getFailedModuleKeys());
+            if (rerun.isEmpty()) return;
+            List<String> artifactIds = new ArrayList<>(rerun.size());
+            for (MavenProject project : rerun) {
+                artifactIds.add(project.getArtifactId());
+            }
+            formatter.emitResume(artifactIds);
+            ResumeState.write(resumeFile, rerun);
+        } catch (java.io.IOException e) {
+            formatter.emitPassthrough("resume state not saved: " + e.getMessage());
+        }
+    }
+
+    private void writeMetrics() {
+        if (metricsFile == null) return;
+        try {
+            AtomicFiles.write(metricsFile, BuildMetrics.render(buildState, mojoProfile.getTimings(),
+                    testSuites, selfOverhead.getParseNanos()));
+            formatter.emitMetrics(metricsFile);
+        } catch (java.io.IOException e) {
+            formatter.emitPassthrough("metrics not written: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opt-in ({@code -Dmse.otlp[=<url>]}): exports session, module and mojo spans over OTLP/HTTP
+     * JSON. Without a URL, {@code OTEL_EXPORTER_OTLP_ENDPOINT} or a local collector is used. A
+     * {@code TRACEPARENT} environment variable nests the build under the caller's span.
+     */
+    private void openOtlpExporter() {
+        String raw = sessionOption(session, OTLP_OPTION);
+        if (raw == null) return;
+        String value = raw.trim();
+        String lower = value.toLowerCase(Locale.ROOT);
+        if (isOffValue(lower)) return;
+        String endpoint = value;
+        if (value.isEmpty() || isOnValue(lower)) {
+            String base = System.getenv("OTEL_EXPORTER_OTLP_ENDPOINT");
+            endpoint = base != null && !base.isEmpty()
+                    ? base.replaceAll("/+$", "") + "/v1/traces" : OtlpExporter.DEFAULT_ENDPOINT;
+        }
+        String serviceName = System.getenv("OTEL_SERVICE_NAME");
+        try {
+            otlpExporter = new OtlpExporter(URI.create(endpoint),
+                    serviceName != null && !serviceName.isEmpty() ? serviceName : "maven",
+                    System.getenv("TRACEPARENT"));
+            sessionSpanId = OtlpExporter.randomHex(8);
+        } catch (IllegalArgumentException e) {
+            formatter.emitPassthrough("OTLP export disabled, bad endpoint: " + endpoint);
+        }
+    }
+
+    private long epochNanos(long nanoTime) {
+        return buildState.getStartTimeMillis() * 1_000_000L + (nanoTime - buildState.getStartNanos());
+    }
+
+    private void exportModuleSpan(MavenProject project, boolean failed) {
+        OtlpExporter exporter = otlpExporter;
+        if (exporter == null || project == null) return;
+        String key = ModuleSelection.moduleKey(project);
+        Long nanos = buildState.getModuleNanos().get(key);
+        if (nanos == null) return;
+        long end = System.nanoTime();
+        Map<String, String> attributes = new LinkedHashMap<>();
+        attributes.put("maven.module", key);
+        exporter.span(new OtlpExporter.Span(project.getArtifactId(), exporter.moduleSpanId(key), sessionSpanId,
+                epochNanos(end - nanos), epochNanos(end), attributes, failed));
+    }
+
+    private void exportMojoSpan(MojoTiming timing) {
+        OtlpExporter exporter = otlpExporter;
+        if (exporter == null || timing == null) return;
+        Map<String, String> attributes = new LinkedHashMap<>();
+        attributes.put("maven.module", timing.getModuleKey());
+        attributes.put("maven.plugin", timing.getPlugin());
+        attributes.put("maven.goal", timing.getGoal());
+        if (timing.getExecutionId() != null) attributes.put("maven.execution_id", timing.getExecutionId());
+        if (timing.getPhase() != null) attributes.put("maven.phase", timing.getPhase());
+        exporter.span(new OtlpExporter.Span(timing.getPlugin() + ":" + timing.getGoal(),
+                OtlpExporter.randomHex(8), exporter.moduleSpanId(timing.getModuleKey()),
+                epochNanos(timing.getStartNanos()), epochNanos(timing.getEndNanos()), attributes, timing.isFailed()));
+    }
+
+    /**
+     * Ends the session span and waits a bounded time for queued spans to reach the collector.
+     */
+    private void closeOtlpExporter() {
+        OtlpExporter exporter = otlpExporter;
+        if (exporter == null) return;
+        otlpExporter = null;
+        Map<String, String> attributes = new LinkedHashMap<>();
+        List<String> goals = session.getGoals();
+        attributes.put("maven.goals", goals != null ? String.join(",", goals) : "");
+        attributes.put("maven.modules", Integer.toString(buildState.getTotalModules()));
+        exporter.span(new OtlpExporter.Span("maven " + attributes.get("maven.goals"), sessionSpanId,
+                exporter.getParentSpanId(), epochNanos(buildState.getStartNanos()), epochNanos(System.nanoTime()),
+                attributes, buildState.isBuildFailed()));
+        exporter.close(OTLP_CLOSE_TIMEOUT_MILLIS);
+        formatter.emitOtlp(exporter);
+    }
+
+    private void saveBuildHistory() {
+        if (buildHistory == null || topLevelBaseDir == null) return;
+        for (Map.Entry<String, Long> module : buildState.getModuleNanos().entrySet()) {
+            buildHistory.recordModuleMillis(module.getKey(), module.getValue() / 1_000_000);
+        }
+        if (!buildState.isBuildFailed()) {
+            buildHistory.recordSessionMillis(buildState.getElapsedNanos() / 1_000_000);
+        }
+        try {
+            buildHistory.save(BuildHistory.historyFile(topLevelBaseDir));
+        } catch (java.io.IOException e) {
+            formatter.emitPassthrough("build history not saved: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rough estimate of the wall time fail-fast saved: modules that never finished, at the
+     * average duration of the ones that did, spread over the builder threads.
+     */
+    private long estimateFailFastSavingsSeconds() {
+        long unfinished = buildState.getUnfinishedModules();
+        return unfinished * buildState.getAverageModuleMillis() / builderThreads() / 1000;
+    }
+
     private static boolean isTestPlugin(MojoExecution mojo) {
         return TEST_PLUGINS.contains(mojo.getArtifactId());
     }
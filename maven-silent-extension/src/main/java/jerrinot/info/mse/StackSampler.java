@@ -0,0 +1,148 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wall-clock sampling profiler for the mojos of a session, writing collapsed stacks
+ * ({@code frame;frame;frame count} per line) for flame graph tools.
+ *
+ * <p>A daemon thread reads the stacks of the builder threads that are inside a mojo and files
+ * each under the mojo as its root frame. Builder threads only update a concurrent map at mojo
+ * start and end, so they never wait for the sampler; the JVM still briefly pauses them at a
+ * safepoint to take the stacks, which is part of the reported overhead.
+ */
+final class StackSampler {
+
+    static final String SAMPLES_FILE = "target/mse-profile.collapsed";
+    static final long DEFAULT_INTERVAL_MILLIS = 20;
+    static final int MAX_DEPTH = 256;
+
+    private final ThreadMXBean threads;
+    private final long intervalMillis;
+    private final boolean cpuTimeSupported;
+    /** Builder thread id to the root frame of the mojo it is running. */
+    private final ConcurrentHashMap<Long, String> activeThreads = new ConcurrentHashMap<>();
+    // written by the sampler thread only, read after it stopped
+    private final Map<String, Long> stacks = new TreeMap<>();
+    private long samples;
+    private long samplingNanos;
+    private long samplingCpuNanos;
+    private final Thread sampler;
+    private volatile boolean running = true;
+
+    StackSampler(ThreadMXBean threads, long intervalMillis) {
+        this.threads = threads;
+        this.intervalMillis = Math.max(1, intervalMillis);
+        boolean supported;
+        try {
+            supported = threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+        } catch (UnsupportedOperationException e) {
+            supported = false;
+        }
+        this.cpuTimeSupported = supported;
+        this.sampler = new Thread(this::sampleLoop, "mse-stack-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    static StackSampler start(long intervalMillis) {
+        return new StackSampler(ManagementFactory.getThreadMXBean(), intervalMillis);
+    }
+
+    /** {@code core:maven-compiler-plugin:compile}; no spaces or semicolons, as frames need. */
+    static String rootFrame(MavenProject project, MojoExecution mojo) {
+        String frame = (project != null ? project.getArtifactId() : "unknown")
+                + ":" + mojo.getArtifactId() + ":" + mojo.getGoal();
+        return frame.replace(' ', '_').replace(';', '_');
+    }
+
+    void mojoStarted(MavenProject project, MojoExecution mojo) {
+        if (mojo == null) return;
+        activeThreads.put(Thread.currentThread().getId(), rootFrame(project, mojo));
+    }
+
+    void mojoFinished() {
+        activeThreads.remove(Thread.currentThread().getId());
+    }
+
+    private void sampleLoop() {
+        while (running) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long wallStart = System.nanoTime();
+            long cpuStart = cpuTimeSupported ? threads.getCurrentThreadCpuTime() : 0;
+            sample();
+            samplingNanos += System.nanoTime() - wallStart;
+            if (cpuTimeSupported) {
+                samplingCpuNanos += Math.max(0, threads.getCurrentThreadCpuTime() - cpuStart);
+            }
+        }
+    }
+
+    private void sample() {
+        Map<Long, String> active = new HashMap<>(activeThreads);
+        if (active.isEmpty()) return;
+        long[] ids = new long[active.size()];
+        int i = 0;
+        for (Long id : active.keySet()) ids[i++] = id;
+        ThreadInfo[] infos = threads.getThreadInfo(ids, MAX_DEPTH);
+        if (infos == null) return;
+        for (ThreadInfo info : infos) {
+            if (info == null) continue;
+            String root = active.get(info.getThreadId());
+            StackTraceElement[] frames = info.getStackTrace();
+            if (root == null || frames.length == 0) continue;
+            samples++;
+            stacks.merge(collapse(root, frames), 1L, Long::sum);
+        }
+    }
+
+    /** Root frame first, then the stack from its outermost to its innermost frame. */
+    static String collapse(String root, StackTraceElement[] frames) {
+        StringBuilder sb = new StringBuilder(root);
+        for (int i = frames.length - 1; i >= 0; i--) {
+            sb.append(';').append(frames[i].getClassName()).append('.').append(frames[i].getMethodName());
+        }
+        return sb.toString();
+    }
+
+    void close() {
+        running = false;
+        sampler.interrupt();
+        try {
+            sampler.join(1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Collapsed stacks, one per line; valid after {@link #close()}. */
+    String render() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> stack : stacks.entrySet()) {
+            sb.append(stack.getKey()).append(' ').append(stack.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    long getIntervalMillis() { return intervalMillis; }
+    long getSamples() { return samples; }
+    int getDistinctStacks() { return stacks.size(); }
+    /** Wall time the sampler spent taking stacks, including the safepoint pauses. */
+    long getSamplingNanos() { return samplingNanos; }
+    /** CPU time of the sampler thread, or 0 when the JVM cannot measure it. */
+    long getSamplingCpuNanos() { return samplingCpuNanos; }
+    boolean isCpuTimeSupported() { return cpuTimeSupported; }
+}
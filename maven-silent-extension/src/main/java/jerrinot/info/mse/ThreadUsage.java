@@ -0,0 +1,61 @@
+package jerrinot.info.mse;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the resources the current thread has used so far: CPU time and allocated bytes from
+ * {@link ThreadMXBean} (allocation needs the {@code com.sun.management} extension), plus the
+ * JVM-wide count of loaded classes. Values the JVM cannot provide are {@code -1}.
+ */
+final class ThreadUsage {
+
+    static final int CPU = 0;
+    static final int ALLOCATED = 1;
+    static final int CLASSES = 2;
+
+    private final ThreadMXBean threads;
+    private final ClassLoadingMXBean classLoading;
+    private final boolean cpuSupported;
+    private final boolean allocationSupported;
+
+    ThreadUsage() {
+        this.threads = ManagementFactory.getThreadMXBean();
+        this.classLoading = ManagementFactory.getClassLoadingMXBean();
+        boolean cpu;
+        try {
+            cpu = threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+        } catch (UnsupportedOperationException e) {
+            cpu = false;
+        }
+        this.cpuSupported = cpu;
+        boolean allocation = false;
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean extended = (com.sun.management.ThreadMXBean) threads;
+            try {
+                allocation = extended.isThreadAllocatedMemorySupported() && extended.isThreadAllocatedMemoryEnabled();
+            } catch (UnsupportedOperationException e) {
+                allocation = false;
+            }
+        }
+        this.allocationSupported = allocation;
+    }
+
+    /**
+     * Returns {cpu nanos, allocated bytes, loaded classes}, indexed by {@link #CPU},
+     * {@link #ALLOCATED} and {@link #CLASSES}.
+     */
+    long[] snapshot() {
+        long cpu = cpuSupported ? threads.getCurrentThreadCpuTime() : -1;
+        long allocated = allocationSupported
+                ? ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId())
+                : -1;
+        return new long[]{cpu, allocated, classLoading.getTotalLoadedClassCount()};
+    }
+
+    /** {@code end - start}, or -1 when either side is unknown. */
+    static long delta(long start, long end) {
+        return start < 0 || end < 0 ? -1 : Math.max(0, end - start);
+    }
+}
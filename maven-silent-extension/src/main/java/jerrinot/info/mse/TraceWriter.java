@@ -0,0 +1,160 @@
+package jerrinot.info.mse;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streams the build timeline as Chrome trace events (JSON array format), loadable in Perfetto
+ * or {@code chrome://tracing}. Each builder thread becomes a track, keyed by thread id since
+ * Maven renames builder threads after the module they build. Spans are written as
+ * complete ({@code "X"}) events when they finish, so nothing accumulates in memory.
+ *
+ * <p>A file opened with {@link #open(File, long)} is streamed to a temporary file outside the
+ * project and moved into place on {@link #close()}, because {@code clean} deletes
+ * {@code target/} while the build is still running.
+ */
+final class TraceWriter implements Closeable {
+
+    static final String TRACE_FILE = "target/mse-trace.json";
+    private static final int PID = 1;
+
+    private final Writer out;
+    private final long originNanos;
+    private final Path staging;
+    private final File destination;
+    private final Map<Long, Integer> threadIds = new HashMap<>();
+    private boolean first = true;
+    private boolean closed;
+
+    TraceWriter(Writer out, long originNanos) throws IOException {
+        this(out, originNanos, null, null);
+    }
+
+    private TraceWriter(Writer out, long originNanos, Path staging, File destination) throws IOException {
+        this.out = out;
+        this.originNanos = originNanos;
+        this.staging = staging;
+        this.destination = destination;
+        out.write("[\n");
+    }
+
+    static TraceWriter open(File file, long originNanos) throws IOException {
+        Path staging = Files.createTempFile("mse-trace", ".json");
+        staging.toFile().deleteOnExit();
+        try {
+            BufferedWriter writer = Files.newBufferedWriter(staging, StandardCharsets.UTF_8);
+            return new TraceWriter(writer, originNanos, staging, file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(staging);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a span on the track of {@code thread}; {@code args} may be null.
+     */
+    synchronized void span(String name, String category, long threadId,
+                           long startNanos, long endNanos, Map<String, String> args) throws IOException {
+        if (closed) return;
+        int tid = track(threadId);
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("{\"name\":");
+        appendString(sb, name);
+        sb.append(",\"cat\":");
+        appendString(sb, category);
+        sb.append(",\"ph\":\"X\",\"pid\":").append(PID)
+                .append(",\"tid\":").append(tid)
+                .append(",\"ts\":").append(micros(startNanos - originNanos))
+                .append(",\"dur\":").append(micros(Math.max(0, endNanos - startNanos)));
+        if (args != null && !args.isEmpty()) {
+            sb.append(",\"args\":{");
+            boolean firstArg = true;
+            for (Map.Entry<String, String> arg : args.entrySet()) {
+                if (!firstArg) sb.append(',');
+                appendString(sb, arg.getKey());
+                sb.append(':');
+                appendString(sb, arg.getValue());
+                firstArg = false;
+            }
+            sb.append('}');
+        }
+        sb.append('}');
+        writeEvent(sb);
+    }
+
+    private int track(long threadId) throws IOException {
+        Integer tid = threadIds.get(threadId);
+        if (tid != null) return tid;
+        tid = threadIds.size() + 1;
+        threadIds.put(threadId, tid);
+        StringBuilder sb = new StringBuilder("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":");
+        sb.append(PID).append(",\"tid\":").append(tid).append(",\"args\":{\"name\":");
+        appendString(sb, "builder-" + tid);
+        sb.append("}}");
+        writeEvent(sb);
+        return tid;
+    }
+
+    private void writeEvent(CharSequence event) throws IOException {
+        if (!first) out.write(",\n");
+        out.append(event);
+        first = false;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            try {
+                out.write("\n]\n");
+            } finally {
+                out.close();
+            }
+            if (staging != null) {
+                AtomicFiles.moveInto(staging, destination);
+            }
+        } finally {
+            if (staging != null) {
+                Files.deleteIfExists(staging);
+            }
+        }
+    }
+
+    private static long micros(long nanos) {
+        return nanos / 1_000;
+    }
+
+    static void appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
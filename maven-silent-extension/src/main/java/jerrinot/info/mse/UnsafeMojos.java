@@ -0,0 +1,162 @@
+package jerrinot.info.mse;
+
+import jerrinot.info.mse.model.MojoTiming;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * What mojos that do not declare themselves parallel-friendly cost a {@code -T} build.
+ *
+ * <p>Maven 3.x only warns about mojos without {@code threadSafe=true} and still runs them next
+ * to other builder threads, so for those the report shows how long they actually overlapped
+ * with other mojos. Since Maven 3.9 aggregator mojos take an exclusive reactor lock
+ * ({@code MojoExecutor$ProjectLock}), so there the report shows the builder thread time other
+ * threads spent waiting to start a mojo while one ran. Older versions, such as 3.6, have no such
+ * lock and run aggregators next to other mojos; other threads' waits there are dependency
+ * resolution or forked executions, so aggregators are reported by overlap as well.
+ */
+final class UnsafeMojos {
+
+    private static final String AGGREGATOR_LOCK_CLASS = "org.apache.maven.lifecycle.internal.MojoExecutor$ProjectLock";
+
+    enum Kind {
+        AGGREGATOR("aggregator"),
+        NOT_THREAD_SAFE("not-thread-safe");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        String label() { return label; }
+    }
+
+    private final ConcurrentLinkedQueue<Flagged> flagged = new ConcurrentLinkedQueue<>();
+    private final boolean aggregatorLock;
+
+    UnsafeMojos() {
+        this(hasAggregatorLock());
+    }
+
+    /**
+     * @param aggregatorLock whether the running Maven makes aggregators wait for, and block,
+     *                       the other builder threads
+     */
+    UnsafeMojos(boolean aggregatorLock) {
+        this.aggregatorLock = aggregatorLock;
+    }
+
+    /** Whether the Maven core this runs in has the exclusive aggregator lock. */
+    static boolean hasAggregatorLock() {
+        try {
+            Class.forName(AGGREGATOR_LOCK_CLASS, false, MojoExecution.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns why the mojo may limit a parallel build, or null when it is thread-safe or its
+     * descriptor is unknown.
+     */
+    static Kind classify(MojoExecution mojo) {
+        MojoDescriptor descriptor = mojo != null ? mojo.getMojoDescriptor() : null;
+        if (descriptor == null) return null;
+        if (descriptor.isAggregator()) return Kind.AGGREGATOR;
+        if (!descriptor.isThreadSafe()) return Kind.NOT_THREAD_SAFE;
+        return null;
+    }
+
+    void record(MojoTiming timing, Kind kind, String pluginVersion) {
+        if (timing == null || kind == null) return;
+        flagged.add(new Flagged(timing, kind, pluginVersion));
+    }
+
+    boolean isEmpty() {
+        return flagged.isEmpty();
+    }
+
+    boolean isAggregatorLock() { return aggregatorLock; }
+
+    /**
+     * Aggregates flagged executions per plugin goal, measured against all mojo executions of the
+     * session, most costly first: by blocked time, then overlap, then held time. Blocked time is
+     * only measured when Maven has the aggregator lock.
+     */
+    List<Entry> summarize(Collection<MojoTiming> all) {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (Flagged f : flagged) {
+            MojoTiming t = f.timing;
+            String key = t.getPlugin() + (f.version != null ? ":" + f.version : "") + ":" + t.getGoal();
+            Entry entry = entries.computeIfAbsent(key, k -> new Entry(k, f.kind));
+            entry.executions++;
+            entry.heldNanos += t.getDurationNanos();
+            List<long[]> others = new ArrayList<>();
+            for (MojoTiming other : all) {
+                if (other.getThreadId() == t.getThreadId()) continue;
+                if (f.kind == Kind.AGGREGATOR && aggregatorLock) {
+                    entry.blockedNanos += overlap(other.getReadyNanos(), other.getStartNanos(),
+                            t.getStartNanos(), t.getEndNanos());
+                }
+                others.add(new long[]{other.getStartNanos(), other.getEndNanos()});
+            }
+            entry.overlappedNanos += Intervals.coveredNanos(others, t.getStartNanos(), t.getEndNanos());
+        }
+        List<Entry> result = new ArrayList<>(entries.values());
+        result.sort(Comparator.comparingLong(Entry::getBlockedNanos)
+                .thenComparingLong(Entry::getOverlappedNanos)
+                .thenComparingLong(Entry::getHeldNanos)
+                .reversed());
+        return result;
+    }
+
+    private static long overlap(long start1, long end1, long start2, long end2) {
+        return Math.max(0, Math.min(end1, end2) - Math.max(start1, start2));
+    }
+
+    private static final class Flagged {
+        final MojoTiming timing;
+        final Kind kind;
+        final String version;
+
+        Flagged(MojoTiming timing, Kind kind, String version) {
+            this.timing = timing;
+            this.kind = kind;
+            this.version = version;
+        }
+    }
+
+    static final class Entry {
+        private final String mojo;
+        private final Kind kind;
+        private int executions;
+        private long heldNanos;
+        private long blockedNanos;
+        private long overlappedNanos;
+
+        Entry(String mojo, Kind kind) {
+            this.mojo = mojo;
+            this.kind = kind;
+        }
+
+        /** {@code plugin:version:goal}. */
+        String getMojo() { return mojo; }
+        Kind getKind() { return kind; }
+        int getExecutions() { return executions; }
+        long getHeldNanos() { return heldNanos; }
+        /** Builder thread time spent waiting to start a mojo while this one held the reactor. */
+        long getBlockedNanos() { return blockedNanos; }
+        /** Time this mojo ran while another builder thread was running a mojo too. */
+        long getOverlappedNanos() { return overlappedNanos; }
+    }
+}
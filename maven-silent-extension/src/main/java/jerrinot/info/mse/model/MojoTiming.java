@@ -0,0 +1,130 @@
+package jerrinot.info.mse.model;
+
+import java.util.Objects;
+
+/**
+ * One finished mojo execution with monotonic ({@link System#nanoTime()}) start and end.
+ */
+public final class MojoTiming {
+
+    private final String moduleKey;
+    private final String moduleId;
+    private final String plugin;
+    private final String goal;
+    private final String executionId;
+    private final String phase;
+    private final long threadId;
+    private final long readyNanos;
+    private final long startNanos;
+    private final long endNanos;
+    private final boolean failed;
+    private final long cpuNanos;
+    private final long allocatedBytes;
+    private final long loadedClasses;
+
+    private MojoTiming(Builder builder) {
+        this.moduleKey = builder.moduleKey;
+        this.moduleId = builder.moduleId;
+        this.plugin = builder.plugin;
+        this.goal = builder.goal;
+        this.executionId = builder.executionId;
+        this.phase = builder.phase;
+        this.threadId = builder.threadId;
+        this.readyNanos = Math.min(builder.readyNanos, builder.startNanos);
+        this.startNanos = builder.startNanos;
+        this.endNanos = builder.endNanos;
+        this.failed = builder.failed;
+        this.cpuNanos = builder.cpuNanos;
+        this.allocatedBytes = builder.allocatedBytes;
+        this.loadedClasses = builder.loadedClasses;
+    }
+
+    public static Builder builder(String moduleKey, String moduleId, String plugin, String goal) {
+        return new Builder(moduleKey, moduleId, plugin, goal);
+    }
+
+    /**
+     * Builds a {@link MojoTiming}; the ready time defaults to the start and the resource usage
+     * to -1, i.e. not measured.
+     */
+    public static final class Builder {
+        private final String moduleKey;
+        private final String moduleId;
+        private final String plugin;
+        private final String goal;
+        private String executionId;
+        private String phase;
+        private long threadId;
+        private long readyNanos = Long.MAX_VALUE;
+        private long startNanos;
+        private long endNanos;
+        private boolean failed;
+        private long cpuNanos = -1;
+        private long allocatedBytes = -1;
+        private long loadedClasses = -1;
+
+        private Builder(String moduleKey, String moduleId, String plugin, String goal) {
+            this.moduleKey = Objects.requireNonNull(moduleKey, "moduleKey");
+            this.moduleId = Objects.requireNonNull(moduleId, "moduleId");
+            this.plugin = Objects.requireNonNull(plugin, "plugin");
+            this.goal = Objects.requireNonNull(goal, "goal");
+        }
+
+        public Builder executionId(String executionId) { this.executionId = executionId; return this; }
+        public Builder phase(String phase) { this.phase = phase; return this; }
+        public Builder threadId(long threadId) { this.threadId = threadId; return this; }
+        public Builder readyNanos(long readyNanos) { this.readyNanos = readyNanos; return this; }
+        public Builder failed(boolean failed) { this.failed = failed; return this; }
+        public Builder cpuNanos(long cpuNanos) { this.cpuNanos = cpuNanos; return this; }
+        public Builder allocatedBytes(long allocatedBytes) { this.allocatedBytes = allocatedBytes; return this; }
+        public Builder loadedClasses(long loadedClasses) { this.loadedClasses = loadedClasses; return this; }
+
+        public Builder span(long startNanos, long endNanos) {
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            return this;
+        }
+
+        public MojoTiming build() {
+            return new MojoTiming(this);
+        }
+    }
+
+    public String getModuleKey() { return moduleKey; }
+    public String getModuleId() { return moduleId; }
+    public String getPlugin() { return plugin; }
+    public String getGoal() { return goal; }
+    public String getExecutionId() { return executionId; }
+    /** Lifecycle phase the mojo was bound to, or null for goals invoked directly. */
+    public String getPhase() { return phase; }
+    /** Id of the builder thread; Maven renames builder threads per module, so names are not stable. */
+    public long getThreadId() { return threadId; }
+    /**
+     * When the builder thread finished its previous step in the module (the module start or the
+     * previous mojo). The gap up to {@link #getStartNanos()} is spent resolving dependencies and
+     * waiting for Maven's reactor locks.
+     */
+    public long getReadyNanos() { return readyNanos; }
+    public long getStartNanos() { return startNanos; }
+    public long getEndNanos() { return endNanos; }
+    public long getDurationNanos() { return Math.max(0, endNanos - startNanos); }
+    public boolean isFailed() { return failed; }
+    /**
+     * CPU time of the builder thread while the mojo ran, or -1 when not measured. Work the mojo
+     * hands to other threads or forked processes is not included.
+     */
+    public long getCpuNanos() { return cpuNanos; }
+    /** Heap bytes the builder thread allocated while the mojo ran, or -1 when not measured. */
+    public long getAllocatedBytes() { return allocatedBytes; }
+    /**
+     * Classes loaded by the whole JVM while the mojo ran, or -1 when not measured; in parallel
+     * builds this includes classes loaded by mojos running at the same time.
+     */
+    public long getLoadedClasses() { return loadedClasses; }
+
+    @Override
+    public String toString() {
+        return plugin + ":" + goal + (executionId != null ? " (" + executionId + ")" : "")
+                + " @ " + moduleId + " " + getDurationNanos() / 1_000_000 + "ms";
+    }
+}
@@ -0,0 +1,25 @@
+package jerrinot.info.mse.model;
+
+import java.util.Objects;
+
+public final class TestSuiteTime {
+
+    private final String name;
+    private final int tests;
+    private final long timeMillis;
+
+    public TestSuiteTime(String name, int tests, long timeMillis) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.tests = tests;
+        this.timeMillis = timeMillis;
+    }
+
+    public String getName() { return name; }
+    public int getTests() { return tests; }
+    public long getTimeMillis() { return timeMillis; }
+
+    @Override
+    public String toString() {
+        return name + " (" + tests + " tests, " + timeMillis + "ms)";
+    }
+}
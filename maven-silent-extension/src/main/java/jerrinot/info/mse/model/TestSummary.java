@@ -11,13 +11,20 @@ public final class TestSummary {
     private final int errors;
     private final int skipped;
     private final List<TestFailure> failureDetails;
+    private final List<TestSuiteTime> suites;
 
     public TestSummary(int total, int failures, int errors, int skipped, List<TestFailure> failureDetails) {
+        this(total, failures, errors, skipped, failureDetails, List.of());
+    }
+
+    public TestSummary(int total, int failures, int errors, int skipped, List<TestFailure> failureDetails,
+                       List<TestSuiteTime> suites) {
         this.total = total;
         this.failures = failures;
         this.errors = errors;
         this.skipped = skipped;
         this.failureDetails = List.copyOf(failureDetails);
+        this.suites = List.copyOf(suites);
     }
 
     public int getTotal() { return total; }
@@ -27,6 +34,18 @@ public final class TestSummary {
     public int getPassed() { return Math.max(0, total - failures - errors - skipped); }
     public boolean hasFailures() { return failures > 0 || errors > 0; }
     public List<TestFailure> getFailureDetails() { return failureDetails; }
+    public List<TestSuiteTime> getSuites() { return suites; }
+
+    /**
+     * Sum of the suite times reported by the test framework, i.e. serial test execution time.
+     */
+    public long getTimeMillis() {
+        long sum = 0;
+        for (TestSuiteTime suite : suites) {
+            sum += suite.getTimeMillis();
+        }
+        return sum;
+    }
 
     @Override
     public String toString() {
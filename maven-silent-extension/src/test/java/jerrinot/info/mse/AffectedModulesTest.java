@@ -0,0 +1,162 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AffectedModulesTest {
+
+    @Test
+    void resolveBaseInterpretsOptionValues() {
+        assertNull(AffectedModules.resolveBase(null));
+        assertNull(AffectedModules.resolveBase("off"));
+        assertNull(AffectedModules.resolveBase("false"));
+        assertEquals("HEAD", AffectedModules.resolveBase(""));
+        assertEquals("HEAD", AffectedModules.resolveBase("true"));
+        assertEquals("origin/main", AffectedModules.resolveBase(" origin/main "));
+    }
+
+    @Test
+    void pathsMapToDeepestContainingModule(@TempDir Path root) {
+        MavenProject parent = project("parent", root.toFile());
+        MavenProject core = project("core", root.resolve("core").toFile());
+        MavenProject app = project("app", root.resolve("app").toFile());
+
+        Set<MavenProject> owners = AffectedModules.owningModules(Arrays.asList(parent, core, app),
+                Arrays.asList(root.resolve("core/src/main/java/Foo.java"), root.resolve("README.md")));
+
+        assertEquals(2, owners.size());
+        assertTrue(owners.contains(core));
+        assertTrue(owners.contains(parent));
+        assertFalse(owners.contains(app));
+    }
+
+    @Test
+    void pathsOutsideReactorAreIgnored(@TempDir Path root) {
+        MavenProject core = project("core", root.resolve("core").toFile());
+        Set<MavenProject> owners = AffectedModules.owningModules(Collections.singletonList(core),
+                Collections.singletonList(root.resolve("core-docs/index.md")));
+        assertTrue(owners.isEmpty());
+    }
+
+    @Test
+    void affectedIncludesDownstreamDependents(@TempDir Path root) {
+        MavenProject core = project("core", root.resolve("core").toFile());
+        MavenProject service = project("service", root.resolve("service").toFile());
+        MavenProject app = project("app", root.resolve("app").toFile());
+        ProjectDependencyGraph graph = mock(ProjectDependencyGraph.class);
+        when(graph.getDownstreamProjects(service, true)).thenReturn(Collections.singletonList(app));
+
+        Set<MavenProject> affected = AffectedModules.affected(Arrays.asList(core, service, app), graph,
+                Collections.singletonList(root.resolve("service/pom.xml")));
+
+        assertEquals(2, affected.size());
+        assertTrue(affected.contains(service));
+        assertTrue(affected.contains(app));
+    }
+
+    @Test
+    void changedPathsReadsDiffAndUntrackedFiles(@TempDir Path root) throws Exception {
+        git(root, "init", "-q");
+        git(root, "config", "user.email", "test@example.com");
+        git(root, "config", "user.name", "test");
+        Files.createDirectories(root.resolve("core"));
+        Files.writeString(root.resolve("core/pom.xml"), "<project/>");
+        Files.writeString(root.resolve("pom.xml"), "<project/>");
+        git(root, "add", ".");
+        git(root, "commit", "-q", "-m", "init");
+
+        Files.writeString(root.resolve("core/pom.xml"), "<project></project>");
+        Files.createDirectories(root.resolve("app"));
+        Files.writeString(root.resolve("app/New.java"), "class New {}");
+
+        List<Path> changed = AffectedModules.changedPaths(root.toFile(), "HEAD");
+
+        Path realRoot = root.toRealPath();
+        assertTrue(changed.contains(realRoot.resolve("core/pom.xml")), changed.toString());
+        assertTrue(changed.contains(realRoot.resolve("app/New.java")), changed.toString());
+        assertFalse(changed.contains(realRoot.resolve("pom.xml")), changed.toString());
+    }
+
+    @Test
+    void changedPathsKeepsQuotedFileNamesVerbatim(@TempDir Path root) throws Exception {
+        git(root, "init", "-q");
+        git(root, "config", "user.email", "test@example.com");
+        git(root, "config", "user.name", "test");
+        Files.createDirectories(root.resolve("mod"));
+        Files.writeString(root.resolve("mod/\"quoted\" back\\slash.java"), "class A {}");
+        git(root, "add", ".");
+        git(root, "commit", "-q", "-m", "init");
+
+        Files.writeString(root.resolve("mod/\"quoted\" back\\slash.java"), "class A { }");
+        Files.writeString(root.resolve("mod/with space.txt"), "new");
+
+        List<Path> changed = AffectedModules.changedPaths(root.toFile(), "HEAD");
+
+        Path realRoot = root.toRealPath();
+        assertTrue(changed.contains(realRoot.resolve("mod/\"quoted\" back\\slash.java")), changed.toString());
+        assertTrue(changed.contains(realRoot.resolve("mod/with space.txt")), changed.toString());
+    }
+
+    @Test
+    void symlinkedWorkTreeStillMapsChangesToModules(@TempDir Path tmp) throws Exception {
+        Path real = Files.createDirectories(tmp.resolve("realrepo"));
+        git(real, "init", "-q");
+        git(real, "config", "user.email", "test@example.com");
+        git(real, "config", "user.name", "test");
+        Files.createDirectories(real.resolve("core"));
+        Files.writeString(real.resolve("core/pom.xml"), "<project/>");
+        Files.writeString(real.resolve("pom.xml"), "<project/>");
+        git(real, "add", ".");
+        git(real, "commit", "-q", "-m", "init");
+        Files.writeString(real.resolve("core/pom.xml"), "<project></project>");
+        Path link = Files.createSymbolicLink(tmp.resolve("linkrepo"), real);
+
+        // Maven keeps the logical path the build was started from
+        MavenProject parent = project("parent", link.toFile());
+        MavenProject core = project("core", link.resolve("core").toFile());
+        List<Path> changed = AffectedModules.changedPaths(link.toFile(), "HEAD");
+        Set<MavenProject> owners = AffectedModules.owningModules(Arrays.asList(parent, core), changed);
+
+        assertEquals(Collections.singleton(core), owners);
+    }
+
+    @Test
+    void changedPathsFailsOutsideGitWorkTree(@TempDir Path root) {
+        assertThrows(java.io.IOException.class,
+                () -> AffectedModules.changedPaths(root.toFile(), "HEAD"));
+    }
+
+    private static MavenProject project(String artifactId, File basedir) {
+        MavenProject project = mock(MavenProject.class);
+        when(project.getArtifactId()).thenReturn(artifactId);
+        when(project.getGroupId()).thenReturn("com.example");
+        when(project.getBasedir()).thenReturn(basedir);
+        return project;
+    }
+
+    private static void git(Path dir, String... args) throws Exception {
+        String[] command = new String[args.length + 1];
+        command[0] = "git";
+        System.arraycopy(args, 0, command, 1, args.length);
+        Process process = new ProcessBuilder(command).directory(dir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+        assertEquals(0, process.exitValue(), "git " + String.join(" ", args));
+    }
+}
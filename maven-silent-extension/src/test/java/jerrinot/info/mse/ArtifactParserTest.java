@@ -36,6 +36,30 @@ class ArtifactParserTest {
         assertTrue(summary.hasFailures());
     }
 
+    @Test
+    void countsOnlyKeepsCountsSuiteTimesAndFailureDetails() throws Exception {
+        TestSummary full = parser.parseReportsDir(reportsDir());
+        TestSummary counts = parser.parseReportsDir(reportsDir(), msg -> {}, () -> true);
+        assertEquals(full.getTotal(), counts.getTotal());
+        assertEquals(full.getFailures(), counts.getFailures());
+        assertEquals(full.getErrors(), counts.getErrors());
+        assertEquals(full.getSkipped(), counts.getSkipped());
+        assertEquals(full.getSuites().size(), counts.getSuites().size());
+        assertEquals(full.getTimeMillis(), counts.getTimeMillis());
+        assertEquals(full.getFailureDetails().size(), counts.getFailureDetails().size());
+    }
+
+    @Test
+    void countsOnlyRejectsDoctype(@TempDir Path tempDir) throws Exception {
+        Files.writeString(tempDir.resolve("TEST-Evil.xml"),
+                "<?xml version=\"1.0\"?><!DOCTYPE x [<!ENTITY e SYSTEM \"file:///etc/passwd\">]>"
+                        + "<testsuite name=\"&e;\" tests=\"1\"/>");
+        List<String> diagnostics = new ArrayList<>();
+        TestSummary summary = parser.parseReportsDir(tempDir.toFile(), diagnostics::add, () -> true);
+        assertEquals(0, summary.getTotal());
+        assertEquals(1, diagnostics.size());
+    }
+
     @Test
     void failureDetails() throws Exception {
         TestSummary summary = parser.parseReportsDir(reportsDir());
@@ -57,6 +81,25 @@ class ArtifactParserTest {
         assertTrue(error.getStackTrace().contains("NullPointerException"));
     }
 
+    @Test
+    void suiteTimesAreCollected() throws Exception {
+        TestSummary summary = parser.parseReportsDir(reportsDir());
+        assertEquals(3, summary.getSuites().size());
+        jerrinot.info.mse.model.TestSuiteTime app = summary.getSuites().stream()
+                .filter(suite -> suite.getName().equals("com.example.AppTest"))
+                .findFirst().orElseThrow(AssertionError::new);
+        assertEquals(1234, app.getTimeMillis());
+        assertEquals(5, app.getTests());
+    }
+
+    @Test
+    void groupedSuiteTimeIsParsed(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("TEST-com.example.SlowTest.xml"),
+                "<testsuite name=\"com.example.SlowTest\" tests=\"1\" time=\"1,234.5\"/>");
+        TestSummary summary = parser.parseReportsDir(tempDir.toFile());
+        assertEquals(1_234_500, summary.getTimeMillis());
+    }
+
     @Test
     void missingDirectory() {
         TestSummary summary = parser.parseReportsDir(new File("/nonexistent/dir"));
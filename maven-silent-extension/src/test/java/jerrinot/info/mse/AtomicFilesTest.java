@@ -0,0 +1,31 @@
+package jerrinot.info.mse;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AtomicFilesTest {
+
+    @Test
+    void writeReplacesFileWithoutLeavingTemporaries(@TempDir Path tempDir) throws Exception {
+        File file = tempDir.resolve("target/mse-metrics.prom").toFile();
+        AtomicFiles.write(file, "old\n");
+        AtomicFiles.write(file, "new\n");
+        assertEquals("new\n", Files.readString(file.toPath()));
+        assertArrayEquals(new String[]{"mse-metrics.prom"}, file.getParentFile().list());
+    }
+
+    @Test
+    void moveIntoCreatesMissingDirectories(@TempDir Path tempDir) throws Exception {
+        Path source = Files.writeString(tempDir.resolve("staged.json"), "[]\n");
+        File file = tempDir.resolve("target/deep/trace.json").toFile();
+        AtomicFiles.moveInto(source, file);
+        assertEquals("[]\n", Files.readString(file.toPath()));
+        assertFalse(Files.exists(source));
+    }
+}
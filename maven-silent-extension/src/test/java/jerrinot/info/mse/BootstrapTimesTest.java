@@ -0,0 +1,91 @@
+package jerrinot.info.mse;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BootstrapTimesTest {
+
+    @Test
+    void splitsTimeBeforeTheFirstMojoIntoPhases() {
+        BootstrapTimes bootstrap = new BootstrapTimes(1_000, 1_400);
+        bootstrap.initialized(1_700);
+        bootstrap.discoveryStarted(1_800);
+        bootstrap.sessionStarted(3_000);
+        assertFalse(bootstrap.isComplete());
+        bootstrap.mojoStarted(3_500);
+        bootstrap.mojoStarted(9_000);
+
+        assertTrue(bootstrap.isComplete());
+        assertArrayEquals(new long[]{400, 300, 100, 1_200, 0, 500}, bootstrap.phaseMillis());
+        assertEquals(2_500, bootstrap.totalMillis());
+        assertEquals("fewer-modules", bootstrap.hint());
+    }
+
+    @Test
+    void withoutDiscoveryEventSetupCountsAsModelBuilding() {
+        BootstrapTimes bootstrap = new BootstrapTimes(0, 900);
+        bootstrap.initialized(1_000);
+        bootstrap.sessionStarted(1_200);
+        bootstrap.mojoStarted(1_300);
+
+        assertArrayEquals(new long[]{900, 100, 0, 200, 0, 100}, bootstrap.phaseMillis());
+        assertEquals("cds", bootstrap.hint());
+    }
+
+    @Test
+    void ownSetUpIsItsOwnPhaseAndNeverTheHint() {
+        BootstrapTimes bootstrap = new BootstrapTimes(0, 100);
+        bootstrap.initialized(200);
+        bootstrap.discoveryStarted(250);
+        bootstrap.sessionStarted(400);
+        bootstrap.sessionConfigured(5_000);
+        bootstrap.mojoStarted(5_300);
+
+        assertArrayEquals(new long[]{100, 100, 50, 150, 4_600, 300}, bootstrap.phaseMillis());
+        assertEquals("mvnd", bootstrap.hint());
+    }
+
+    @Test
+    void laterSessionsInTheSameJvmStartOver() {
+        BootstrapTimes bootstrap = new BootstrapTimes(0, 900);
+        bootstrap.initialized(1_000);
+        bootstrap.discoveryStarted(1_100);
+        bootstrap.sessionStarted(1_200);
+        bootstrap.mojoStarted(1_300);
+
+        bootstrap.discoveryStarted(60_000);
+        assertFalse(bootstrap.isComplete());
+        bootstrap.sessionStarted(60_400);
+        bootstrap.mojoStarted(60_500);
+
+        assertTrue(bootstrap.isComplete());
+        assertArrayEquals(new long[]{0, 0, 0, 400, 0, 100}, bootstrap.phaseMillis());
+        assertEquals(500, bootstrap.totalMillis());
+        assertEquals("fewer-modules", bootstrap.hint());
+    }
+
+    @Test
+    void laterSessionWithoutDiscoveryStartsAtTheSession() {
+        BootstrapTimes bootstrap = new BootstrapTimes(0, 900);
+        bootstrap.initialized(1_000);
+        bootstrap.sessionStarted(1_200);
+        bootstrap.mojoStarted(1_300);
+
+        bootstrap.sessionStarted(60_000);
+        bootstrap.mojoStarted(60_200);
+
+        assertArrayEquals(new long[]{0, 0, 0, 0, 0, 200}, bootstrap.phaseMillis());
+        assertEquals(200, bootstrap.totalMillis());
+    }
+
+    @Test
+    void pluginResolutionPointsAtADaemon() {
+        BootstrapTimes bootstrap = new BootstrapTimes(0, 100);
+        bootstrap.initialized(200);
+        bootstrap.discoveryStarted(250);
+        bootstrap.sessionStarted(400);
+        bootstrap.mojoStarted(2_000);
+        assertEquals("mvnd", bootstrap.hint());
+    }
+}
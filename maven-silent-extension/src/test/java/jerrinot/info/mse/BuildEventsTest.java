@@ -0,0 +1,81 @@
+package jerrinot.info.mse;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BuildEventsTest {
+
+    @Test
+    void recordsBuildStructureWhileARecordingRuns(@TempDir Path tempDir) throws Exception {
+        MavenProject core = mock(MavenProject.class);
+        when(core.getGroupId()).thenReturn("com.example");
+        when(core.getArtifactId()).thenReturn("core");
+        MojoExecution compile = MojoProfileTest.mojo("maven-compiler-plugin", "compile", "default-compile", "compile");
+        Path file = tempDir.resolve("build.jfr");
+
+        BuildEvents events = new BuildEvents();
+        try (Recording recording = new Recording()) {
+            recording.enable(BuildEvents.SessionEvent.class);
+            recording.enable(BuildEvents.ProjectEvent.class);
+            recording.enable(BuildEvents.MojoEvent.class);
+            recording.enable(BuildEvents.ActivityEvent.class);
+            recording.start();
+
+            events.sessionStarted("install", 1);
+            events.projectStarted("com.example:core");
+            events.mojoStarted(core, compile);
+            events.mojoFinished(compile, true);
+            BuildEvents.end(BuildEvents.begin("parse-test-reports", "target/surefire-reports"));
+            events.projectFinished("com.example:core", true);
+            events.sessionEnded(true);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, RecordedEvent> byType = new HashMap<>();
+        List<RecordedEvent> recorded = RecordingFile.readAllEvents(file);
+        for (RecordedEvent event : recorded) {
+            byType.put(event.getEventType().getName(), event);
+        }
+        RecordedEvent mojo = byType.get("jerrinot.mse.MojoExecution");
+        assertNotNull(mojo, byType.keySet().toString());
+        assertEquals("com.example:core", mojo.getString("module"));
+        assertEquals("maven-compiler-plugin", mojo.getString("plugin"));
+        assertEquals("compile", mojo.getString("goal"));
+        assertEquals("default-compile", mojo.getString("executionId"));
+        assertTrue(mojo.getBoolean("failed"));
+        assertEquals("com.example:core", byType.get("jerrinot.mse.Project").getString("module"));
+        assertEquals("install", byType.get("jerrinot.mse.Session").getString("goals"));
+        assertEquals(1, byType.get("jerrinot.mse.Session").getInt("modules"));
+        assertEquals("parse-test-reports", byType.get("jerrinot.mse.Activity").getString("activity"));
+    }
+
+    @Test
+    void withoutRecordingNothingIsTracked() {
+        BuildEvents events = new BuildEvents();
+        MojoExecution mojo = mock(MojoExecution.class);
+        events.sessionStarted("install", 1);
+        events.projectStarted("com.example:core");
+        events.mojoStarted(null, mojo);
+        assertNull(BuildEvents.begin("parse-test-reports", null));
+        // Never touched: the event type is disabled, so the mojo was not even inspected
+        verifyNoInteractions(mojo);
+        events.mojoFinished(mojo, false);
+        events.projectFinished("com.example:core", false);
+        events.sessionEnded(false);
+    }
+}
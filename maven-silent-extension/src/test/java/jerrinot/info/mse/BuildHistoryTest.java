@@ -0,0 +1,71 @@
+package jerrinot.info.mse;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuildHistoryTest {
+
+    @Test
+    void missingFileMeansNoHistory(@TempDir Path tempDir) {
+        BuildHistory history = BuildHistory.load(BuildHistory.historyFile(tempDir.toFile()));
+        assertTrue(history.isEmpty());
+        assertEquals(-1, history.previousTestMillis("com.example:core"));
+        assertEquals(-1, history.previousMaxTestMillis());
+    }
+
+    @Test
+    void saveMergesSessionValuesOverPreviousOnes(@TempDir Path tempDir) throws Exception {
+        File file = BuildHistory.historyFile(tempDir.toFile());
+        BuildHistory first = BuildHistory.empty();
+        first.recordTestMillis("com.example:core", 1_000);
+        first.recordTestMillis("com.example:app", 4_000);
+        first.save(file);
+
+        BuildHistory second = BuildHistory.load(file);
+        assertEquals(4_000, second.previousMaxTestMillis());
+        second.recordTestMillis("com.example:core", 2_500);
+        second.recordTestMillis("com.example:core", 500);
+        second.save(file);
+
+        BuildHistory third = BuildHistory.load(file);
+        assertEquals(3_000, third.previousTestMillis("com.example:core"));
+        assertEquals(4_000, third.previousTestMillis("com.example:app"));
+    }
+
+    @Test
+    void corruptValuesAreIgnored(@TempDir Path tempDir) throws Exception {
+        File file = BuildHistory.historyFile(tempDir.toFile());
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.writeString(file.toPath(), "tests.com.example\\:core=abc\n");
+        assertEquals(-1, BuildHistory.load(file).previousTestMillis("com.example:core"));
+    }
+
+    @Test
+    void moduleAndSessionTimesRoundTrip(@TempDir Path tempDir) throws Exception {
+        File file = BuildHistory.historyFile(tempDir.toFile());
+        BuildHistory first = BuildHistory.empty();
+        assertEquals(-1, first.previousSessionMillis());
+        first.recordModuleMillis("com.example:core", 1_200);
+        first.recordModuleMillis("com.example:core", 1_500);
+        first.recordSessionMillis(9_000);
+        first.save(file);
+
+        BuildHistory second = BuildHistory.load(file);
+        assertEquals(Map.of("com.example:core", 1_500L), second.previousModuleMillis());
+        assertEquals(9_000, second.previousSessionMillis());
+    }
+
+    @Test
+    void nothingRecordedWritesNothing(@TempDir Path tempDir) throws Exception {
+        File file = BuildHistory.historyFile(tempDir.toFile());
+        BuildHistory.empty().save(file);
+        assertFalse(file.exists());
+    }
+}
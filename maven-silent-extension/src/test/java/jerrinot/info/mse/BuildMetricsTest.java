@@ -0,0 +1,65 @@
+package jerrinot.info.mse;
+
+import jerrinot.info.mse.model.MojoTiming;
+import jerrinot.info.mse.model.TestFailure;
+import jerrinot.info.mse.model.TestSuiteTime;
+import jerrinot.info.mse.model.TestSummary;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuildMetricsTest {
+
+    private static final long S = 1_000_000_000L;
+
+    @Test
+    void exportsBuildCountsAsGauges() {
+        BuildState state = new BuildState(3, 0L);
+        state.moduleSucceeded("com.example:core");
+        state.moduleFailed("com.example:app");
+        state.accumulateTests(new TestSummary(10, 1, 2, 3, Collections.<TestFailure>emptyList()));
+        state.addCompilerErrors(4);
+
+        String text = BuildMetrics.render(state, Collections.emptyList(), Collections.emptyList(), 1_500_000L);
+
+        assertTrue(text.contains("# TYPE mse_build_failed gauge\n"), text);
+        assertTrue(text.contains("mse_build_failed 1\n"), text);
+        assertTrue(text.contains("mse_modules{state=\"total\"} 3\n"), text);
+        assertTrue(text.contains("mse_modules{state=\"failed\"} 1\n"), text);
+        assertTrue(text.contains("mse_modules{state=\"unfinished\"} 1\n"), text);
+        assertTrue(text.contains("mse_tests{result=\"passed\"} 4\n"), text);
+        assertTrue(text.contains("mse_tests{result=\"skipped\"} 3\n"), text);
+        assertTrue(text.contains("mse_compiler_errors 4\n"), text);
+        assertTrue(text.contains("mse_parse_duration_seconds 0.002\n"), text);
+        assertTrue(text.endsWith("# EOF\n"), text);
+    }
+
+    @Test
+    void mojoDurationsBecomeHistogramsPerPluginAndGoal() {
+        MojoTiming compile = timing("maven-compiler-plugin", "compile", 0, 2 * S);
+        MojoTiming compile2 = timing("maven-compiler-plugin", "compile", 0, S / 5);
+        MojoTiming test = timing("maven-surefire-plugin", "test", 0, 45 * S);
+
+        String text = BuildMetrics.render(new BuildState(1, 0L), Arrays.asList(compile, compile2, test),
+                Collections.singletonList(new TestSuiteTime("com.example.FooTest", 3, 700)), 0);
+
+        assertTrue(text.contains("# TYPE mse_mojo_duration_seconds histogram\n"), text);
+        String compileLabels = "plugin=\"maven-compiler-plugin\",goal=\"compile\"";
+        assertTrue(text.contains("mse_mojo_duration_seconds_bucket{" + compileLabels + ",le=\"0.1\"} 0\n"), text);
+        assertTrue(text.contains("mse_mojo_duration_seconds_bucket{" + compileLabels + ",le=\"0.5\"} 1\n"), text);
+        assertTrue(text.contains("mse_mojo_duration_seconds_bucket{" + compileLabels + ",le=\"5.0\"} 2\n"), text);
+        assertTrue(text.contains("mse_mojo_duration_seconds_bucket{" + compileLabels + ",le=\"+Inf\"} 2\n"), text);
+        assertTrue(text.contains("mse_mojo_duration_seconds_sum{" + compileLabels + "} 2.200\n"), text);
+        assertTrue(text.contains("mse_mojo_duration_seconds_count{plugin=\"maven-surefire-plugin\",goal=\"test\"} 1\n"), text);
+        assertTrue(text.contains("mse_test_suite_duration_seconds_bucket{le=\"1.0\"} 1\n"), text);
+        assertTrue(text.contains("mse_test_suite_duration_seconds_count 1\n"), text);
+    }
+
+    private static MojoTiming timing(String plugin, String goal, long start, long end) {
+        return MojoTiming.builder("com.example:core", "core", plugin, goal)
+                .executionId("default-" + goal).threadId(1).span(start, end).build();
+    }
+}
@@ -77,6 +77,33 @@ class BuildStateTest {
         assertFalse(state.isBuildFailed());
     }
 
+    @Test
+    void moduleKeysAreRemembered() {
+        BuildState state = new BuildState(3, 0L);
+        state.moduleSucceeded("com.example:core");
+        state.moduleFailed("com.example:app");
+        state.moduleSucceeded(null);
+        assertEquals(2, state.getSucceededModules());
+        assertEquals(1, state.getFailedModules());
+        assertEquals(java.util.Set.of("com.example:core"), state.getSucceededModuleKeys());
+        assertEquals(java.util.Set.of("com.example:app"), state.getFailedModuleKeys());
+        assertTrue(state.isBuildFailed());
+    }
+
+    @Test
+    void averageModuleTimeCoversStartedModulesOnly() throws Exception {
+        BuildState state = new BuildState(4, 0L);
+        assertEquals(0, state.getAverageModuleMillis());
+        state.moduleStarted("com.example:core");
+        Thread.sleep(20);
+        state.moduleSucceeded("com.example:core");
+        state.moduleSucceeded("com.example:never-started");
+        assertTrue(state.getAverageModuleMillis() >= 20, "average=" + state.getAverageModuleMillis());
+        assertEquals(2, state.getUnfinishedModules());
+        assertEquals(1, state.getModuleNanos().size());
+        assertTrue(state.getModuleNanos().get("com.example:core") >= 20_000_000L);
+    }
+
     @Test
     void setBuildFailedMarksFailureWithoutIncrementingModuleCounter() {
         BuildState state = new BuildState(2, 0L);
@@ -0,0 +1,77 @@
+package jerrinot.info.mse;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuilderUtilizationTest {
+
+    private static final long S = 1_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void measuresConcurrencyOverTheSession() {
+        // -T2: core 0-2s alone, then api 2-3s and impl 2-6s, then app 6-7s alone
+        BuilderUtilization utilization = new BuilderUtilization(2, 0, now::get);
+        utilization.moduleStarted("g:core", "core");
+        now.set(2 * S);
+        utilization.moduleFinished("g:core");
+        utilization.moduleStarted("g:api", "api");
+        utilization.moduleStarted("g:impl", "impl");
+        now.set(3 * S);
+        utilization.moduleFinished("g:api");
+        now.set(6 * S);
+        utilization.moduleFinished("g:impl");
+        utilization.moduleStarted("g:app", "app");
+        now.set(7 * S);
+        utilization.moduleFinished("g:app");
+
+        BuilderUtilization.Summary summary = utilization.summarize();
+        assertEquals(7 * S, summary.getWallNanos());
+        assertEquals(0, summary.getNanosAtLevel(0));
+        assertEquals(6 * S, summary.getNanosAtLevel(1));
+        assertEquals(1 * S, summary.getNanosAtLevel(2));
+        assertEquals(6 * S, summary.getNanosBelow(2));
+        assertEquals(8.0 / 7, summary.getAverageBusy(), 1e-9);
+        assertEquals(1, summary.percentile(50));
+        assertEquals(2, summary.percentile(100));
+        assertEquals(2, summary.getMaxLevel());
+
+        List<Map.Entry<String, Long>> waited = summary.getWaitedOn();
+        assertEquals(3, waited.size());
+        assertEquals("impl", waited.get(0).getKey());
+        assertEquals(3 * S, waited.get(0).getValue());
+        assertEquals("core", waited.get(1).getKey());
+        assertEquals("app", waited.get(2).getKey());
+    }
+
+    @Test
+    void modulesStillBuildingCountUntilNow() {
+        BuilderUtilization utilization = new BuilderUtilization(4, 0, now::get);
+        now.set(1 * S);
+        utilization.moduleStarted("g:core", "core");
+        now.set(5 * S);
+
+        BuilderUtilization.Summary summary = utilization.summarize();
+        assertEquals(1 * S, summary.getNanosAtLevel(0));
+        assertEquals(4 * S, summary.getNanosAtLevel(1));
+        assertEquals(12 * S, summary.getWaitedOn().get(0).getValue());
+    }
+
+    @Test
+    void fullyBusyThreadsChargeNobody() {
+        BuilderUtilization utilization = new BuilderUtilization(1, 0, now::get);
+        utilization.moduleStarted("g:a", "a");
+        now.set(2 * S);
+        utilization.moduleFinished("g:a");
+
+        BuilderUtilization.Summary summary = utilization.summarize();
+        assertEquals(0, summary.getNanosBelow(1));
+        assertTrue(summary.getWaitedOn().isEmpty());
+    }
+}
@@ -0,0 +1,112 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.*;
+
+class ContentionProfileTest {
+
+    private static final long HOUR = 3_600_000;
+
+    @Test
+    void chargesBlockedAndWaitedTimeToTheRunningMojo() {
+        ThreadMXBean threads = mock(ThreadMXBean.class);
+        ThreadInfo before = threadInfo(100, 40);
+        ThreadInfo after = threadInfo(350, 90);
+        when(threads.getThreadInfo(Thread.currentThread().getId())).thenReturn(before, after);
+        MavenProject core = project("core");
+        MojoExecution compile = MojoProfileTest.mojo("maven-compiler-plugin", "compile", "default-compile", "compile");
+
+        ContentionProfile profile = new ContentionProfile(threads, HOUR);
+        profile.mojoStarted(core, compile);
+        profile.mojoFinished(core, compile);
+        profile.close();
+
+        assertEquals(250, profile.getBlockedMillis());
+        assertEquals(50, profile.getWaitedMillis());
+        List<Map.Entry<String, long[]>> mojos = profile.topMojos();
+        assertEquals("maven-compiler-plugin:compile @ core", mojos.get(0).getKey());
+        assertArrayEquals(new long[]{250, 50}, mojos.get(0).getValue());
+    }
+
+    @Test
+    void restoresMonitoringSettingOnClose() {
+        ThreadMXBean threads = mock(ThreadMXBean.class);
+        when(threads.isThreadContentionMonitoringEnabled()).thenReturn(false);
+
+        ContentionProfile profile = new ContentionProfile(threads, HOUR);
+        verify(threads).setThreadContentionMonitoringEnabled(true);
+        profile.close();
+        verify(threads).setThreadContentionMonitoringEnabled(false);
+    }
+
+    @Test
+    void samplesTheLockABuilderThreadIsBlockedOn() throws Exception {
+        assumeTrue(ManagementFactory.getThreadMXBean().isThreadContentionMonitoringSupported());
+        Object lock = new Object();
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            synchronized (lock) {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+        holder.start();
+        held.await();
+        MavenProject core = project("core");
+        MojoExecution install = MojoProfileTest.mojo("maven-install-plugin", "install", "default-install", "install");
+
+        ContentionProfile profile = ContentionProfile.start(5);
+        profile.mojoStarted(core, install);
+        new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException ignored) {
+            }
+            release.countDown();
+        }).start();
+        synchronized (lock) {
+            profile.mojoFinished(core, install);
+        }
+        profile.close();
+        holder.join();
+
+        assertTrue(profile.getBlockedMillis() >= 100, "blocked " + profile.getBlockedMillis() + "ms");
+        assertTrue(profile.getSamples() > 0);
+        assertEquals("java.lang.Object", profile.topLocks().get(0).getKey());
+    }
+
+    @Test
+    void lockClassDropsIdentityHash() {
+        assertEquals("java.lang.Object", ContentionProfile.lockClass("java.lang.Object@1b6d3586"));
+        assertEquals("plain", ContentionProfile.lockClass("plain"));
+    }
+
+    static ThreadInfo threadInfo(long blockedMillis, long waitedMillis) {
+        ThreadInfo info = mock(ThreadInfo.class);
+        when(info.getBlockedTime()).thenReturn(blockedMillis);
+        when(info.getWaitedTime()).thenReturn(waitedMillis);
+        return info;
+    }
+
+    private static MavenProject project(String artifactId) {
+        MavenProject project = mock(MavenProject.class);
+        when(project.getArtifactId()).thenReturn(artifactId);
+        return project;
+    }
+}
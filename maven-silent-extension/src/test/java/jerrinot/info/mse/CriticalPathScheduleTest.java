@@ -0,0 +1,120 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static jerrinot.info.mse.ReactorFixtures.project;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CriticalPathScheduleTest {
+
+    private static final long S = 1_000_000_000L;
+
+    // reactor order a, b, slow, app; app depends on slow
+    private final MavenProject a = project("a");
+    private final MavenProject b = project("b");
+    private final MavenProject slow = project("slow");
+    private final MavenProject app = project("app");
+    private final ProjectDependencyGraph graph = ReactorFixtures.graph(Arrays.asList(a, b, slow, app));
+
+    CriticalPathScheduleTest() {
+        when(graph.getUpstreamProjects(app, false)).thenReturn(Collections.singletonList(slow));
+        when(graph.getDownstreamProjects(slow, false)).thenReturn(Collections.singletonList(app));
+    }
+
+    @Test
+    void longestRemainingPathStartsFirst() {
+        Map<String, Long> durations = new HashMap<>();
+        durations.put("com.example:a", 1 * S);
+        durations.put("com.example:b", 1 * S);
+        durations.put("com.example:slow", 5 * S);
+        durations.put("com.example:app", 3 * S);
+
+        assertEquals(Arrays.asList(slow, app, a, b), CriticalPathSchedule.order(graph, durations));
+    }
+
+    @Test
+    void planPredictsTheGainFromHistory() {
+        Map<String, Long> history = new HashMap<>();
+        history.put("com.example:a", 1_000L);
+        history.put("com.example:b", 1_000L);
+        history.put("com.example:slow", 5_000L);
+        history.put("com.example:app", 3_000L);
+
+        CriticalPathSchedule schedule = CriticalPathSchedule.plan(graph, history, 2);
+        assertNotNull(schedule);
+        // Maven's order: a and b first, slow from 1s, app from 6s
+        assertEquals(9 * S, schedule.getReactorOrderNanos());
+        assertEquals(8 * S, schedule.getScheduledNanos());
+        assertEquals(4, schedule.getMoved());
+        assertEquals(0, schedule.getUnknown());
+        assertTrue(schedule.isBeneficial());
+    }
+
+    @Test
+    void modulesWithoutHistoryTakeTheAverage() {
+        Map<String, Long> history = new HashMap<>();
+        history.put("com.example:slow", 4_000L);
+        history.put("com.example:app", 2_000L);
+
+        CriticalPathSchedule schedule = CriticalPathSchedule.plan(graph, history, 2);
+        assertEquals(2, schedule.getUnknown());
+        // a and b are assumed to take 3s, longer than app
+        assertEquals(Arrays.asList(slow, a, b, app), schedule.getOrder());
+    }
+
+    @Test
+    void noHistoryMeansNoPlan() {
+        assertNull(CriticalPathSchedule.plan(graph, Collections.emptyMap(), 4));
+    }
+
+    @Test
+    void applyReordersSessionAndGraph() {
+        Map<String, Long> history = new HashMap<>();
+        history.put("com.example:a", 1_000L);
+        history.put("com.example:b", 1_000L);
+        history.put("com.example:slow", 5_000L);
+        history.put("com.example:app", 3_000L);
+        MavenSession session = mock(MavenSession.class);
+        when(session.getProjectDependencyGraph()).thenReturn(graph);
+
+        CriticalPathSchedule.plan(graph, history, 2).apply(session);
+
+        verify(session).setProjects(Arrays.asList(slow, app, a, b));
+        verify(session).setProjectDependencyGraph(argThat(g -> g.getSortedProjects().equals(Arrays.asList(slow, app, a, b))));
+    }
+
+    @Test
+    void orderThatDoesNotHelpIsNotApplied() {
+        // with as many threads as modules, the order cannot matter
+        Map<String, Long> history = Map.of("com.example:slow", 5_000L);
+        MavenSession session = mock(MavenSession.class);
+
+        CriticalPathSchedule schedule = CriticalPathSchedule.plan(graph, history, 4);
+        schedule.apply(session);
+
+        assertFalse(schedule.isBeneficial());
+        verifyNoInteractions(session);
+    }
+
+    @Test
+    void orderedGraphListsDownstreamInScheduleOrder() {
+        MavenProject core = project("core");
+        List<MavenProject> order = Arrays.asList(core, slow, a);
+        ProjectDependencyGraph delegate = ReactorFixtures.graph(Arrays.asList(core, a, slow));
+        when(delegate.getDownstreamProjects(core, false)).thenReturn(Arrays.asList(a, slow));
+
+        OrderedDependencyGraph ordered = new OrderedDependencyGraph(delegate, order);
+        assertEquals(order, ordered.getSortedProjects());
+        assertEquals(Arrays.asList(slow, a), ordered.getDownstreamProjects(core, false));
+    }
+}
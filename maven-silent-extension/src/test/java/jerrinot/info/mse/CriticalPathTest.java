@@ -0,0 +1,64 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static jerrinot.info.mse.ReactorFixtures.graph;
+import static jerrinot.info.mse.ReactorFixtures.project;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CriticalPathTest {
+
+    private static final long S = 1_000_000_000L;
+
+    @Test
+    void followsTheLongestWeightedChain() {
+        // core -> api -> app and core -> slow-lib -> app
+        MavenProject core = project("core");
+        MavenProject api = project("api");
+        MavenProject slowLib = project("slow-lib");
+        MavenProject app = project("app");
+        MavenProject docs = project("docs");
+        ProjectDependencyGraph graph = graph(Arrays.asList(core, api, slowLib, app, docs));
+        when(graph.getUpstreamProjects(api, false)).thenReturn(Collections.singletonList(core));
+        when(graph.getUpstreamProjects(slowLib, false)).thenReturn(Collections.singletonList(core));
+        when(graph.getUpstreamProjects(app, false)).thenReturn(Arrays.asList(api, slowLib));
+
+        Map<String, Long> durations = new HashMap<>();
+        durations.put("com.example:core", 2 * S);
+        durations.put("com.example:api", 1 * S);
+        durations.put("com.example:slow-lib", 5 * S);
+        durations.put("com.example:app", 3 * S);
+        durations.put("com.example:docs", 9 * S);
+
+        CriticalPath path = CriticalPath.compute(graph, durations);
+        assertEquals(Arrays.asList(core, slowLib, app), path.getModules());
+        assertEquals(10 * S, path.getLengthNanos());
+        assertEquals(5 * S, path.getModuleNanos(1));
+    }
+
+    @Test
+    void independentSlowModuleCanBeThePath() {
+        MavenProject core = project("core");
+        MavenProject docs = project("docs");
+        ProjectDependencyGraph graph = graph(Arrays.asList(core, docs));
+        Map<String, Long> durations = new HashMap<>();
+        durations.put("com.example:core", 2 * S);
+        durations.put("com.example:docs", 9 * S);
+
+        assertEquals(Collections.singletonList(docs), CriticalPath.compute(graph, durations).getModules());
+    }
+
+    @Test
+    void noTimingsMeansEmptyPath() {
+        ProjectDependencyGraph graph = graph(Collections.singletonList(project("core")));
+        assertTrue(CriticalPath.compute(graph, Collections.emptyMap()).isEmpty());
+    }
+}
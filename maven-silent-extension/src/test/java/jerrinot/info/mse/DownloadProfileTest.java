@@ -0,0 +1,137 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.project.DefaultDependencyResolutionRequest;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.RequestTrace;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DownloadProfileTest {
+
+    private static final long MS = 1_000_000L;
+
+    static final RemoteRepository CENTRAL = new RemoteRepository.Builder("central", "default",
+            "https://repo.maven.apache.org/maven2").build();
+    static final RemoteRepository MIRROR = new RemoteRepository.Builder("mirror", "default",
+            "https://mirror.example.com/maven2").build();
+
+    private final AtomicLong now = new AtomicLong();
+    private final DownloadProfile downloads = new DownloadProfile(now::get);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void timesDownloadsPerRepositoryAndModule() throws Exception {
+        MavenProject core = project("core");
+        RequestTrace trace = RequestTrace.newChild(null,
+                new DefaultDependencyResolutionRequest(core, mock(RepositorySystemSession.class)));
+        DefaultArtifact guava = new DefaultArtifact("com.google.guava:guava:33.0");
+        DefaultArtifact junit = new DefaultArtifact("junit:junit:4.13");
+        File guavaJar = file("guava.jar", 3 * 1024 * 1024);
+        File junitJar = file("junit.jar", 1024 * 1024);
+
+        // both start at 0 as one batch, so they share the repository's time
+        downloads.onEvent(event(RepositoryEvent.EventType.ARTIFACT_DOWNLOADING, guava, CENTRAL, null, trace));
+        downloads.onEvent(event(RepositoryEvent.EventType.ARTIFACT_DOWNLOADING, junit, CENTRAL, null, trace));
+        now.set(400 * MS);
+        downloads.onEvent(event(RepositoryEvent.EventType.ARTIFACT_DOWNLOADED, junit, CENTRAL, junitJar, trace));
+        now.set(1_000 * MS);
+        downloads.onEvent(event(RepositoryEvent.EventType.ARTIFACT_DOWNLOADED, guava, CENTRAL, guavaJar, trace));
+
+        DownloadProfile.Totals total = downloads.total();
+        assertEquals(2, total.getArtifacts());
+        assertEquals(4 * 1024 * 1024, total.getBytes());
+        assertEquals(1_000 * MS, total.getBusyNanos());
+
+        DownloadProfile.Totals central = downloads.byRepository().get(0);
+        assertEquals("central", central.getName());
+        assertEquals(4.0 * 1024 * 1024, central.getBytesPerSecond(), 1);
+        assertEquals(700 * MS, central.getAverageNanos());
+        assertEquals(1_000 * MS, central.getMaxNanos());
+        assertEquals("core", downloads.byModule().get(0).getName());
+    }
+
+    @Test
+    void failedDownloadsAndThreadModules() throws Exception {
+        DefaultArtifact lib = new DefaultArtifact("com.example:lib:1.0");
+        downloads.projectStarted(project("app"));
+        downloads.onEvent(event(RepositoryEvent.EventType.ARTIFACT_DOWNLOADING, lib, MIRROR, null, null));
+        now.set(50 * MS);
+        RepositoryEvent notFound = new RepositoryEvent.Builder(mock(RepositorySystemSession.class),
+                RepositoryEvent.EventType.ARTIFACT_DOWNLOADED)
+                .setArtifact(lib).setRepository(MIRROR)
+                .setException(new ArtifactNotFoundException(lib, MIRROR))
+                .build();
+        downloads.onEvent(notFound);
+        downloads.onEvent(event(RepositoryEvent.EventType.ARTIFACT_DOWNLOADING, lib, CENTRAL, null, null));
+        now.set(150 * MS);
+        downloads.onEvent(event(RepositoryEvent.EventType.ARTIFACT_DOWNLOADED, lib, CENTRAL, file("lib.jar", 10), null));
+        downloads.projectFinished();
+
+        List<DownloadProfile.Totals> repositories = downloads.byRepository();
+        assertEquals("central", repositories.get(0).getName());
+        assertEquals(1, repositories.get(0).getArtifacts());
+        assertEquals("mirror", repositories.get(1).getName());
+        assertEquals(1, repositories.get(1).getFailed());
+        assertEquals(0, repositories.get(1).getBytes());
+        assertEquals("app", downloads.byModule().get(0).getName());
+    }
+
+    @Test
+    void ignoresEventsOtherThanArtifactDownloads() {
+        downloads.onEvent(event(RepositoryEvent.EventType.ARTIFACT_RESOLVED,
+                new DefaultArtifact("com.example:lib:1.0"), CENTRAL, null, null));
+        downloads.onEvent(event(RepositoryEvent.EventType.ARTIFACT_DOWNLOADED,
+                new DefaultArtifact("com.example:lib:1.0"), CENTRAL, null, null));
+        assertTrue(downloads.isEmpty());
+    }
+
+    @Test
+    void significantOnceDownloadsTakeThreeMinutes() {
+        DefaultArtifact lib = new DefaultArtifact("com.example:lib:1.0");
+        downloads.onEvent(event(RepositoryEvent.EventType.ARTIFACT_DOWNLOADING, lib, CENTRAL, null, null));
+        now.set(DownloadProfile.SIGNIFICANT_NANOS - 1);
+        downloads.onEvent(event(RepositoryEvent.EventType.ARTIFACT_DOWNLOADED, lib, CENTRAL, null, null));
+        assertFalse(downloads.isSignificant());
+
+        DefaultArtifact other = new DefaultArtifact("com.example:other:1.0");
+        downloads.onEvent(event(RepositoryEvent.EventType.ARTIFACT_DOWNLOADING, other, CENTRAL, null, null));
+        now.addAndGet(1);
+        downloads.onEvent(event(RepositoryEvent.EventType.ARTIFACT_DOWNLOADED, other, CENTRAL, null, null));
+        assertTrue(downloads.isSignificant());
+    }
+
+    static RepositoryEvent event(RepositoryEvent.EventType type, DefaultArtifact artifact,
+                                 RemoteRepository repository, File file, RequestTrace trace) {
+        return new RepositoryEvent.Builder(mock(RepositorySystemSession.class), type)
+                .setArtifact(artifact).setRepository(repository).setFile(file).setTrace(trace)
+                .build();
+    }
+
+    private File file(String name, int bytes) throws Exception {
+        Path path = tempDir.resolve(name);
+        Files.write(path, new byte[bytes]);
+        return path.toFile();
+    }
+
+    private static MavenProject project(String artifactId) {
+        MavenProject project = mock(MavenProject.class);
+        when(project.getArtifactId()).thenReturn(artifactId);
+        return project;
+    }
+}
@@ -0,0 +1,77 @@
+package jerrinot.info.mse;
+
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForkProfileTest {
+
+    @Test
+    void jfrArgumentDumpsPerForkRecordingOnExit() {
+        assertEquals("-XX:StartFlightRecording=settings=profile,dumponexit=true,"
+                        + "filename=/tmp/m/target/mse-jfr",
+                ForkProfile.jfrArgument("/tmp/m/target/mse-jfr"));
+        assertEquals(new File("target", "mse-jfr"), ForkProfile.jfrDir(new File("target")));
+    }
+
+    @Test
+    void recordingFilesListsOnlyJfrFiles(@TempDir Path tempDir) throws Exception {
+        Files.writeString(tempDir.resolve("fork-1.jfr"), "");
+        Files.writeString(tempDir.resolve("notes.txt"), "");
+        assertEquals(1, ForkProfile.recordingFiles(tempDir.toFile()).size());
+        assertTrue(ForkProfile.recordingFiles(tempDir.resolve("missing").toFile()).isEmpty());
+    }
+
+    @Test
+    void parseSummarizesGcAndHeap(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("fork-1.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.GarbageCollection");
+            recording.enable("jdk.GCHeapSummary");
+            recording.start();
+            List<byte[]> garbage = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                garbage.add(new byte[64 * 1024]);
+            }
+            garbage.clear();
+            System.gc();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        ForkProfile profile = ForkProfile.parse(Collections.singletonList(file), msg -> fail(msg));
+
+        assertFalse(profile.isEmpty());
+        assertEquals(1, profile.getRecordings());
+        assertTrue(profile.getGcPauses() >= 1, "gc pauses: " + profile.getGcPauses());
+        assertTrue(profile.getPeakHeapBytes() > 0);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new OutputFormatter(new PrintStream(baos, true)).emitForkProfile("core", profile);
+        assertTrue(baos.toString().startsWith("MSE:FORK_PROFILE core forks=1 gc_pauses="), baos.toString());
+    }
+
+    @Test
+    void unreadableRecordingIsReportedAndSkipped(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("fork-1.jfr");
+        Files.writeString(file, "not a recording");
+        List<String> diagnostics = new ArrayList<>();
+
+        ForkProfile profile = ForkProfile.parse(Collections.singletonList(file), diagnostics::add);
+
+        assertTrue(profile.isEmpty());
+        assertEquals(1, diagnostics.size());
+        assertTrue(diagnostics.get(0).contains("fork-1.jfr"));
+    }
+}
@@ -0,0 +1,115 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ForkTuningTest {
+
+    private static final long GB = 1024L * 1024 * 1024;
+
+    @Test
+    void forkCountSplitsCoresAcrossBuilderThreads() {
+        assertEquals(4, ForkTuning.chooseForkCount(32, 8, 64 * GB, -1));
+        assertEquals(32, ForkTuning.chooseForkCount(32, 1, 64 * GB, -1));
+        assertEquals(1, ForkTuning.chooseForkCount(4, 8, 64 * GB, -1));
+    }
+
+    @Test
+    void forkCountIsCappedByAvailableMemory() {
+        // 4 GB across 2 builder threads leaves room for 4 forks of 512 MB each per thread
+        assertEquals(4, ForkTuning.chooseForkCount(32, 2, 4 * GB, -1));
+        assertEquals(1, ForkTuning.chooseForkCount(32, 2, 100L * 1024 * 1024, -1));
+        assertEquals(1, ForkTuning.chooseForkCount(32, 2, -1, -1));
+    }
+
+    @Test
+    void shortTestHistoryKeepsSingleFork() {
+        assertEquals(1, ForkTuning.chooseForkCount(32, 1, 64 * GB, 1_200));
+        assertEquals(32, ForkTuning.chooseForkCount(32, 1, 64 * GB, 90_000));
+    }
+
+    @Test
+    void forkCountConfiguredOnlyWhenNotPropertyDriven() {
+        assertFalse(ForkTuning.isForkCountConfigured(mojoWithForkCount(null)));
+        assertFalse(ForkTuning.isForkCountConfigured(mojoWithForkCount("${forkCount}")));
+        assertTrue(ForkTuning.isForkCountConfigured(mojoWithForkCount("2C")));
+
+        MojoExecution noConfig = mock(MojoExecution.class);
+        assertFalse(ForkTuning.isForkCountConfigured(noConfig));
+    }
+
+    @Test
+    void modulePropertyCountsAsConfigured() {
+        MavenProject plain = projectWithProperties(new Properties());
+        Properties props = new Properties();
+        props.setProperty("forkCount", "2");
+        MavenProject withProperty = projectWithProperties(props);
+
+        assertFalse(ForkTuning.isForkCountConfigured(plain, mojoWithForkCount("${forkCount}")));
+        assertTrue(ForkTuning.isForkCountConfigured(withProperty, mojoWithForkCount("${forkCount}")));
+        assertTrue(ForkTuning.isForkCountConfigured(plain, mojoWithForkCount("3")));
+    }
+
+    @Test
+    void modulePropertiesArePinnedIntoTheMojoConfiguration() {
+        Properties props = new Properties();
+        props.setProperty("forkCount", "2");
+        props.setProperty("reuseForks", "false");
+        MojoExecution propertyDriven = mojoWithForkCount("${forkCount}");
+
+        ForkTuning.keepModuleForkProperties(projectWithProperties(props), propertyDriven);
+
+        assertEquals("2", propertyDriven.getConfiguration().getChild("forkCount").getValue());
+        assertEquals("false", propertyDriven.getConfiguration().getChild("reuseForks").getValue());
+        assertTrue(ForkTuning.isForkCountConfigured(propertyDriven));
+    }
+
+    @Test
+    void explicitConfigurationAndModulesWithoutPropertiesAreLeftAlone() {
+        Properties props = new Properties();
+        props.setProperty("forkCount", "2");
+        MojoExecution explicit = mojoWithForkCount("4");
+        ForkTuning.keepModuleForkProperties(projectWithProperties(props), explicit);
+        assertEquals("4", explicit.getConfiguration().getChild("forkCount").getValue());
+
+        MojoExecution propertyDriven = mojoWithForkCount("${forkCount}");
+        ForkTuning.keepModuleForkProperties(projectWithProperties(new Properties()), propertyDriven);
+        assertEquals("${forkCount}", propertyDriven.getConfiguration().getChild("forkCount").getValue());
+        assertNull(propertyDriven.getConfiguration().getChild("reuseForks"));
+    }
+
+    @Test
+    void speedupComparesSerialTestTimeToWallTime() {
+        ForkTuning tuning = new ForkTuning(4, "true", 32, 8);
+        assertEquals(0, tuning.getSpeedup());
+        tuning.recordTestMojo(30_000, 10_000_000_000L, false);
+        tuning.recordTestMojo(99_000, 1_000_000_000L, true);
+        assertEquals(3.0, tuning.getSpeedup(), 0.001);
+        assertEquals(1, tuning.getPomConfigured());
+    }
+
+    private static MojoExecution mojoWithForkCount(String value) {
+        Xpp3Dom configuration = new Xpp3Dom("configuration");
+        if (value != null) {
+            Xpp3Dom forkCount = new Xpp3Dom("forkCount");
+            forkCount.setValue(value);
+            configuration.addChild(forkCount);
+        }
+        MojoExecution mojo = mock(MojoExecution.class);
+        when(mojo.getConfiguration()).thenReturn(configuration);
+        return mojo;
+    }
+
+    private static MavenProject projectWithProperties(Properties properties) {
+        MavenProject project = mock(MavenProject.class);
+        when(project.getProperties()).thenReturn(properties);
+        return project;
+    }
+}
@@ -0,0 +1,99 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.*;
+
+class ForkUsageTest {
+
+    private static final long S = 1_000_000_000L;
+    private static final long MB = 1024 * 1024;
+
+    private final ForkUsage forks = ForkUsage.manual();
+    private final MojoExecution test = MojoProfileTest.mojo("maven-surefire-plugin", "test", "default-test", "test");
+
+    @Test
+    void accumulatesCpuAndRssPerMojo() {
+        forks.mojoStarted(project("core", "/work/core"), test);
+        forks.observe(Collections.singletonList(new ForkUsage.ProcessSample(10, 0, 1, "/work/core", 1 * S, 200 * MB)));
+        forks.observe(Arrays.asList(
+                new ForkUsage.ProcessSample(10, 0, 1, "/work/core", 3 * S, 300 * MB),
+                new ForkUsage.ProcessSample(11, 0, 1, "/work/core", 1 * S, 250 * MB)));
+        forks.mojoFinished();
+
+        assertEquals(2, forks.getProcesses());
+        assertEquals(4 * S, forks.getCpuNanos());
+        ForkUsage.Entry entry = forks.topEntries().get(0);
+        assertEquals("maven-surefire-plugin:test @ core", entry.getMojo());
+        assertEquals(2, entry.getProcesses());
+        assertEquals(550 * MB, entry.getPeakRssBytes());
+        assertEquals(300 * MB, entry.getMaxProcessRssBytes());
+    }
+
+    @Test
+    void attributesByWorkingDirectoryAndParent() throws Exception {
+        MojoExecution exec = MojoProfileTest.mojo("exec-maven-plugin", "exec", "npm", "compile");
+        forks.mojoStarted(project("core", "/work/core"), test);
+        Thread other = new Thread(() -> forks.mojoStarted(project("web", "/work/web"), exec));
+        other.start();
+        other.join();
+
+        forks.observe(Arrays.asList(
+                new ForkUsage.ProcessSample(20, 0, 1, "/work/web/frontend", 2 * S, -1),
+                new ForkUsage.ProcessSample(21, 0, 20, "/tmp", 1 * S, -1),
+                new ForkUsage.ProcessSample(22, 0, 1, null, 1 * S, -1)));
+
+        List<ForkUsage.Entry> entries = forks.topEntries();
+        assertEquals("exec-maven-plugin:exec @ web", entries.get(0).getMojo());
+        assertEquals(2, entries.get(0).getProcesses());
+        assertEquals(3 * S, entries.get(0).getCpuNanos());
+        assertEquals(ForkUsage.UNATTRIBUTED, entries.get(1).getMojo());
+    }
+
+    @Test
+    void forgetsExitedProcessesAndTellsReusedPidsApart() {
+        forks.mojoStarted(project("core", "/work/core"), test);
+        forks.observe(Collections.singletonList(new ForkUsage.ProcessSample(30, 100, 1, "/work/core", 2 * S, -1)));
+        forks.observe(Collections.singletonList(new ForkUsage.ProcessSample(31, 200, 1, "/work/core", 1 * S, -1)));
+        assertEquals(1, forks.getLiveProcesses());
+
+        // pid 31 again, but a different process that started later
+        forks.observe(Collections.singletonList(new ForkUsage.ProcessSample(31, 300, 1, "/work/core", 1 * S, -1)));
+        forks.mojoFinished();
+
+        assertEquals(3, forks.getProcesses());
+        assertEquals(1, forks.getLiveProcesses());
+        assertEquals(4 * S, forks.getCpuNanos());
+    }
+
+    @Test
+    void seesChildProcessesOfThisJvm() throws Exception {
+        assumeTrue(new File("/proc/self/status").isFile());
+        Process sleep = new ProcessBuilder("sleep", "5").start();
+        try {
+            ForkUsage.ProcessSample child = ForkUsage.descendants().stream()
+                    .filter(p -> p.pid == sleep.pid())
+                    .findFirst().orElseThrow(AssertionError::new);
+            assertEquals(ProcessHandle.current().pid(), child.parentPid);
+            assertTrue(child.rssBytes > 0);
+        } finally {
+            sleep.destroy();
+        }
+    }
+
+    private static MavenProject project(String artifactId, String basedir) {
+        MavenProject project = mock(MavenProject.class);
+        when(project.getArtifactId()).thenReturn(artifactId);
+        when(project.getBasedir()).thenReturn(new File(basedir));
+        return project;
+    }
+}
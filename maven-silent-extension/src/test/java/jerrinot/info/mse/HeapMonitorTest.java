@@ -0,0 +1,98 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HeapMonitorTest {
+
+    private static final long MB = 1024 * 1024;
+
+    private final List<HeapMonitor> warnings = new ArrayList<>();
+    private final HeapMonitor monitor = new HeapMonitor(0.85, 1024 * MB, warnings::add);
+
+    @Test
+    void warnsOnceWhenOldGenStaysAboveThreshold() {
+        monitor.gcFinished(false, 10, 900 * MB, 880 * MB, 880 * MB, 1024 * MB);
+        monitor.gcFinished(false, 10, 950 * MB, 900 * MB, 900 * MB, 1024 * MB);
+        assertTrue(warnings.isEmpty());
+        monitor.gcFinished(true, 400, 1000 * MB, 950 * MB, 950 * MB, 1024 * MB);
+        monitor.gcFinished(true, 400, 1000 * MB, 960 * MB, 960 * MB, 1024 * MB);
+
+        assertEquals(Collections.singletonList(monitor), warnings);
+        assertTrue(monitor.isPressure());
+        assertEquals(4, monitor.getCollections());
+        assertEquals(2, monitor.getMajorCollections());
+        assertEquals(820, monitor.getGcMillis());
+        assertEquals(1000 * MB, monitor.getPeakHeapBytes());
+    }
+
+    @Test
+    void collectionThatFreesTheOldGenResetsTheStreak() {
+        monitor.gcFinished(false, 10, 900 * MB, 900 * MB, 900 * MB, 1024 * MB);
+        monitor.gcFinished(false, 10, 900 * MB, 900 * MB, 900 * MB, 1024 * MB);
+        monitor.gcFinished(true, 200, 900 * MB, 300 * MB, 300 * MB, 1024 * MB);
+        monitor.gcFinished(false, 10, 900 * MB, 900 * MB, 900 * MB, 1024 * MB);
+
+        assertFalse(monitor.isPressure());
+        assertTrue(warnings.isEmpty());
+    }
+
+    @Test
+    void chargesMajorCollectionsToRunningMojos() {
+        MavenProject core = mock(MavenProject.class);
+        when(core.getArtifactId()).thenReturn("core");
+        MojoExecution compile = MojoProfileTest.mojo("maven-compiler-plugin", "compile", "default-compile", "compile");
+
+        monitor.mojoStarted(core, compile);
+        monitor.gcFinished(true, 100, 500 * MB, 200 * MB, 200 * MB, 1024 * MB);
+        monitor.gcFinished(false, 5, 500 * MB, 200 * MB, 200 * MB, 1024 * MB);
+        monitor.mojoFinished();
+        monitor.gcFinished(true, 100, 500 * MB, 200 * MB, 200 * MB, 1024 * MB);
+
+        List<Map.Entry<String, Long>> top = monitor.topMajorGcMojos();
+        assertEquals(1, top.size());
+        assertEquals("maven-compiler-plugin:compile @ core", top.get(0).getKey());
+        assertEquals(1L, top.get(0).getValue());
+    }
+
+    @Test
+    void suggestsHalfAgainTheHeapOrTwiceTheLiveSet() {
+        assertEquals("-Xmx1536m", monitor.suggestedXmx());
+        monitor.gcFinished(true, 100, 1000 * MB, 1000 * MB, 1000 * MB, 1024 * MB);
+        assertEquals("-Xmx2g", monitor.suggestedXmx());
+    }
+
+    @Test
+    void recognizesHotSpotPoolsAndActions() {
+        assertTrue(HeapMonitor.isOldGen("G1 Old Gen"));
+        assertTrue(HeapMonitor.isOldGen("Tenured Gen"));
+        assertFalse(HeapMonitor.isOldGen("G1 Eden Space"));
+        assertTrue(HeapMonitor.isMajor("end of major GC"));
+        assertFalse(HeapMonitor.isMajor("end of minor GC"));
+    }
+
+    @Test
+    void subscribesToThisJvmsCollectors() {
+        HeapMonitor live = HeapMonitor.start(0.85, warnings::add);
+        try {
+            System.gc();
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (live.getCollections() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertTrue(live.getCollections() > 0);
+            assertTrue(live.getPeakHeapBytes() > 0);
+        } finally {
+            live.close();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package jerrinot.info.mse;
+
+import org.eclipse.aether.repository.RemoteRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalsTest {
+
+    @Test
+    void coveredNanosMergesOverlappingIntervals() {
+        List<long[]> intervals = Arrays.asList(new long[]{0, 4}, new long[]{2, 6}, new long[]{8, 20});
+        assertEquals(7, Intervals.coveredNanos(intervals, 1, 10));
+        assertEquals(0, Intervals.coveredNanos(Collections.emptyList(), 0, 10));
+    }
+
+    @Test
+    void unionNanosCountsOverlapsOnce() {
+        List<long[]> intervals = Arrays.asList(new long[]{10, 40}, new long[]{20, 50}, new long[]{70, 80});
+        assertEquals(50, Intervals.unionNanos(intervals));
+        assertEquals(0, Intervals.unionNanos(Collections.emptyList()));
+    }
+
+    @Test
+    void repositoryIdFallsBackForMissingRepository() {
+        RemoteRepository central = new RemoteRepository.Builder("central", "default", "https://repo.example").build();
+        assertEquals("central", Intervals.repositoryId(central));
+        assertEquals("unknown", Intervals.repositoryId(null));
+        assertEquals(Intervals.inFlightKey("a:b:1", central), Intervals.inFlightKey("a:b:1", central));
+        assertNotEquals(Intervals.inFlightKey("a:b:1", central), Intervals.inFlightKey("a:b:1", null));
+    }
+}
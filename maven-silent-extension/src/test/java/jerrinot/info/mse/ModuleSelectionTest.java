@@ -0,0 +1,73 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static jerrinot.info.mse.ReactorFixtures.project;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ModuleSelectionTest {
+
+    @Test
+    void moduleKeyIsGroupAndArtifact() {
+        assertEquals("com.example:core", ModuleSelection.moduleKey(project("core")));
+    }
+
+    @Test
+    void retainTrimsProjectsAndFiltersGraph() {
+        MavenProject core = project("core");
+        MavenProject service = project("service");
+        MavenProject app = project("app");
+        List<MavenProject> all = Arrays.asList(core, service, app);
+        ProjectDependencyGraph graph = mock(ProjectDependencyGraph.class);
+        when(graph.getSortedProjects()).thenReturn(all);
+        when(graph.getUpstreamProjects(app, false)).thenReturn(Arrays.asList(core, service));
+        MavenSession session = mock(MavenSession.class);
+        when(session.getProjects()).thenReturn(all);
+        when(session.getProjectDependencyGraph()).thenReturn(graph);
+
+        Set<MavenProject> kept = ModuleSelection.newProjectSet();
+        kept.add(service);
+        kept.add(app);
+        int skipped = ModuleSelection.retain(session, kept);
+
+        assertEquals(1, skipped);
+        verify(session).setProjects(Arrays.asList(service, app));
+        ArgumentCaptor<ProjectDependencyGraph> captor = ArgumentCaptor.forClass(ProjectDependencyGraph.class);
+        verify(session).setProjectDependencyGraph(captor.capture());
+        ProjectDependencyGraph filtered = captor.getValue();
+        assertEquals(Arrays.asList(service, app), filtered.getSortedProjects());
+        assertEquals(Collections.singletonList(service), filtered.getUpstreamProjects(app, false));
+    }
+
+    @Test
+    void retainNeverEmptiesTheReactor() {
+        MavenProject core = project("core");
+        MavenSession session = mock(MavenSession.class);
+        when(session.getProjects()).thenReturn(Collections.singletonList(core));
+
+        assertEquals(0, ModuleSelection.retain(session, ModuleSelection.newProjectSet()));
+        verify(session, never()).setProjects(any());
+    }
+
+    @Test
+    void retainIsNoOpWhenEverythingIsKept() {
+        MavenProject core = project("core");
+        MavenSession session = mock(MavenSession.class);
+        when(session.getProjects()).thenReturn(Collections.singletonList(core));
+        Set<MavenProject> kept = ModuleSelection.newProjectSet();
+        kept.add(core);
+
+        assertEquals(0, ModuleSelection.retain(session, kept));
+        verify(session, never()).setProjects(any());
+    }
+}
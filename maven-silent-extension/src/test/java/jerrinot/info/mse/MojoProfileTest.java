@@ -0,0 +1,162 @@
+package jerrinot.info.mse;
+
+import jerrinot.info.mse.model.MojoTiming;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static jerrinot.info.mse.ReactorFixtures.project;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MojoProfileTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final MojoProfile profile = new MojoProfile(now::get);
+
+    @Test
+    void recordsDurationAndIdentityOfEachExecution() {
+        MavenProject core = project("core");
+        MojoExecution compile = mojo("maven-compiler-plugin", "compile", "default-compile", "compile");
+
+        profile.mojoStarted(compile);
+        now.set(1_500_000_000L);
+        MojoTiming timing = profile.mojoFinished(core, compile, false);
+
+        assertEquals("com.example:core", timing.getModuleKey());
+        assertEquals("core", timing.getModuleId());
+        assertEquals("maven-compiler-plugin", timing.getPlugin());
+        assertEquals("compile", timing.getGoal());
+        assertEquals("default-compile", timing.getExecutionId());
+        assertEquals("compile", timing.getPhase());
+        assertEquals(1_500_000_000L, timing.getDurationNanos());
+        assertFalse(timing.isFailed());
+    }
+
+    @Test
+    void recordsThreadUsageDeltasWhenMeasured() {
+        ThreadUsage usage = mock(ThreadUsage.class);
+        when(usage.snapshot()).thenReturn(
+                new long[]{100_000_000L, 10L << 20, 3_000},
+                new long[]{900_000_000L, 74L << 20, 3_450});
+        MojoProfile measured = new MojoProfile(now::get, usage);
+        MojoExecution compile = mojo("maven-compiler-plugin", "compile", "default-compile", "compile");
+
+        measured.mojoStarted(compile);
+        MojoTiming timing = measured.mojoFinished(project("core"), compile, false);
+
+        assertEquals(800_000_000L, timing.getCpuNanos());
+        assertEquals(64L << 20, timing.getAllocatedBytes());
+        assertEquals(450, timing.getLoadedClasses());
+    }
+
+    @Test
+    void usageIsUnknownWithoutMeterOrJvmSupport() {
+        MojoExecution compile = mojo("maven-compiler-plugin", "compile", "default-compile", "compile");
+        profile.mojoStarted(compile);
+        MojoTiming timing = profile.mojoFinished(project("core"), compile, false);
+        assertEquals(-1, timing.getCpuNanos());
+        assertEquals(-1, timing.getAllocatedBytes());
+        assertEquals(-1, timing.getLoadedClasses());
+        assertEquals(-1, ThreadUsage.delta(-1, 5));
+    }
+
+    @Test
+    void jvmUsageReportsThisThreadsWork() {
+        long[] before = new ThreadUsage().snapshot();
+        byte[][] garbage = new byte[64][];
+        for (int i = 0; i < garbage.length; i++) garbage[i] = new byte[16 * 1024];
+        long[] after = new ThreadUsage().snapshot();
+        if (before[ThreadUsage.ALLOCATED] >= 0) {
+            assertTrue(after[ThreadUsage.ALLOCATED] - before[ThreadUsage.ALLOCATED] >= 64 * 16 * 1024);
+        }
+        assertTrue(after[ThreadUsage.CLASSES] > 0);
+    }
+
+    @Test
+    void readyTimeIsModuleStartOrPreviousMojoEndOnTheThread() {
+        MavenProject core = project("core");
+        MojoExecution resources = mojo("maven-resources-plugin", "resources", "default-resources", "process-resources");
+        MojoExecution compile = mojo("maven-compiler-plugin", "compile", "default-compile", "compile");
+
+        now.set(1_000);
+        profile.projectStarted();
+        now.set(3_000);
+        profile.mojoStarted(resources);
+        now.set(4_000);
+        MojoTiming first = profile.mojoFinished(core, resources, false);
+        now.set(9_000);
+        profile.mojoStarted(compile);
+        MojoTiming second = profile.mojoFinished(core, compile, false);
+
+        assertEquals(1_000, first.getReadyNanos());
+        assertEquals(3_000, first.getStartNanos());
+        assertEquals(4_000, second.getReadyNanos());
+        assertEquals(9_000, second.getStartNanos());
+    }
+
+    @Test
+    void finishWithoutStartIsIgnored() {
+        assertNull(profile.mojoFinished(project("core"), mojo("p", "g", null, null), true));
+        assertTrue(profile.isEmpty());
+    }
+
+    @Test
+    void aggregatesByPhaseAndPluginAcrossModules() {
+        run(project("core"), mojo("maven-compiler-plugin", "compile", "default-compile", "compile"), 2);
+        run(project("core"), mojo("maven-surefire-plugin", "test", "default-test", "test"), 10);
+        run(project("app"), mojo("maven-compiler-plugin", "compile", "default-compile", "compile"), 3);
+        run(project("app"), mojo("maven-compiler-plugin", "testCompile", "default-testCompile", "test-compile"), 1);
+        run(project("app"), mojo("versions-maven-plugin", "display", null, null), 4);
+
+        assertEquals(20_000_000_000L, profile.getTotalNanos());
+        assertEquals("maven-surefire-plugin", profile.slowest(1).get(0).getPlugin());
+        assertEquals(5, profile.slowest(10).size());
+
+        List<Map.Entry<String, Long>> phases = profile.nanosByPhase();
+        assertEquals("test", phases.get(0).getKey());
+        assertEquals("compile", phases.get(1).getKey());
+        assertEquals(5_000_000_000L, phases.get(1).getValue());
+        assertEquals(MojoProfile.NO_PHASE, phases.get(2).getKey());
+
+        List<Map.Entry<String, Long>> plugins = profile.nanosByPlugin();
+        assertEquals("maven-surefire-plugin", plugins.get(0).getKey());
+        assertEquals("maven-compiler-plugin", plugins.get(1).getKey());
+        assertEquals(6_000_000_000L, plugins.get(1).getValue());
+    }
+
+    @Test
+    void timingsAreOrderedByStart() {
+        MojoExecution first = mojo("a", "a", null, null);
+        MojoExecution second = mojo("b", "b", null, null);
+        profile.mojoStarted(first);
+        now.addAndGet(10);
+        profile.mojoStarted(second);
+        now.addAndGet(10);
+        profile.mojoFinished(project("x"), second, false);
+        profile.mojoFinished(project("x"), first, false);
+
+        List<MojoTiming> timings = profile.getTimings();
+        assertEquals("a", timings.get(0).getPlugin());
+        assertEquals("b", timings.get(1).getPlugin());
+    }
+
+    private void run(MavenProject project, MojoExecution mojo, long seconds) {
+        profile.mojoStarted(mojo);
+        now.addAndGet(seconds * 1_000_000_000L);
+        profile.mojoFinished(project, mojo, false);
+    }
+
+    static MojoExecution mojo(String plugin, String goal, String executionId, String phase) {
+        MojoExecution mojo = mock(MojoExecution.class);
+        when(mojo.getArtifactId()).thenReturn(plugin);
+        when(mojo.getGoal()).thenReturn(goal);
+        when(mojo.getExecutionId()).thenReturn(executionId);
+        when(mojo.getLifecyclePhase()).thenReturn(phase);
+        return mojo;
+    }
+}
@@ -0,0 +1,123 @@
+package jerrinot.info.mse;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OtlpExporterTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String PARENT_ID = "00f067aa0ba902b7";
+
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private HttpServer collector;
+
+    @AfterEach
+    void stopCollector() {
+        if (collector != null) collector.stop(0);
+    }
+
+    @Test
+    void parsesW3cTraceparent() {
+        assertArrayEquals(new String[]{TRACE_ID, PARENT_ID},
+                OtlpExporter.parseTraceparent("00-" + TRACE_ID + "-" + PARENT_ID + "-01"));
+        assertNull(OtlpExporter.parseTraceparent(null));
+        assertNull(OtlpExporter.parseTraceparent("01-" + TRACE_ID + "-" + PARENT_ID + "-01"));
+        assertNull(OtlpExporter.parseTraceparent("00-" + TRACE_ID + "-" + PARENT_ID));
+        assertNull(OtlpExporter.parseTraceparent("00-00000000000000000000000000000000-" + PARENT_ID + "-01"));
+        assertNull(OtlpExporter.parseTraceparent("00-xyz-" + PARENT_ID + "-01"));
+    }
+
+    @Test
+    void randomIdsAreHex() {
+        assertTrue(OtlpExporter.randomHex(16).matches("[0-9a-f]{32}"));
+        assertTrue(OtlpExporter.randomHex(8).matches("[0-9a-f]{16}"));
+    }
+
+    @Test
+    void sendsSpansUnderTheCallersTrace() throws Exception {
+        URI endpoint = startCollector(0);
+        OtlpExporter exporter = new OtlpExporter(endpoint, "maven", "00-" + TRACE_ID + "-" + PARENT_ID + "-01");
+        assertEquals(TRACE_ID, exporter.getTraceId());
+        String moduleSpan = exporter.moduleSpanId("com.example:core");
+        assertEquals(moduleSpan, exporter.moduleSpanId("com.example:core"));
+
+        exporter.span(new OtlpExporter.Span("maven install", "aaaaaaaaaaaaaaaa", PARENT_ID,
+                1_000, 9_000, Map.of("maven.goals", "install"), false));
+        exporter.span(new OtlpExporter.Span("maven-compiler-plugin:compile", "bbbbbbbbbbbbbbbb", moduleSpan,
+                2_000, 3_000, Map.of("maven.plugin", "maven-compiler-plugin"), true));
+        exporter.close(5_000);
+
+        assertEquals(2, exporter.getSent());
+        String all = String.join("\n", bodies);
+        assertTrue(all.contains("{\"key\":\"service.name\",\"value\":{\"stringValue\":\"maven\"}}"), all);
+        assertTrue(all.contains("\"traceId\":\"" + TRACE_ID + "\",\"spanId\":\"aaaaaaaaaaaaaaaa\",\"parentSpanId\":\""
+                + PARENT_ID + "\",\"name\":\"maven install\""), all);
+        assertTrue(all.contains("\"parentSpanId\":\"" + moduleSpan + "\""), all);
+        assertTrue(all.contains("\"startTimeUnixNano\":\"2000\",\"endTimeUnixNano\":\"3000\""), all);
+        assertTrue(all.contains("\"status\":{\"code\":2}"), all);
+    }
+
+    @Test
+    void slowCollectorNeverBlocksCallers() throws Exception {
+        URI endpoint = startCollector(2_000);
+        OtlpExporter exporter = new OtlpExporter(endpoint, "maven", null);
+        int spans = OtlpExporter.QUEUE_CAPACITY + 2 * OtlpExporter.MAX_BATCH;
+        long start = System.nanoTime();
+        for (int i = 0; i < spans; i++) {
+            exporter.span(new OtlpExporter.Span("s" + i, OtlpExporter.randomHex(8), null, 0, 1, Map.of(), false));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        exporter.close(0);
+
+        assertTrue(elapsedMillis < 1_000, "span() took " + elapsedMillis + "ms");
+        assertTrue(exporter.getDropped() > 0);
+    }
+
+    @Test
+    void unreachableCollectorIsReportedNotThrown() throws Exception {
+        URI endpoint = startCollector(0);
+        collector.stop(0);
+        collector = null;
+        OtlpExporter exporter = new OtlpExporter(endpoint, "maven", null);
+        exporter.span(new OtlpExporter.Span("s", OtlpExporter.randomHex(8), null, 0, 1, Map.of(), false));
+        exporter.close(10_000);
+
+        assertEquals(0, exporter.getSent());
+        assertEquals(1, exporter.getFailedBatches());
+        assertNotNull(exporter.getLastError());
+    }
+
+    private URI startCollector(long delayMillis) throws Exception {
+        CountDownLatch never = new CountDownLatch(1);
+        collector = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        collector.createContext("/v1/traces", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                bodies.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            if (delayMillis > 0) {
+                try {
+                    never.await(delayMillis, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        collector.start();
+        return URI.create("http://127.0.0.1:" + collector.getAddress().getPort() + "/v1/traces");
+    }
+}
@@ -1,19 +1,28 @@
 package jerrinot.info.mse;
 
 import jerrinot.info.mse.model.CompilerError;
+import jerrinot.info.mse.model.MojoTiming;
 import jerrinot.info.mse.model.TestFailure;
 import jerrinot.info.mse.model.TestSummary;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 class OutputFormatterTest {
 
@@ -56,6 +65,337 @@ class OutputFormatterTest {
     }
 
     @Test
+    void sessionStartReportsSkippedModules() {
+        formatter.emitSessionStart(3, Collections.singletonList("verify"), 9);
+        assertEquals("MSE:SESSION_START modules=3 goals=verify skipped=9\n", output());
+    }
+
+    @Test
+    void sessionStartOmitsSkippedWhenNotRequested() {
+        formatter.emitSessionStart(3, Collections.singletonList("verify"), -1);
+        assertEquals("MSE:SESSION_START modules=3 goals=verify\n", output());
+    }
+
+    @Test
+    void resumeListsModulesAsProjectList() {
+        formatter.emitResume(Arrays.asList("service", "app"));
+        assertEquals("MSE:RESUME modules=2 pl=:service,:app\n", output());
+    }
+
+    @Test
+    void failFastReportsSkippedModulesAndEstimate() {
+        formatter.emitFailFast(7, 95, Collections.emptyList());
+        assertEquals("MSE:FAIL_FAST skipped=7 saved_est=95s\n", output());
+    }
+
+    @Test
+    void failFastNamesModulesWhoseTestsWereSkipped() {
+        formatter.emitFailFast(0, 0, Arrays.asList("com.example:web", "com.example:api"));
+        assertEquals("MSE:FAIL_FAST skipped=0 saved_est=0s tests_skipped=2\n"
+                + "  tests_skipped com.example:api\n"
+                + "  tests_skipped com.example:web\n", output());
+    }
+
+    @Test
+    void overheadReportsDispatchTotalsAndActivities() {
+        SelfOverhead overhead = new SelfOverhead(-1);
+        SelfOverhead.Measurement dispatch = overhead.begin(SelfOverhead.DISPATCH, null);
+        overhead.end(overhead.begin("parse-test-reports", null));
+        overhead.end(dispatch);
+
+        formatter.emitOverhead(overhead);
+        String result = output();
+        assertTrue(result.startsWith("MSE:OVERHEAD wall="), result);
+        assertTrue(result.contains(" events=1"), result);
+        assertFalse(result.contains("parse_budget="), result);
+        assertFalse(result.contains("degraded"), result);
+        assertTrue(result.contains("\n  parse-test-reports calls=1 wall="), result);
+    }
+
+    @Test
+    void overheadShowsBudgetAndDegradation() {
+        SelfOverhead overhead = new SelfOverhead(0);
+        SelfOverhead.Measurement parse = overhead.begin("parse-test-reports", null);
+        while (!overhead.isOverBudget(parse)) {
+            Thread.onSpinWait();
+        }
+        overhead.end(parse);
+
+        formatter.emitOverhead(overhead);
+        assertTrue(output().contains(" parse_budget=0ms degraded=counts-only"), output());
+    }
+
+    @Test
+    void criticalPathListsModulesWithShareOfWallTime() {
+        MavenProject core = ReactorFixtures.project("core");
+        MavenProject app = ReactorFixtures.project("app");
+        ProjectDependencyGraph graph = mock(ProjectDependencyGraph.class);
+        when(graph.getSortedProjects()).thenReturn(Arrays.asList(core, app));
+        when(graph.getUpstreamProjects(app, false)).thenReturn(Collections.singletonList(core));
+        Map<String, Long> durations = new HashMap<>();
+        durations.put("com.example:core", 3_000_000_000L);
+        durations.put("com.example:app", 5_000_000_000L);
+
+        formatter.emitCriticalPath(CriticalPath.compute(graph, durations), 10_000_000_000L);
+        assertEquals("MSE:CRITICAL_PATH modules=2 length=8.0s wall=10.0s share=80%\n"
+                + "  core 3.0s 30%\n"
+                + "  app 5.0s 50%\n", output());
+    }
+
+    @Test
+    void parallelismListsPredictionsAndMarksCurrentThreads() {
+        MavenProject core = ReactorFixtures.project("core");
+        MavenProject docs = ReactorFixtures.project("docs");
+        ProjectDependencyGraph graph = mock(ProjectDependencyGraph.class);
+        when(graph.getSortedProjects()).thenReturn(Arrays.asList(core, docs));
+        Map<String, Long> durations = new HashMap<>();
+        durations.put("com.example:core", 3_000_000_000L);
+        durations.put("com.example:docs", 2_000_000_000L);
+
+        formatter.emitParallelism(ParallelismAdvice.advise(
+                ReactorSimulation.of(graph, durations), 3_000_000_000L, 8, 1));
+        assertEquals("MSE:PARALLELISM threads=1 cores=8 recommended=-T2 best=3.0s\n"
+                + "  -T1 5.0s current\n"
+                + "  -T2 3.0s\n", output());
+    }
+
+    @Test
+    void utilizationShowsBusyLevelsAndWaitedOnModules() {
+        AtomicLong now = new AtomicLong();
+        BuilderUtilization utilization = new BuilderUtilization(2, 0, now::get);
+        utilization.moduleStarted("g:core", "core");
+        now.set(3_000_000_000L);
+        utilization.moduleFinished("g:core");
+        utilization.moduleStarted("g:api", "api");
+        utilization.moduleStarted("g:impl", "impl");
+        now.set(4_000_000_000L);
+        utilization.moduleFinished("g:api");
+        utilization.moduleFinished("g:impl");
+
+        formatter.emitUtilization(utilization.summarize());
+        assertEquals("MSE:UTILIZATION threads=2 avg=1.3 p50=1 p90=2 max=2 underused=3.0s share=75% bottleneck=reactor\n"
+                + "  busy 0 0.0s 0%\n"
+                + "  busy 1 3.0s 75%\n"
+                + "  busy 2 1.0s 25%\n"
+                + "  waited_on core idle=3.0s\n", output());
+    }
+
+    @Test
+    void scheduleReportsPredictionAndGainOverPreviousBuild() {
+        formatter.emitSchedule(null, 5_000_000_000L, -1);
+        assertEquals("MSE:SCHEDULE order=reactor history=none wall=5.0s\n", output());
+        baos.reset();
+
+        MavenProject a = ReactorFixtures.project("a");
+        MavenProject slow = ReactorFixtures.project("slow");
+        ProjectDependencyGraph graph = mock(ProjectDependencyGraph.class);
+        when(graph.getSortedProjects()).thenReturn(Arrays.asList(a, slow));
+        Map<String, Long> history = new HashMap<>();
+        history.put("com.example:a", 1_000L);
+        history.put("com.example:slow", 5_000L);
+
+        formatter.emitSchedule(CriticalPathSchedule.plan(graph, history, 1), 5_500_000_000L, 6_000);
+        assertEquals("MSE:SCHEDULE order=reactor moved=0 unknown=0 predicted=6.0s reactor_order=6.0s"
+                + " wall=5.5s previous_wall=6.0s gained=0.5s\n", output());
+    }
+
+    @Test
+    void unsafeMojosListKindAndCost() {
+        MojoTiming aggregator = MojoTiming.builder("com.example:dist", "dist", "maven-assembly-plugin", "single")
+                .executionId("make").phase("package").threadId(1)
+                .span(0, 2_000_000_000L).build();
+        MojoTiming waiting = MojoTiming.builder("com.example:core", "core", "maven-jar-plugin", "jar")
+                .executionId("default-jar").phase("package").threadId(2)
+                .readyNanos(500_000_000L).span(2_000_000_000L, 2_100_000_000L).build();
+        UnsafeMojos unsafe = new UnsafeMojos(true);
+        unsafe.record(aggregator, UnsafeMojos.Kind.AGGREGATOR, "3.6.0");
+
+        formatter.emitUnsafeMojos(unsafe.summarize(Arrays.asList(aggregator, waiting)));
+        assertEquals("MSE:UNSAFE_MOJO mojos=1 held=2.0s blocked=1.5s overlapped=0.0s\n"
+                + "  maven-assembly-plugin:3.6.0:single aggregator executions=1 held=2.0s blocked=1.5s overlapped=0.0s\n",
+                output());
+    }
+
+    @Test
+    void contentionListsMojosByBlockedTime() {
+        java.lang.management.ThreadMXBean threads = mock(java.lang.management.ThreadMXBean.class);
+        java.lang.management.ThreadInfo before = ContentionProfileTest.threadInfo(0, 0);
+        java.lang.management.ThreadInfo after = ContentionProfileTest.threadInfo(120, 30);
+        when(threads.getThreadInfo(Thread.currentThread().getId())).thenReturn(before, after);
+        MavenProject core = mock(MavenProject.class);
+        when(core.getArtifactId()).thenReturn("core");
+        MojoExecution jar = MojoProfileTest.mojo("maven-jar-plugin", "jar", "default-jar", "package");
+        ContentionProfile contention = new ContentionProfile(threads, 3_600_000);
+        contention.mojoStarted(core, jar);
+        contention.mojoFinished(core, jar);
+        contention.close();
+
+        formatter.emitContention(contention);
+        assertEquals("MSE:CONTENTION blocked=120ms waited=30ms samples=0 interval=3600000ms\n"
+                + "  mojo maven-jar-plugin:jar @ core blocked=120ms waited=30ms\n", output());
+    }
+
+    @Test
+    void profileShowsCpuAllocationAndClassLoadingWhenMeasured() {
+        AtomicLong now = new AtomicLong();
+        ThreadUsage usage = mock(ThreadUsage.class);
+        when(usage.snapshot()).thenReturn(new long[]{0, 0, 1_000}, new long[]{1_800_000_000L, 512L << 20, 1_320});
+        MojoProfile profile = new MojoProfile(now::get, usage);
+        MavenProject core = mock(MavenProject.class);
+        when(core.getArtifactId()).thenReturn("core");
+        MojoExecution compile = MojoProfileTest.mojo("maven-compiler-plugin", "compile", "default-compile", "compile");
+        profile.mojoStarted(compile);
+        now.set(2_000_000_000L);
+        profile.mojoFinished(core, compile, false);
+
+        formatter.emitProfile(profile);
+        assertTrue(output().contains("  mojo 2.0s maven-compiler-plugin:compile @ core cpu=1.8s alloc_mb=512 classes=320\n"));
+    }
+
+    @Test
+    void heapPressureSuggestsMavenOpts() {
+        long mb = 1024 * 1024;
+        HeapMonitor heap = new HeapMonitor(0.85, 1024 * mb, formatter::emitHeapPressure);
+        for (int i = 0; i < HeapMonitor.PRESSURE_GCS; i++) {
+            heap.gcFinished(true, 300, 1000 * mb, 940 * mb, 940 * mb, 1000 * mb);
+        }
+        assertEquals("MSE:HEAP_PRESSURE old_gen=94% threshold=85% max_mb=1024 suggest=MAVEN_OPTS=\"-Xmx2g\"\n",
+                output());
+    }
+
+    @Test
+    void heapSummaryShowsGcShare() {
+        long mb = 1024 * 1024;
+        HeapMonitor heap = new HeapMonitor(0.85, 1024 * mb, h -> { });
+        heap.gcFinished(false, 200, 600 * mb, 200 * mb, 150 * mb, 1024 * mb);
+        heap.gcFinished(true, 800, 700 * mb, 300 * mb, 300 * mb, 1024 * mb);
+
+        formatter.emitHeap(heap, 20_000_000_000L);
+        assertEquals("MSE:HEAP peak_mb=700 max_mb=1024 gcs=2 major=1 gc_time=1.0s gc_share=5%\n", output());
+    }
+
+    @Test
+    void samplesLineNamesFileAndOverhead() {
+        StackSampler sampler = new StackSampler(mock(java.lang.management.ThreadMXBean.class), 3_600_000);
+        sampler.close();
+        File file = new File("/tmp/project/target/mse-profile.collapsed");
+
+        formatter.emitSamples(file, sampler);
+        assertEquals("MSE:SAMPLES " + file.getAbsolutePath()
+                + " samples=0 stacks=0 interval=3600000ms overhead_wall=0ms overhead_cpu=n/a\n", output());
+    }
+
+    @Test
+    void forkUsageListsMojosByForkCpu() {
+        long mb = 1024 * 1024;
+        ForkUsage forks = ForkUsage.manual();
+        MavenProject core = mock(MavenProject.class);
+        when(core.getArtifactId()).thenReturn("core");
+        forks.mojoStarted(core, MojoProfileTest.mojo("maven-surefire-plugin", "test", "default-test", "test"));
+        forks.observe(Collections.singletonList(new ForkUsage.ProcessSample(10, 0, 1, null, 12_300_000_000L, 640 * mb)));
+        forks.close();
+
+        formatter.emitForkUsage(forks);
+        assertEquals("MSE:FORK_USAGE processes=1 cpu=12.3s polls=1 interval=500ms\n"
+                + "  maven-surefire-plugin:test @ core processes=1 cpu=12.3s peak_rss_mb=640 max_process_rss_mb=640\n",
+                output());
+    }
+
+    @Test
+    void oversubscriptionListsPeriodsAndSuggestion() {
+        AtomicLong now = new AtomicLong();
+        Oversubscription load = new Oversubscription(4, 2, 4, true, 0, 1_000, now::get, false);
+        MavenProject core = mock(MavenProject.class);
+        when(core.getArtifactId()).thenReturn("core");
+        load.mojoStarted(core, MojoProfileTest.mojo("maven-surefire-plugin", "test", "default-test", "test"));
+        now.set(5_000_000_000L);
+        load.sample(16, 1.0);
+        now.set(6_000_000_000L);
+        load.sample(12, 0.9);
+
+        formatter.emitOversubscribed(load);
+        assertEquals("MSE:OVERSUBSCRIBED cores=4 peak_runnable=16 periods=1 time=2.0s threads=2 forks=4"
+                + " parallel_tests=yes suggest=-DforkCount=1\n"
+                + "  period at=4.0s duration=2.0s peak_runnable=16 cpu=95% mojos=maven-surefire-plugin:test @ core\n",
+                output());
+    }
+
+    @Test
+    void bootstrapListsPhasesAndHint() {
+        BootstrapTimes bootstrap = new BootstrapTimes(0, 400);
+        bootstrap.initialized(700);
+        bootstrap.discoveryStarted(800);
+        bootstrap.sessionStarted(2_000);
+        bootstrap.sessionConfigured(2_100);
+        bootstrap.mojoStarted(3_500);
+
+        formatter.emitBootstrap(bootstrap);
+        assertEquals("MSE:BOOTSTRAP total=3.5s startup=0.4s init=0.3s setup=0.1s model=1.2s mse=0.1s plugins=1.4s"
+                + " hint=mvnd\n", output());
+    }
+
+    @Test
+    void downloadsListRepositoriesAndModules() {
+        AtomicLong now = new AtomicLong();
+        DownloadProfile downloads = new DownloadProfile(now::get);
+        org.eclipse.aether.artifact.DefaultArtifact lib =
+                new org.eclipse.aether.artifact.DefaultArtifact("com.example:lib:1.0");
+        downloads.onEvent(DownloadProfileTest.event(org.eclipse.aether.RepositoryEvent.EventType.ARTIFACT_DOWNLOADING,
+                lib, DownloadProfileTest.CENTRAL, null, null));
+        now.set(250_000_000L);
+        downloads.onEvent(DownloadProfileTest.event(org.eclipse.aether.RepositoryEvent.EventType.ARTIFACT_DOWNLOADED,
+                lib, DownloadProfileTest.CENTRAL, null, null));
+
+        formatter.emitDownloads(downloads);
+        assertEquals("MSE:DOWNLOADS artifacts=1 failed=0 mb=0.0 time=0.3s\n"
+                + "  repo central artifacts=1 failed=0 mb=0.0 time=0.3s throughput=0.0MB/s avg=250ms max=250ms\n"
+                + "  module none artifacts=1 mb=0.0 time=0.3s\n", output());
+    }
+
+    @Test
+    void resolutionListsModulesAndRepositoriesWithOfflineHint() {
+        AtomicLong now = new AtomicLong();
+        ResolutionProfile resolution = new ResolutionProfile(now::get);
+        resolution.onEvent(ResolutionProfileTest.metadataEvent(org.eclipse.aether.RepositoryEvent.EventType.METADATA_DOWNLOADING,
+                ResolutionProfileTest.SNAPSHOT_METADATA, ResolutionProfileTest.SNAPSHOTS, null));
+        now.set(1_500_000_000L);
+        resolution.onEvent(ResolutionProfileTest.metadataEvent(org.eclipse.aether.RepositoryEvent.EventType.METADATA_DOWNLOADED,
+                ResolutionProfileTest.SNAPSHOT_METADATA, ResolutionProfileTest.SNAPSHOTS, null));
+
+        formatter.emitResolution(resolution);
+        formatter.emitOfflineHint(resolution);
+        assertEquals("MSE:RESOLUTION resolutions=0 time=0.0s artifacts=0 repeated=0 repeated_resolutions=0"
+                + " metadata=0 round_trips=1 round_trip_time=1.5s\n"
+                + "  module none resolutions=0 time=0.0s round_trips=1 round_trip_time=1.5s\n"
+                + "  repo snapshots round_trips=1 time=1.5s\n"
+                + "MSE:OFFLINE_HINT saved=1.5s round_trips=1 suggest=-o,updatePolicy=daily\n", output());
+    }
+
+    @Test
+    void profileListsSlowestMojosPhasesAndPlugins() {
+        AtomicLong now = new AtomicLong();
+        MojoProfile profile = new MojoProfile(now::get);
+        MavenProject core = mock(MavenProject.class);
+        when(core.getArtifactId()).thenReturn("core");
+        MojoExecution test = MojoProfileTest.mojo("maven-surefire-plugin", "test", "default-test", "test");
+        MojoExecution it = MojoProfileTest.mojo("maven-failsafe-plugin", "integration-test", "it", "integration-test");
+        profile.mojoStarted(test);
+        now.set(2_500_000_000L);
+        profile.mojoFinished(core, test, false);
+        profile.mojoStarted(it);
+        now.set(3_000_000_000L);
+        profile.mojoFinished(core, it, false);
+
+        formatter.emitProfile(profile);
+        assertEquals("MSE:PROFILE mojos=2 mojo_time=3.0s\n"
+                + "  mojo 2.5s maven-surefire-plugin:test @ core\n"
+                + "  mojo 0.5s maven-failsafe-plugin:integration-test (it) @ core\n"
+                + "  phase 2.5s test\n"
+                + "  phase 0.5s integration-test\n"
+                + "  plugin 2.5s maven-surefire-plugin\n"
+                + "  plugin 0.5s maven-failsafe-plugin\n", output());
+    }
+
     void ok() {
         BuildState state = new BuildState(3, System.currentTimeMillis() - 10000);
         state.accumulateTests(new TestSummary(50, 0, 0, 2, Collections.<TestFailure>emptyList()));
@@ -0,0 +1,95 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OversubscriptionTest {
+
+    private static final long S = 1_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void mergesConsecutiveHighSamplesIntoPeriods() {
+        Oversubscription load = new Oversubscription(4, 4, 2, false, 0, 1_000, now::get, false);
+        MavenProject core = mock(MavenProject.class);
+        when(core.getArtifactId()).thenReturn("core");
+        MojoExecution test = MojoProfileTest.mojo("maven-surefire-plugin", "test", "default-test", "test");
+
+        sample(load, 1, 4, 0.5);
+        load.mojoStarted(core, test);
+        sample(load, 2, 12, 1.0);
+        sample(load, 3, 16, 0.9);
+        load.mojoFinished();
+        sample(load, 4, 3, 0.4);
+        sample(load, 6, 30, -1);
+        sample(load, 7, 4, -1);
+        sample(load, 9, 9, -1);
+        sample(load, 10, 9, -1);
+
+        assertTrue(load.isOversubscribed());
+        assertEquals(2, load.getPeriodCount());
+        assertEquals(30, load.getPeakRunnable());
+        assertEquals(4 * S, load.getOversubscribedNanos());
+        List<Oversubscription.Period> periods = load.topPeriods();
+        Oversubscription.Period first = periods.get(0);
+        assertEquals(1 * S, first.getStartNanos());
+        assertEquals(2 * S, first.getDurationNanos());
+        assertEquals(0.95, first.getCpuLoad(), 1e-9);
+        assertEquals(Collections.singletonList("maven-surefire-plugin:test @ core"), List.copyOf(first.getMojos()));
+        assertEquals(-1, periods.get(1).getCpuLoad());
+    }
+
+    @Test
+    void suggestsFewerForksBeforeFewerThreads() {
+        Oversubscription forks = new Oversubscription(8, 4, 4, false, 0, 1_000, now::get, false);
+        sample(forks, 1, 32, -1);
+        sample(forks, 2, 32, -1);
+        assertEquals("-DforkCount=1", forks.suggestion());
+
+        Oversubscription threads = new Oversubscription(8, 8, 1, false, 0, 1_000, now::get, false);
+        sample(threads, 1, 24, -1);
+        sample(threads, 2, 24, -1);
+        assertEquals("-T2", threads.suggestion());
+
+        Oversubscription inside = new Oversubscription(8, 1, 1, true, 0, 1_000, now::get, false);
+        sample(inside, 1, 40, -1);
+        sample(inside, 2, 40, -1);
+        assertNull(inside.suggestion());
+    }
+
+    @Test
+    void parsesForkCount() {
+        assertEquals(1, Oversubscription.parseForkCount(null, 8));
+        assertEquals(3, Oversubscription.parseForkCount("3", 8));
+        assertEquals(12, Oversubscription.parseForkCount("1.5C", 8));
+        assertEquals(1, Oversubscription.parseForkCount("${forks}", 8));
+    }
+
+    @Test
+    void readsProcsRunningAndNothingElse(@TempDir Path tempDir) throws Exception {
+        Path stat = Files.writeString(tempDir.resolve("stat"),
+                "cpu  10 0 5 100 0 0 0 0 0 0\nprocs_running 7\nprocs_blocked 0\n");
+        assertEquals(7, Oversubscription.runnableThreads(stat.toFile()));
+
+        Path noProcs = Files.writeString(tempDir.resolve("other"), "cpu  10 0 5 100 0 0 0 0 0 0\n");
+        assertEquals(-1, Oversubscription.runnableThreads(noProcs.toFile()));
+        assertEquals(-1, Oversubscription.runnableThreads(tempDir.resolve("missing").toFile()));
+    }
+
+    private void sample(Oversubscription load, long second, double runnable, double cpuLoad) {
+        now.set(second * S);
+        load.sample(runnable, cpuLoad);
+    }
+}
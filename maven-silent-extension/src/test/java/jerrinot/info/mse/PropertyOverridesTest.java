@@ -0,0 +1,50 @@
+package jerrinot.info.mse;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PropertyOverridesTest {
+
+    @Test
+    void restoreRevertsChangedAndAddedKeys() {
+        Properties props = new Properties();
+        props.setProperty("existing", "user");
+        PropertyOverrides overrides = new PropertyOverrides(props);
+
+        overrides.set("existing", "mse");
+        overrides.set("existing", "mse-again");
+        overrides.set("added", "mse");
+        assertEquals("mse-again", props.getProperty("existing"));
+
+        overrides.restore();
+        assertEquals("user", props.getProperty("existing"));
+        assertFalse(props.containsKey("added"));
+    }
+
+    @Test
+    void setIfAbsentKeepsUserValues() {
+        Properties props = new Properties();
+        props.setProperty("forkCount", "2");
+        PropertyOverrides overrides = new PropertyOverrides(props);
+
+        assertFalse(overrides.setIfAbsent("forkCount", "8"));
+        assertTrue(overrides.setIfAbsent("reuseForks", "true"));
+        assertEquals("2", props.getProperty("forkCount"));
+        assertEquals("true", props.getProperty("reuseForks"));
+
+        overrides.restore();
+        assertEquals("2", props.getProperty("forkCount"));
+        assertFalse(props.containsKey("reuseForks"));
+    }
+
+    @Test
+    void nullTargetIsIgnored() {
+        PropertyOverrides overrides = new PropertyOverrides(null);
+        overrides.set("a", "b");
+        assertFalse(overrides.setIfAbsent("a", "b"));
+        overrides.restore();
+    }
+}
@@ -0,0 +1,33 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Mocked reactor modules and dependency graphs shared by the module selection, resume and
+ * scheduling tests.
+ */
+final class ReactorFixtures {
+
+    private ReactorFixtures() {
+    }
+
+    /** A module {@code com.example:<artifactId>}. */
+    static MavenProject project(String artifactId) {
+        MavenProject project = mock(MavenProject.class);
+        when(project.getGroupId()).thenReturn("com.example");
+        when(project.getArtifactId()).thenReturn(artifactId);
+        return project;
+    }
+
+    /** A graph that only knows the reactor order; stub up- and downstream projects as needed. */
+    static ProjectDependencyGraph graph(List<MavenProject> sorted) {
+        ProjectDependencyGraph graph = mock(ProjectDependencyGraph.class);
+        when(graph.getSortedProjects()).thenReturn(sorted);
+        return graph;
+    }
+}
@@ -0,0 +1,105 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static jerrinot.info.mse.ReactorFixtures.graph;
+import static jerrinot.info.mse.ReactorFixtures.project;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReactorSimulationTest {
+
+    private static final long S = 1_000_000_000L;
+
+    @Test
+    void singleThreadRunsModulesBackToBack() {
+        ReactorSimulation simulation = ReactorSimulation.of(diamond(), diamondDurations());
+        assertEquals(11 * S, simulation.getSerialNanos());
+        assertEquals(11 * S, simulation.wallNanos(1));
+    }
+
+    @Test
+    void enoughThreadsReachTheCriticalPath() {
+        ProjectDependencyGraph graph = diamond();
+        Map<String, Long> durations = diamondDurations();
+        ReactorSimulation simulation = ReactorSimulation.of(graph, durations);
+        assertEquals(CriticalPath.compute(graph, durations).getLengthNanos(), simulation.wallNanos(2));
+        assertEquals(10 * S, simulation.wallNanos(8));
+    }
+
+    @Test
+    void readyModulesStartInQueueOrder() {
+        // three independent modules, two threads: the third waits for the shorter of the first two
+        MavenProject a = project("a");
+        MavenProject b = project("b");
+        MavenProject c = project("c");
+        ProjectDependencyGraph graph = graph(Arrays.asList(a, b, c));
+        Map<String, Long> durations = new HashMap<>();
+        durations.put("com.example:a", 4 * S);
+        durations.put("com.example:b", 1 * S);
+        durations.put("com.example:c", 2 * S);
+
+        ReactorSimulation simulation = ReactorSimulation.of(graph, durations);
+        assertArrayEquals(new long[]{0, 0, S}, simulation.startNanos(2));
+        assertEquals(4 * S, simulation.wallNanos(2));
+    }
+
+    @Test
+    void upstreamOutsideTheReactorDoesNotBlock() {
+        MavenProject excluded = project("excluded");
+        MavenProject app = project("app");
+        ProjectDependencyGraph graph = graph(Collections.singletonList(app));
+        when(graph.getUpstreamProjects(app, false)).thenReturn(Collections.singletonList(excluded));
+
+        assertEquals(3 * S, ReactorSimulation.of(graph, Map.of("com.example:app", 3 * S)).wallNanos(1));
+    }
+
+    @Test
+    void adviceRecommendsFewestThreadsNearTheFastest() {
+        ReactorSimulation simulation = ReactorSimulation.of(diamond(), diamondDurations());
+        ParallelismAdvice advice = ParallelismAdvice.advise(simulation, 10 * S, 16, 1);
+
+        assertEquals(Arrays.asList(1, 2, 4), advice.getCandidates());
+        assertEquals(11 * S, advice.getPredictedNanos(0));
+        assertEquals(10 * S, advice.getPredictedNanos(1));
+        assertEquals(2, advice.getRecommended());
+        assertEquals(10 * S, advice.getBestNanos());
+    }
+
+    @Test
+    void candidatesIncludeCoresAndCurrentThreads() {
+        assertEquals(Arrays.asList(1, 2, 4, 6), List.copyOf(ParallelismAdvice.candidateThreads(6, 1, 100)));
+        assertEquals(Arrays.asList(1, 2, 4, 6, 12), List.copyOf(ParallelismAdvice.candidateThreads(6, 12, 100)));
+        assertEquals(Arrays.asList(1, 2, 3), List.copyOf(ParallelismAdvice.candidateThreads(8, 1, 3)));
+    }
+
+    /** core, then api (1s) and impl (5s) in parallel, then app (3s); core takes 2s. */
+    private static ProjectDependencyGraph diamond() {
+        MavenProject core = project("core");
+        MavenProject api = project("api");
+        MavenProject impl = project("impl");
+        MavenProject app = project("app");
+        ProjectDependencyGraph graph = graph(Arrays.asList(core, api, impl, app));
+        when(graph.getUpstreamProjects(api, false)).thenReturn(Collections.singletonList(core));
+        when(graph.getUpstreamProjects(impl, false)).thenReturn(Collections.singletonList(core));
+        when(graph.getUpstreamProjects(app, false)).thenReturn(Arrays.asList(api, impl));
+        return graph;
+    }
+
+    private static Map<String, Long> diamondDurations() {
+        Map<String, Long> durations = new HashMap<>();
+        durations.put("com.example:core", 2 * S);
+        durations.put("com.example:api", 1 * S);
+        durations.put("com.example:impl", 5 * S);
+        durations.put("com.example:app", 3 * S);
+        return durations;
+    }
+}
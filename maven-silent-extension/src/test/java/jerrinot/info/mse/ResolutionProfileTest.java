@@ -0,0 +1,201 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.project.DefaultDependencyResolutionRequest;
+import org.apache.maven.project.DependencyResolutionResult;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.RequestTrace;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.metadata.DefaultMetadata;
+import org.eclipse.aether.metadata.Metadata;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.LocalRepositoryManager;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ResolutionProfileTest {
+
+    private static final long MS = 1_000_000L;
+
+    static final Metadata SNAPSHOT_METADATA = new DefaultMetadata("com.example", "lib", "1.0-SNAPSHOT",
+            "maven-metadata.xml", Metadata.Nature.SNAPSHOT);
+    static final RemoteRepository SNAPSHOTS = new RemoteRepository.Builder("snapshots", "default",
+            "https://repo.example.com/snapshots")
+            .setSnapshotPolicy(new RepositoryPolicy(true, RepositoryPolicy.UPDATE_POLICY_ALWAYS,
+                    RepositoryPolicy.CHECKSUM_POLICY_WARN))
+            .build();
+
+    private final AtomicLong now = new AtomicLong();
+    private final ResolutionProfile resolution = new ResolutionProfile(now::get);
+
+    @Test
+    void timesResolutionAndRoundTripsPerModule() {
+        DefaultDependencyResolutionRequest coreRequest = request("core");
+        RequestTrace coreTrace = RequestTrace.newChild(null, coreRequest);
+
+        resolution.requested(coreRequest);
+        roundTrip(SNAPSHOT_METADATA, SNAPSHOTS, coreTrace, 100 * MS, 700 * MS);
+        now.set(1_000 * MS);
+        resolution.resolved(mock(DependencyResolutionResult.class));
+
+        DefaultDependencyResolutionRequest appRequest = request("app");
+        resolution.requested(appRequest);
+        now.set(1_200 * MS);
+        resolution.resolved(mock(DependencyResolutionResult.class));
+
+        assertEquals(2, resolution.getResolutions());
+        assertEquals(1_200 * MS, resolution.getResolutionNanos());
+        assertEquals(1, resolution.getRoundTrips());
+        assertEquals(600 * MS, resolution.getRoundTripNanos());
+
+        List<ResolutionProfile.Totals> modules = resolution.byModule();
+        assertEquals("core", modules.get(0).getName());
+        assertEquals(1_000 * MS, modules.get(0).getResolutionNanos());
+        assertEquals(1, modules.get(0).getRoundTrips());
+        assertEquals("app", modules.get(1).getName());
+        assertEquals(0, modules.get(1).getRoundTrips());
+        assertEquals("snapshots", resolution.byRepository().get(0).getName());
+    }
+
+    @Test
+    void countsArtifactsResolvedBySeveralModules() {
+        RequestTrace core = RequestTrace.newChild(null, request("core"));
+        RequestTrace app = RequestTrace.newChild(null, request("app"));
+        DefaultArtifact guava = new DefaultArtifact("com.google.guava:guava:33.0");
+        DefaultArtifact junit = new DefaultArtifact("junit:junit:4.13");
+        File jar = new File("lib.jar");
+
+        resolution.onEvent(resolved(guava, jar, core));
+        resolution.onEvent(resolved(guava, jar, app));
+        resolution.onEvent(resolved(junit, jar, core));
+        resolution.onEvent(resolved(junit, jar, core));
+        // outside dependency resolution, e.g. a plugin, so no module
+        resolution.onEvent(resolved(junit, jar, null));
+
+        assertEquals(2, resolution.getArtifacts());
+        assertEquals(1, resolution.getRepeatedArtifacts());
+        assertEquals(1, resolution.getRepeatedResolutions());
+    }
+
+    @Test
+    void suggestsOfflineWhenEverythingWasLocal() {
+        roundTrip(SNAPSHOT_METADATA, SNAPSHOTS, null, 0, 1_500 * MS);
+
+        assertTrue(resolution.isAllLocal());
+        assertTrue(resolution.isOfflineHint());
+        assertTrue(resolution.hasAlwaysUpdatePolicy());
+        assertEquals(DownloadProfile.NO_MODULE, resolution.byModule().get(0).getName());
+    }
+
+    @Test
+    void noHintForShortRoundTripsOrDownloads() {
+        roundTrip(SNAPSHOT_METADATA, DownloadProfileTest.CENTRAL, null, 0, 200 * MS);
+        assertTrue(resolution.isAllLocal());
+        assertFalse(resolution.isOfflineHint());
+        assertFalse(resolution.hasAlwaysUpdatePolicy());
+
+        roundTrip(SNAPSHOT_METADATA, DownloadProfileTest.CENTRAL, null, 200 * MS, 2_000 * MS);
+        resolution.onEvent(DownloadProfileTest.event(RepositoryEvent.EventType.ARTIFACT_DOWNLOADING,
+                new DefaultArtifact("com.example:lib:1.0-SNAPSHOT"), DownloadProfileTest.CENTRAL, null, null));
+        assertFalse(resolution.isAllLocal());
+        assertFalse(resolution.isOfflineHint());
+    }
+
+    @Test
+    void roundTripThatChangedAVersionIsNotLocal(@TempDir Path tempDir) throws Exception {
+        Path local = tempDir.resolve("maven-metadata-snapshots.xml");
+        RepositorySystemSession session = sessionWithLocalRepository(tempDir, local);
+
+        Files.writeString(local, snapshotMetadata("20240101.120000", "1", "20240101120000"));
+        roundTrip(session, local, snapshotMetadata("20240101.120000", "1", "20240301090000"));
+        assertEquals(0, resolution.getVersionChanges());
+        assertTrue(resolution.isAllLocal());
+
+        roundTrip(session, local, snapshotMetadata("20240302.080000", "2", "20240302080000"));
+        assertEquals(1, resolution.getVersionChanges());
+        assertFalse(resolution.isAllLocal());
+        assertFalse(resolution.isOfflineHint());
+    }
+
+    @Test
+    void metadataVersionsIgnoreLastUpdated(@TempDir Path tempDir) throws Exception {
+        Path a = Files.writeString(tempDir.resolve("a.xml"), snapshotMetadata("20240101.120000", "1", "1"));
+        Path b = Files.writeString(tempDir.resolve("b.xml"), snapshotMetadata("20240101.120000", "1", "2"));
+        assertEquals(ResolutionProfile.versions(a.toFile()), ResolutionProfile.versions(b.toFile()));
+        assertNull(ResolutionProfile.versions(tempDir.resolve("missing.xml").toFile()));
+    }
+
+    @Test
+    void unresolvedArtifactsAreNotLocal() {
+        resolution.onEvent(resolved(new DefaultArtifact("com.example:missing:1.0"), null, null));
+        assertEquals(1, resolution.getUnresolved());
+        assertFalse(resolution.isAllLocal());
+    }
+
+    @Test
+    void resultWithoutRequestIsIgnored() {
+        resolution.resolved(mock(DependencyResolutionResult.class));
+        assertTrue(resolution.isEmpty());
+    }
+
+    private void roundTrip(Metadata metadata, RemoteRepository repository, RequestTrace trace, long from, long to) {
+        now.set(from);
+        resolution.onEvent(metadataEvent(RepositoryEvent.EventType.METADATA_DOWNLOADING, metadata, repository, trace));
+        now.set(to);
+        resolution.onEvent(metadataEvent(RepositoryEvent.EventType.METADATA_DOWNLOADED, metadata, repository, trace));
+        resolution.onEvent(metadataEvent(RepositoryEvent.EventType.METADATA_RESOLVED, metadata, repository, trace));
+    }
+
+    private void roundTrip(RepositorySystemSession session, Path local, String remote) throws Exception {
+        resolution.onEvent(new RepositoryEvent.Builder(session, RepositoryEvent.EventType.METADATA_DOWNLOADING)
+                .setMetadata(SNAPSHOT_METADATA).setRepository(SNAPSHOTS).build());
+        Files.writeString(local, remote);
+        resolution.onEvent(new RepositoryEvent.Builder(session, RepositoryEvent.EventType.METADATA_DOWNLOADED)
+                .setMetadata(SNAPSHOT_METADATA).setRepository(SNAPSHOTS).setFile(local.toFile()).build());
+    }
+
+    private static RepositorySystemSession sessionWithLocalRepository(Path basedir, Path metadata) {
+        LocalRepositoryManager manager = mock(LocalRepositoryManager.class);
+        when(manager.getRepository()).thenReturn(new LocalRepository(basedir.toFile()));
+        when(manager.getPathForRemoteMetadata(any(), any(), any()))
+                .thenReturn(basedir.relativize(metadata).toString());
+        RepositorySystemSession session = mock(RepositorySystemSession.class);
+        when(session.getLocalRepositoryManager()).thenReturn(manager);
+        return session;
+    }
+
+    private static String snapshotMetadata(String timestamp, String buildNumber, String lastUpdated) {
+        return "<metadata><groupId>com.example</groupId><artifactId>lib</artifactId><version>1.0-SNAPSHOT</version>"
+                + "<versioning><snapshot><timestamp>" + timestamp + "</timestamp><buildNumber>" + buildNumber
+                + "</buildNumber></snapshot><lastUpdated>" + lastUpdated + "</lastUpdated></versioning></metadata>";
+    }
+
+    static RepositoryEvent metadataEvent(RepositoryEvent.EventType type, Metadata metadata,
+                                         RemoteRepository repository, RequestTrace trace) {
+        return new RepositoryEvent.Builder(mock(RepositorySystemSession.class), type)
+                .setMetadata(metadata).setRepository(repository).setTrace(trace)
+                .build();
+    }
+
+    private static RepositoryEvent resolved(DefaultArtifact artifact, File file, RequestTrace trace) {
+        return DownloadProfileTest.event(RepositoryEvent.EventType.ARTIFACT_RESOLVED, artifact, null, file, trace);
+    }
+
+    private static DefaultDependencyResolutionRequest request(String artifactId) {
+        MavenProject project = mock(MavenProject.class);
+        when(project.getArtifactId()).thenReturn(artifactId);
+        return new DefaultDependencyResolutionRequest(project, mock(RepositorySystemSession.class));
+    }
+}
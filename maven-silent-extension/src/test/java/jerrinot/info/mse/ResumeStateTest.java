@@ -0,0 +1,60 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static jerrinot.info.mse.ReactorFixtures.project;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ResumeStateTest {
+
+    @Test
+    void resumeCoversFailedDownstreamAndUnreachedModules() {
+        MavenProject core = project("core");
+        MavenProject service = project("service");
+        MavenProject app = project("app");
+        MavenProject tools = project("tools");
+        MavenProject docs = project("docs");
+        List<MavenProject> all = Arrays.asList(core, service, app, tools, docs);
+        ProjectDependencyGraph graph = mock(ProjectDependencyGraph.class);
+        when(graph.getDownstreamProjects(service, true)).thenReturn(Collections.singletonList(app));
+
+        List<MavenProject> rerun = ResumeState.modulesToResume(all, graph,
+                Set.of("com.example:core", "com.example:tools", "com.example:app"),
+                Set.of("com.example:service"));
+
+        // app succeeded, but depends on the failed service module; docs never ran
+        assertEquals(Arrays.asList(service, app, docs), rerun);
+    }
+
+    @Test
+    void resumeIsEmptyWhenEverythingSucceeded() {
+        MavenProject core = project("core");
+        List<MavenProject> rerun = ResumeState.modulesToResume(Collections.singletonList(core), null,
+                Set.of("com.example:core"), Set.of());
+        assertTrue(rerun.isEmpty());
+    }
+
+    @Test
+    void writeThenReadRoundTrips(@TempDir Path tempDir) throws Exception {
+        File file = ResumeState.resumeFile(tempDir.toFile());
+        ResumeState.write(file, Arrays.asList(project("service"), project("app")));
+
+        assertTrue(file.getPath().endsWith("target" + File.separator + "mse-resume.txt"));
+        assertEquals(Set.of("com.example:service", "com.example:app"), ResumeState.read(file));
+
+        ResumeState.clear(file);
+        assertFalse(file.exists());
+        assertTrue(ResumeState.read(file).isEmpty());
+    }
+}
@@ -0,0 +1,60 @@
+package jerrinot.info.mse;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelfOverheadTest {
+
+    @Test
+    void accountsWallTimePerActivity() throws Exception {
+        SelfOverhead overhead = new SelfOverhead(-1);
+        SelfOverhead.Measurement dispatch = overhead.begin(SelfOverhead.DISPATCH, null);
+        SelfOverhead.Measurement parse = overhead.begin("parse-test-reports", "target/surefire-reports");
+        Thread.sleep(20);
+        overhead.end(parse);
+        overhead.end(overhead.begin("failure-details", "core"));
+        overhead.end(dispatch);
+
+        assertEquals(1, overhead.getDispatch().getCalls());
+        assertTrue(overhead.getDispatch().getWallNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+        List<Map.Entry<String, SelfOverhead.Activity>> activities = overhead.getActivities();
+        assertEquals(2, activities.size());
+        assertEquals("parse-test-reports", activities.get(0).getKey());
+        assertEquals(overhead.getParseNanos(), activities.get(0).getValue().getWallNanos());
+        assertFalse(overhead.isDegraded());
+    }
+
+    @Test
+    void theParseBudgetAppliesToEachParseOnItsOwn() throws Exception {
+        SelfOverhead overhead = new SelfOverhead(TimeUnit.MILLISECONDS.toNanos(10));
+        overhead.end(overhead.begin("failure-details", null));
+        assertFalse(overhead.isDegraded());
+
+        SelfOverhead.Measurement parse = overhead.begin("parse-test-reports", null);
+        assertFalse(overhead.isOverBudget(parse));
+        Thread.sleep(20);
+        // Already over budget while the parse is still running
+        assertTrue(overhead.isOverBudget(parse));
+        overhead.end(parse);
+        assertTrue(overhead.isDegraded());
+
+        SelfOverhead.Measurement next = overhead.begin("parse-test-reports", null);
+        assertFalse(overhead.isOverBudget(next));
+        overhead.end(next);
+    }
+
+    @Test
+    void negativeBudgetNeverDegrades() throws Exception {
+        SelfOverhead overhead = new SelfOverhead(-1);
+        SelfOverhead.Measurement parse = overhead.begin("parse-test-reports", null);
+        Thread.sleep(5);
+        assertFalse(overhead.isOverBudget(parse));
+        overhead.end(parse);
+        assertFalse(overhead.isDegraded());
+    }
+}
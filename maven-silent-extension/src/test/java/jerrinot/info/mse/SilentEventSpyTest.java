@@ -14,6 +14,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -640,6 +641,70 @@ class SilentEventSpyTest {
         assertTrue(lines[0].contains("MSE:SESSION_START"));
     }
 
+    @Test
+    void downloadsBeforeSessionStartAreReportedAtSessionEnd() throws Exception {
+        downloadParentPom();
+        java.util.Properties props = new java.util.Properties();
+        props.setProperty("mse.profile", "");
+        spy.onEvent(sessionStartedFor(mockSession(Collections.emptyList(), props)));
+        spy.onEvent(mockSessionEnded());
+
+        assertTrue(output().contains("MSE:DOWNLOADS artifacts=1 failed=0"), output());
+        assertTrue(output().contains("\n  repo central artifacts=1"), output());
+    }
+
+    @Test
+    void shortDownloadsAreNotReportedWithoutProfile() throws Exception {
+        downloadParentPom();
+        spy.onEvent(mockSessionStarted(1, Collections.singletonList("test")));
+        spy.onEvent(mockSessionEnded());
+
+        assertFalse(output().contains("MSE:DOWNLOADS"), output());
+    }
+
+    private void downloadParentPom() throws Exception {
+        org.eclipse.aether.artifact.DefaultArtifact parent =
+                new org.eclipse.aether.artifact.DefaultArtifact("com.example:parent:pom:1.0");
+        spy.onEvent(DownloadProfileTest.event(org.eclipse.aether.RepositoryEvent.EventType.ARTIFACT_DOWNLOADING,
+                parent, DownloadProfileTest.CENTRAL, null, null));
+        spy.onEvent(DownloadProfileTest.event(org.eclipse.aether.RepositoryEvent.EventType.ARTIFACT_DOWNLOADED,
+                parent, DownloadProfileTest.CENTRAL, null, null));
+    }
+
+    @Test
+    void profileOptionReportsDependencyResolution() throws Exception {
+        java.util.Properties props = new java.util.Properties();
+        props.setProperty("mse.profile", "");
+        MavenProject project = mock(MavenProject.class);
+        when(project.getArtifactId()).thenReturn("my-app");
+        spy.onEvent(sessionStartedFor(mockSession(Collections.singletonList(project), props)));
+        spy.onEvent(new org.apache.maven.project.DefaultDependencyResolutionRequest(project,
+                mock(org.eclipse.aether.RepositorySystemSession.class)));
+        spy.onEvent(mock(org.apache.maven.project.DependencyResolutionResult.class));
+        spy.onEvent(mockSessionEnded());
+
+        assertTrue(output().contains("MSE:RESOLUTION resolutions=1 "), output());
+        assertTrue(output().contains("\n  module my-app resolutions=1 "), output());
+        assertFalse(output().contains("MSE:OFFLINE_HINT"), output());
+        // Both resolution events are accounted as dispatch
+        assertTrue(output().contains(" events=2"), output());
+    }
+
+    @Test
+    void failingResolutionEventDeactivatesInsteadOfThrowing() throws Exception {
+        spy.onEvent(mockSessionStarted(1, Collections.singletonList("test")));
+        org.apache.maven.project.DependencyResolutionRequest request =
+                mock(org.apache.maven.project.DependencyResolutionRequest.class);
+        when(request.getMavenProject()).thenThrow(new IllegalStateException("boom"));
+
+        spy.onEvent(request);
+
+        assertTrue(output().contains("MSE:PASSTHROUGH IllegalStateException: boom"), output());
+        baos.reset();
+        spy.onEvent(mockSessionEnded());
+        assertEquals("", output());
+    }
+
     @Test
     void mojoFailedForTestPluginWithNullProjectDoesNotParseTests() throws Exception {
         spy.onEvent(mockSessionStarted(1, Collections.singletonList("test")));
@@ -1014,8 +1079,455 @@ class SilentEventSpyTest {
         assertEquals("wrapper 5", result);
     }
 
+    @Test
+    void failedBuildEmitsResumeAndNextResumeBuildIsTrimmed(@TempDir Path tempDir) throws Exception {
+        MavenProject root = mockProject("root", tempDir.toFile());
+        MavenProject core = mockProject("core", tempDir.resolve("core").toFile());
+        MavenProject app = mockProject("app", tempDir.resolve("app").toFile());
+        java.util.List<MavenProject> all = Arrays.asList(root, core, app);
+
+        try {
+            MavenSession first = mockSession(all, new java.util.Properties());
+            spy.onEvent(sessionStartedFor(first));
+            spy.onEvent(projectEventFor(ExecutionEvent.Type.ProjectSucceeded, root));
+            spy.onEvent(projectEventFor(ExecutionEvent.Type.ProjectFailed, core));
+            spy.onEvent(mockSessionEnded());
+
+            assertTrue(output().contains("MSE:RESUME modules=2 pl=:core,:app"), output());
+            assertTrue(Files.exists(tempDir.resolve("target/mse-resume.txt")));
+
+            java.util.Properties props = new java.util.Properties();
+            props.setProperty("mse.resume", "");
+            MavenSession second = mockSession(all, props);
+            spy.onEvent(sessionStartedFor(second));
+
+            verify(second).setProjects(Arrays.asList(core, app));
+            assertTrue(output().contains("MSE:SESSION_START modules=2 goals=verify skipped=1"), output());
+
+            spy.onEvent(projectEventFor(ExecutionEvent.Type.ProjectSucceeded, core));
+            spy.onEvent(projectEventFor(ExecutionEvent.Type.ProjectSucceeded, app));
+            spy.onEvent(mockSessionEnded());
+            assertFalse(Files.exists(tempDir.resolve("target/mse-resume.txt")));
+        } finally {
+            // Strict mode keeps stdio redirected into tempDir until close()
+            spy.close();
+        }
+    }
+
+    @Test
+    void failFastLeavesFailingMojoToMavenReactor() throws Exception {
+        java.util.Properties props = new java.util.Properties();
+        props.setProperty("mse.failFast", "true");
+        props.setProperty("failsafe.skipAfterFailureCount", "3");
+        MavenSession session = mockSession(Arrays.asList(mock(MavenProject.class), mock(MavenProject.class)), props);
+        org.apache.maven.execution.MavenExecutionRequest request =
+                mock(org.apache.maven.execution.MavenExecutionRequest.class);
+        when(request.getDegreeOfConcurrency()).thenReturn(1);
+        when(session.getRequest()).thenReturn(request);
+
+        spy.onEvent(sessionStartedFor(session));
+        assertEquals("1", props.getProperty("surefire.skipAfterFailureCount"));
+        assertEquals("3", props.getProperty("failsafe.skipAfterFailureCount"));
+
+        MojoExecution mojo = mock(MojoExecution.class);
+        when(mojo.getArtifactId()).thenReturn("maven-compiler-plugin");
+        when(mojo.getGoal()).thenReturn("compile");
+        spy.onEvent(mockMojoEvent(ExecutionEvent.Type.MojoFailed, mojo, "my-app"));
+        verify(request, never()).setReactorFailureBehavior(any());
+        assertNull(props.getProperty("skipTests"));
+
+        spy.onEvent(mockProjectEvent(ExecutionEvent.Type.ProjectFailed));
+        spy.onEvent(mockSessionEnded());
+
+        assertTrue(output().contains("MSE:FAIL_FAST skipped=1 saved_est=0s"), output());
+        assertNull(props.getProperty("surefire.skipAfterFailureCount"));
+        assertEquals("3", props.getProperty("failsafe.skipAfterFailureCount"));
+    }
+
+    @Test
+    void failFastKeepsFailAtEndAndNamesModulesWhoseTestsWereSkipped(@TempDir Path tempDir) throws Exception {
+        Path reportsDir = tempDir.resolve("a/target/surefire-reports");
+        Files.createDirectories(reportsDir);
+        Files.write(reportsDir.resolve("TEST-com.example.FooTest.xml"),
+                ("<testsuite name=\"com.example.FooTest\" tests=\"1\" failures=\"1\" errors=\"0\" skipped=\"0\">\n"
+                        + "  <testcase name=\"testBad\" classname=\"com.example.FooTest\" time=\"0.02\">\n"
+                        + "    <failure message=\"expected true\">AssertionFailedError</failure>\n"
+                        + "  </testcase>\n"
+                        + "</testsuite>").getBytes());
+        java.util.Properties props = new java.util.Properties();
+        props.setProperty("mse.failFast", "true");
+        MavenProject a = mock(MavenProject.class);
+        when(a.getGroupId()).thenReturn("com.example");
+        when(a.getArtifactId()).thenReturn("a");
+        when(a.getBasedir()).thenReturn(tempDir.resolve("a").toFile());
+        MavenProject b = mock(MavenProject.class);
+        when(b.getGroupId()).thenReturn("com.example");
+        when(b.getArtifactId()).thenReturn("b");
+        when(b.getBasedir()).thenReturn(tempDir.resolve("b").toFile());
+        MavenSession session = mockSession(Arrays.asList(a, b), props);
+        org.apache.maven.execution.MavenExecutionRequest request =
+                mock(org.apache.maven.execution.MavenExecutionRequest.class);
+        when(request.getDegreeOfConcurrency()).thenReturn(1);
+        when(request.getReactorFailureBehavior())
+                .thenReturn(org.apache.maven.execution.MavenExecutionRequest.REACTOR_FAIL_AT_END);
+        when(session.getRequest()).thenReturn(request);
+        spy.onEvent(sessionStartedFor(session));
+
+        MojoExecution test = MojoProfileTest.mojo("maven-surefire-plugin", "test", "default-test", "test");
+        spy.onEvent(mojoEventFor(ExecutionEvent.Type.MojoStarted, test, a));
+        // testFailureIgnore: the mojo succeeds although a test failed
+        spy.onEvent(mojoEventFor(ExecutionEvent.Type.MojoSucceeded, test, a));
+        spy.onEvent(projectEventFor(ExecutionEvent.Type.ProjectSucceeded, a));
+        assertEquals("true", props.getProperty("skipTests"));
+        spy.onEvent(mojoEventFor(ExecutionEvent.Type.MojoStarted, test, b));
+        spy.onEvent(mojoEventFor(ExecutionEvent.Type.MojoSucceeded, test, b));
+        spy.onEvent(projectEventFor(ExecutionEvent.Type.ProjectSucceeded, b));
+        spy.onEvent(mockSessionEnded());
+
+        verify(request, never()).setReactorFailureBehavior(any());
+        assertTrue(output().contains("MSE:FAIL_FAST skipped=0 saved_est=0s tests_skipped=1\n"
+                + "  tests_skipped com.example:b"), output());
+    }
+
+    @Test
+    void failFastOffLeavesReactorBehaviorAlone() throws Exception {
+        MavenSession session = mockSession(Collections.singletonList(mock(MavenProject.class)),
+                new java.util.Properties());
+        org.apache.maven.execution.MavenExecutionRequest request =
+                mock(org.apache.maven.execution.MavenExecutionRequest.class);
+        when(session.getRequest()).thenReturn(request);
+
+        spy.onEvent(sessionStartedFor(session));
+        MojoExecution mojo = mock(MojoExecution.class);
+        when(mojo.getArtifactId()).thenReturn("maven-compiler-plugin");
+        spy.onEvent(mockMojoEvent(ExecutionEvent.Type.MojoFailed, mojo, "my-app"));
+        spy.onEvent(mockSessionEnded());
+
+        verify(request, never()).setReactorFailureBehavior(any());
+        assertFalse(output().contains("MSE:FAIL_FAST"));
+    }
+
+    @Test
+    void heapThresholdOutsidePercentRangeIsReported() throws Exception {
+        for (String value : new String[]{"100", "150", "-5", "lots"}) {
+            baos.reset();
+            java.util.Properties props = new java.util.Properties();
+            props.setProperty("mse.heap", value);
+            spy.onEvent(sessionStartedFor(mockSession(Collections.singletonList(mock(MavenProject.class)), props)));
+            spy.onEvent(mockSessionEnded());
+            assertTrue(output().contains("invalid mse.heap value: " + value), output());
+        }
+
+        baos.reset();
+        java.util.Properties props = new java.util.Properties();
+        props.setProperty("mse.heap", "90");
+        spy.onEvent(sessionStartedFor(mockSession(Collections.singletonList(mock(MavenProject.class)), props)));
+        spy.onEvent(mockSessionEnded());
+        assertFalse(output().contains("invalid mse.heap"), output());
+    }
+
+    @Test
+    void forksModeSetsForkPropertiesAndReportsThem() throws Exception {
+        java.util.Properties props = new java.util.Properties();
+        props.setProperty("mse.forks", "");
+        MavenSession session = mockSession(Collections.singletonList(mock(MavenProject.class)), props);
+
+        spy.onEvent(sessionStartedFor(session));
+        String forkCount = props.getProperty("forkCount");
+        assertNotNull(forkCount);
+        assertEquals("true", props.getProperty("reuseForks"));
+
+        spy.onEvent(mockSessionEnded());
+        assertTrue(output().contains("MSE:FORKS forkCount=" + forkCount + " reuseForks=true"), output());
+        assertFalse(props.containsKey("forkCount"));
+        assertFalse(props.containsKey("reuseForks"));
+    }
+
+    @Test
+    void forksModeRespectsExplicitForkCount() throws Exception {
+        java.util.Properties props = new java.util.Properties();
+        props.setProperty("mse.forks", "");
+        props.setProperty("forkCount", "3");
+        MavenSession session = mockSession(Collections.singletonList(mock(MavenProject.class)), props);
+
+        spy.onEvent(sessionStartedFor(session));
+        spy.onEvent(mockSessionEnded());
+
+        assertEquals("3", props.getProperty("forkCount"));
+        assertFalse(output().contains("MSE:FORKS"));
+    }
+
+    @Test
+    void forkProfileExtendsModuleArgLineAndRestoresIt(@TempDir Path tempDir) throws Exception {
+        java.util.Properties props = new java.util.Properties();
+        props.setProperty("mse.forkProfile", "");
+        MavenProject project = mock(MavenProject.class);
+        java.util.Properties projectProps = new java.util.Properties();
+        projectProps.setProperty("argLine", "-javaagent:jacoco.jar");
+        when(project.getProperties()).thenReturn(projectProps);
+        org.apache.maven.model.Build build = new org.apache.maven.model.Build();
+        build.setDirectory(tempDir.resolve("target").toString());
+        when(project.getBuild()).thenReturn(build);
+        MavenSession session = mockSession(Collections.singletonList(project), props);
+
+        spy.onEvent(sessionStartedFor(session));
+        String argLine = projectProps.getProperty("argLine");
+        assertTrue(argLine.startsWith("-javaagent:jacoco.jar -XX:StartFlightRecording="), argLine);
+        assertTrue(argLine.contains(tempDir.resolve("target").resolve("mse-jfr").toString()), argLine);
+        assertFalse(props.containsKey("argLine"));
+
+        spy.onEvent(mockSessionEnded());
+        assertEquals("-javaagent:jacoco.jar", projectProps.getProperty("argLine"));
+    }
+
+    @Test
+    void forkProfileExtendsExplicitUserArgLine() throws Exception {
+        java.util.Properties props = new java.util.Properties();
+        props.setProperty("mse.forkProfile", "true");
+        props.setProperty("argLine", "-Xmx1g");
+        MavenSession session = mockSession(Collections.singletonList(mock(MavenProject.class)), props);
+
+        spy.onEvent(sessionStartedFor(session));
+        assertTrue(props.getProperty("argLine").startsWith("-Xmx1g -XX:StartFlightRecording="));
+
+        spy.onEvent(mockSessionEnded());
+        assertEquals("-Xmx1g", props.getProperty("argLine"));
+    }
+
+    @Test
+    void profileOptionEmitsMojoProfileAtSessionEnd() throws Exception {
+        java.util.Properties props = new java.util.Properties();
+        props.setProperty("mse.profile", "");
+        MavenSession session = mockSession(Collections.singletonList(mock(MavenProject.class)), props);
+        spy.onEvent(sessionStartedFor(session));
+
+        MojoExecution mojo = MojoProfileTest.mojo("maven-jar-plugin", "jar", "default-jar", "package");
+        spy.onEvent(mockMojoEvent(ExecutionEvent.Type.MojoStarted, mojo, "my-app"));
+        spy.onEvent(mockMojoEvent(ExecutionEvent.Type.MojoSucceeded, mojo, "my-app"));
+        spy.onEvent(mockSessionEnded());
+
+        assertTrue(output().contains("MSE:PROFILE mojos=1 "), output());
+        assertTrue(output().contains("  mojo "), output());
+        assertTrue(output().contains(" maven-jar-plugin:jar @ my-app"), output());
+        assertTrue(output().contains("  phase "), output());
+    }
+
+    @Test
+    void profileIsNotEmittedByDefault() throws Exception {
+        MavenSession session = mockSession(Collections.singletonList(mock(MavenProject.class)),
+                new java.util.Properties());
+        spy.onEvent(sessionStartedFor(session));
+        MojoExecution mojo = MojoProfileTest.mojo("maven-jar-plugin", "jar", "default-jar", "package");
+        spy.onEvent(mockMojoEvent(ExecutionEvent.Type.MojoStarted, mojo, "my-app"));
+        spy.onEvent(mockMojoEvent(ExecutionEvent.Type.MojoSucceeded, mojo, "my-app"));
+        spy.onEvent(mockSessionEnded());
+
+        assertFalse(output().contains("MSE:PROFILE"), output());
+    }
+
+    @Test
+    void traceOptionStreamsModuleMojoAndSuiteSpans(@TempDir Path tempDir) throws Exception {
+        java.io.File reportsDir = tempDir.resolve("target/surefire-reports").toFile();
+        reportsDir.mkdirs();
+        Files.writeString(reportsDir.toPath().resolve("TEST-com.example.CoreTest.xml"),
+                "<testsuite name=\"com.example.CoreTest\" tests=\"2\" failures=\"0\" errors=\"0\""
+                        + " skipped=\"0\" time=\"0.250\"/>");
+        java.util.Properties props = new java.util.Properties();
+        props.setProperty("mse.trace", "");
+        MavenProject project = mockProject("core", tempDir.toFile());
+        MavenSession session = mockSession(Collections.singletonList(project), props);
+        try {
+            spy.onEvent(sessionStartedFor(session));
+            spy.onEvent(projectEventFor(ExecutionEvent.Type.ProjectStarted, project));
+            MojoExecution mojo = MojoProfileTest.mojo("maven-surefire-plugin", "test", "default-test", "test");
+            ExecutionEvent mojoStarted = projectEventFor(ExecutionEvent.Type.MojoStarted, project);
+            when(mojoStarted.getMojoExecution()).thenReturn(mojo);
+            ExecutionEvent mojoSucceeded = projectEventFor(ExecutionEvent.Type.MojoSucceeded, project);
+            when(mojoSucceeded.getMojoExecution()).thenReturn(mojo);
+            spy.onEvent(mojoStarted);
+            spy.onEvent(mojoSucceeded);
+            spy.onEvent(projectEventFor(ExecutionEvent.Type.ProjectSucceeded, project));
+            spy.onEvent(mockSessionEnded());
+        } finally {
+            spy.close();
+        }
+
+        java.io.File trace = tempDir.resolve("target/mse-trace.json").toFile();
+        assertTrue(output().contains("MSE:TRACE " + trace.getAbsolutePath()), output());
+        String json = Files.readString(trace.toPath());
+        assertTrue(json.startsWith("[\n"), json);
+        assertTrue(json.endsWith("\n]\n"), json);
+        assertTrue(json.contains("\"name\":\"core\",\"cat\":\"module\""), json);
+        assertTrue(json.contains("\"name\":\"maven-surefire-plugin:test\",\"cat\":\"mojo\""), json);
+        assertTrue(json.contains("\"name\":\"com.example.CoreTest\",\"cat\":\"test\""), json);
+    }
+
+    @Test
+    void traceSurvivesCleanDeletingTargetMidSession(@TempDir Path tempDir) throws Exception {
+        java.util.Properties props = new java.util.Properties();
+        props.setProperty("mse.trace", "");
+        MavenProject project = mockProject("core", tempDir.toFile());
+        MavenSession session = mockSession(Collections.singletonList(project), props);
+        Path target = tempDir.resolve("target");
+        Files.createDirectories(target.resolve("classes"));
+        try {
+            spy.onEvent(sessionStartedFor(session));
+            spy.onEvent(projectEventFor(ExecutionEvent.Type.ProjectStarted, project));
+            MojoExecution clean = MojoProfileTest.mojo("maven-clean-plugin", "clean", "default-clean", "clean");
+            ExecutionEvent cleanStarted = projectEventFor(ExecutionEvent.Type.MojoStarted, project);
+            when(cleanStarted.getMojoExecution()).thenReturn(clean);
+            ExecutionEvent cleanSucceeded = projectEventFor(ExecutionEvent.Type.MojoSucceeded, project);
+            when(cleanSucceeded.getMojoExecution()).thenReturn(clean);
+            spy.onEvent(cleanStarted);
+            try (java.util.stream.Stream<Path> files = Files.walk(target)) {
+                files.sorted(java.util.Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+            spy.onEvent(cleanSucceeded);
+            spy.onEvent(projectEventFor(ExecutionEvent.Type.ProjectSucceeded, project));
+            spy.onEvent(mockSessionEnded());
+        } finally {
+            spy.close();
+        }
+
+        Path trace = target.resolve("mse-trace.json");
+        assertTrue(output().contains("MSE:TRACE " + trace.toFile().getAbsolutePath()), output());
+        String json = Files.readString(trace);
+        assertTrue(json.endsWith("\n]\n"), json);
+        assertTrue(json.contains("\"name\":\"maven-clean-plugin:clean\",\"cat\":\"mojo\""), json);
+        assertTrue(json.contains("\"name\":\"core\",\"cat\":\"module\""), json);
+    }
+
+    @Test
+    void metricsOptionWritesPrometheusTextFile(@TempDir Path tempDir) throws Exception {
+        java.util.Properties props = new java.util.Properties();
+        props.setProperty("mse.metrics", "build/metrics.prom");
+        MavenProject project = mockProject("core", tempDir.toFile());
+        MavenSession session = mockSession(Collections.singletonList(project), props);
+        try {
+            spy.onEvent(sessionStartedFor(session));
+            spy.onEvent(projectEventFor(ExecutionEvent.Type.ProjectStarted, project));
+            spy.onEvent(projectEventFor(ExecutionEvent.Type.ProjectSucceeded, project));
+            spy.onEvent(mockSessionEnded());
+        } finally {
+            spy.close();
+        }
+
+        Path metrics = tempDir.resolve("build/metrics.prom");
+        assertTrue(output().contains("MSE:METRICS " + metrics.toFile().getAbsolutePath()), output());
+        String text = Files.readString(metrics);
+        assertTrue(text.contains("mse_modules{state=\"succeeded\"} 1\n"), text);
+        assertTrue(text.contains("mse_module_wall_seconds{module=\"com.example:core\"} "), text);
+    }
+
+    @Test
+    void otlpOptionExportsSessionModuleAndMojoSpans(@TempDir Path tempDir) throws Exception {
+        List<String> bodies = new java.util.concurrent.CopyOnWriteArrayList<>();
+        com.sun.net.httpserver.HttpServer collector =
+                com.sun.net.httpserver.HttpServer.create(new java.net.InetSocketAddress("127.0.0.1", 0), 0);
+        collector.createContext("/v1/traces", exchange -> {
+            bodies.add(new String(exchange.getRequestBody().readAllBytes(), java.nio.charset.StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        collector.start();
+        try {
+            java.util.Properties props = new java.util.Properties();
+            props.setProperty("mse.otlp", "http://127.0.0.1:" + collector.getAddress().getPort() + "/v1/traces");
+            MavenProject project = mockProject("core", tempDir.toFile());
+            MavenSession session = mockSession(Collections.singletonList(project), props);
+            spy.onEvent(sessionStartedFor(session));
+            spy.onEvent(projectEventFor(ExecutionEvent.Type.ProjectStarted, project));
+            MojoExecution mojo = MojoProfileTest.mojo("maven-jar-plugin", "jar", "default-jar", "package");
+            ExecutionEvent mojoStarted = projectEventFor(ExecutionEvent.Type.MojoStarted, project);
+            when(mojoStarted.getMojoExecution()).thenReturn(mojo);
+            ExecutionEvent mojoSucceeded = projectEventFor(ExecutionEvent.Type.MojoSucceeded, project);
+            when(mojoSucceeded.getMojoExecution()).thenReturn(mojo);
+            spy.onEvent(mojoStarted);
+            spy.onEvent(mojoSucceeded);
+            spy.onEvent(projectEventFor(ExecutionEvent.Type.ProjectSucceeded, project));
+            spy.onEvent(mockSessionEnded());
+        } finally {
+            spy.close();
+            collector.stop(0);
+        }
+
+        assertTrue(output().contains("MSE:OTLP trace_id="), output());
+        assertTrue(output().contains(" spans=3"), output());
+        String all = String.join("\n", bodies);
+        assertTrue(all.contains("\"name\":\"maven verify\""), all);
+        assertTrue(all.contains("\"name\":\"core\""), all);
+        assertTrue(all.contains("\"name\":\"maven-jar-plugin:jar\""), all);
+    }
+
+    @Test
+    void exhaustedParseBudgetStillReportsFailureDetails(@TempDir Path tempDir) throws Exception {
+        Path reportsDir = tempDir.resolve("target/surefire-reports");
+        Files.createDirectories(reportsDir);
+        Files.writeString(reportsDir.resolve("TEST-com.example.FooTest.xml"),
+                "<testsuite name=\"com.example.FooTest\" tests=\"2\" failures=\"1\" errors=\"0\" skipped=\"0\">"
+                        + "<testcase name=\"broken\" classname=\"com.example.FooTest\">"
+                        + "<failure message=\"boom\">trace</failure></testcase></testsuite>");
+        Files.writeString(reportsDir.resolve("TEST-com.example.BarTest.xml"),
+                "<testsuite name=\"com.example.BarTest\" tests=\"3\" failures=\"0\" errors=\"0\" skipped=\"0\"/>");
+        java.util.Properties props = new java.util.Properties();
+        props.setProperty("mse.overheadBudget", "0");
+        MavenProject project = mockProject("core", tempDir.toFile());
+        MavenSession session = mockSession(Collections.singletonList(project), props);
+        spy.onEvent(sessionStartedFor(session));
+        MojoExecution mojo = MojoProfileTest.mojo("maven-surefire-plugin", "test", "default-test", "test");
+        ExecutionEvent mojoSucceeded = projectEventFor(ExecutionEvent.Type.MojoSucceeded, project);
+        when(mojoSucceeded.getMojoExecution()).thenReturn(mojo);
+        spy.onEvent(mojoSucceeded);
+        spy.onEvent(mockSessionEnded());
+
+        String result = output();
+        assertTrue(result.contains("MSE:TESTS total=5 passed=4 failed=1"), result);
+        assertTrue(result.contains("boom"), result);
+        assertTrue(result.contains("degraded=counts-only"), result);
+        assertTrue(result.contains("  parse-test-reports calls=1"), result);
+    }
+
     // --- Helper methods ---
 
+    private MavenProject mockProject(String artifactId, java.io.File basedir) {
+        MavenProject project = mock(MavenProject.class);
+        when(project.getArtifactId()).thenReturn(artifactId);
+        when(project.getGroupId()).thenReturn("com.example");
+        when(project.getBasedir()).thenReturn(basedir);
+        return project;
+    }
+
+    /**
+     * Session mock whose project list follows {@code setProjects}, like the real session.
+     */
+    private MavenSession mockSession(java.util.List<MavenProject> projects, java.util.Properties userProps) {
+        MavenSession session = mock(MavenSession.class);
+        java.util.concurrent.atomic.AtomicReference<java.util.List<MavenProject>> current =
+                new java.util.concurrent.atomic.AtomicReference<>(projects);
+        when(session.getProjects()).thenAnswer(inv -> current.get());
+        doAnswer(inv -> {
+            current.set(inv.getArgument(0));
+            return null;
+        }).when(session).setProjects(any());
+        when(session.getGoals()).thenReturn(Collections.singletonList("verify"));
+        when(session.getUserProperties()).thenReturn(userProps);
+        return session;
+    }
+
+    private ExecutionEvent sessionStartedFor(MavenSession session) {
+        ExecutionEvent event = mock(ExecutionEvent.class);
+        when(event.getType()).thenReturn(ExecutionEvent.Type.SessionStarted);
+        when(event.getSession()).thenReturn(session);
+        return event;
+    }
+
+    private ExecutionEvent projectEventFor(ExecutionEvent.Type type, MavenProject project) {
+        ExecutionEvent event = mock(ExecutionEvent.class);
+        when(event.getType()).thenReturn(type);
+        when(event.getProject()).thenReturn(project);
+        return event;
+    }
+
     /**
      * Fake exception class that exposes getLongMessage() via reflection,
      * simulating MojoFailureException's behavior.
@@ -1061,6 +1573,14 @@ class SilentEventSpyTest {
         return event;
     }
 
+    private ExecutionEvent mojoEventFor(ExecutionEvent.Type type, MojoExecution mojo, MavenProject project) {
+        ExecutionEvent event = mock(ExecutionEvent.class);
+        when(event.getType()).thenReturn(type);
+        when(event.getMojoExecution()).thenReturn(mojo);
+        when(event.getProject()).thenReturn(project);
+        return event;
+    }
+
     private ExecutionEvent mockMojoEvent(ExecutionEvent.Type type, MojoExecution mojo, String artifactId) {
         ExecutionEvent event = mock(ExecutionEvent.class);
         when(event.getType()).thenReturn(type);
@@ -0,0 +1,59 @@
+package jerrinot.info.mse;
+
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StackSamplerTest {
+
+    @Test
+    void collapsesRootFirstUnderTheMojo() {
+        StackTraceElement[] frames = {
+                new StackTraceElement("com.sun.tools.javac.main.JavaCompiler", "compile", null, 1),
+                new StackTraceElement("org.apache.maven.plugin.compiler.CompilerMojo", "execute", null, 2),
+                new StackTraceElement("java.lang.Thread", "run", null, 3),
+        };
+        assertEquals("core:maven-compiler-plugin:compile;java.lang.Thread.run"
+                        + ";org.apache.maven.plugin.compiler.CompilerMojo.execute"
+                        + ";com.sun.tools.javac.main.JavaCompiler.compile",
+                StackSampler.collapse("core:maven-compiler-plugin:compile", frames));
+    }
+
+    @Test
+    void rootFrameHasNoSeparators() {
+        MojoExecution mojo = MojoProfileTest.mojo("my plugin", "run;twice", "default-run", "compile");
+        assertEquals("unknown:my_plugin:run_twice", StackSampler.rootFrame(null, mojo));
+    }
+
+    @Test
+    void samplesOnlyThreadsInsideAMojo() throws Exception {
+        MavenProject core = mock(MavenProject.class);
+        when(core.getArtifactId()).thenReturn("core");
+        MojoExecution compile = MojoProfileTest.mojo("maven-compiler-plugin", "compile", "default-compile", "compile");
+
+        StackSampler sampler = StackSampler.start(1);
+        Thread.sleep(20);
+        assertEquals(0, sampler.getSamples());
+        sampler.mojoStarted(core, compile);
+        spin(200);
+        sampler.mojoFinished();
+        sampler.close();
+
+        assertTrue(sampler.getSamples() > 0);
+        String collapsed = sampler.render();
+        assertTrue(collapsed.startsWith("core:maven-compiler-plugin:compile;"), collapsed);
+        assertTrue(collapsed.contains("StackSamplerTest.spin"), collapsed);
+        assertTrue(collapsed.trim().matches("(?s).* \\d+"), collapsed);
+        assertTrue(sampler.getSamplingNanos() > 0);
+    }
+
+    private static long spin(long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        long x = 0;
+        while (System.nanoTime() < deadline) x += deadline % 7;
+        return x;
+    }
+}
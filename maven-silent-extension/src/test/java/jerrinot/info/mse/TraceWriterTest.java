@@ -0,0 +1,51 @@
+package jerrinot.info.mse;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceWriterTest {
+
+    @Test
+    void writesCompleteEventsWithThreadTracks() throws Exception {
+        StringWriter out = new StringWriter();
+        TraceWriter writer = new TraceWriter(out, 1_000_000L);
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("module", "core");
+        writer.span("maven-compiler-plugin:compile", "mojo", 7L, 3_000_000L, 5_500_000L, args);
+        writer.span("core", "module", 7L, 1_000_000L, 9_000_000L, null);
+        writer.span("app", "module", 42L, 2_000_000L, 4_000_000L, Collections.emptyMap());
+        writer.close();
+
+        assertEquals("[\n"
+                + "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":1,\"args\":{\"name\":\"builder-1\"}},\n"
+                + "{\"name\":\"maven-compiler-plugin:compile\",\"cat\":\"mojo\",\"ph\":\"X\",\"pid\":1,\"tid\":1,"
+                + "\"ts\":2000,\"dur\":2500,\"args\":{\"module\":\"core\"}},\n"
+                + "{\"name\":\"core\",\"cat\":\"module\",\"ph\":\"X\",\"pid\":1,\"tid\":1,\"ts\":0,\"dur\":8000},\n"
+                + "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":2,\"args\":{\"name\":\"builder-2\"}},\n"
+                + "{\"name\":\"app\",\"cat\":\"module\",\"ph\":\"X\",\"pid\":1,\"tid\":2,\"ts\":1000,\"dur\":2000}\n"
+                + "]\n", out.toString());
+    }
+
+    @Test
+    void escapesNames() {
+        StringBuilder sb = new StringBuilder();
+        TraceWriter.appendString(sb, "a\"b\\c\nd\u0001");
+        assertEquals("\"a\\\"b\\\\c\\nd\\u0001\"", sb.toString());
+    }
+
+    @Test
+    void spansAfterCloseAreDropped() throws Exception {
+        StringWriter out = new StringWriter();
+        TraceWriter writer = new TraceWriter(out, 0);
+        writer.close();
+        writer.span("late", "mojo", 1L, 0, 1, null);
+        writer.close();
+        assertEquals("[\n\n]\n", out.toString());
+    }
+}
@@ -0,0 +1,102 @@
+package jerrinot.info.mse;
+
+import jerrinot.info.mse.model.MojoTiming;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UnsafeMojosTest {
+
+    private static final long S = 1_000_000_000L;
+
+    @Test
+    void classifiesByDescriptor() {
+        assertEquals(UnsafeMojos.Kind.AGGREGATOR, UnsafeMojos.classify(mojo(true, true)));
+        assertEquals(UnsafeMojos.Kind.NOT_THREAD_SAFE, UnsafeMojos.classify(mojo(false, false)));
+        assertNull(UnsafeMojos.classify(mojo(false, true)));
+        assertNull(UnsafeMojos.classify(mock(MojoExecution.class)));
+        assertNull(UnsafeMojos.classify(null));
+    }
+
+    @Test
+    void aggregatorChargesOtherThreadsWaitingToStartAMojo() {
+        // thread 1 runs the aggregator 2-5s; thread 2 was ready at 3s but only started at 5s
+        MojoTiming aggregator = timing("maven-assembly-plugin", "single", 1, 2 * S, 2 * S, 5 * S);
+        MojoTiming waiting = timing("maven-jar-plugin", "jar", 2, 3 * S, 5 * S, 6 * S);
+        UnsafeMojos unsafe = new UnsafeMojos(true);
+        unsafe.record(aggregator, UnsafeMojos.Kind.AGGREGATOR, "3.6.0");
+
+        List<UnsafeMojos.Entry> entries = unsafe.summarize(Arrays.asList(aggregator, waiting));
+        assertEquals(1, entries.size());
+        UnsafeMojos.Entry entry = entries.get(0);
+        assertEquals("maven-assembly-plugin:3.6.0:single", entry.getMojo());
+        assertEquals(1, entry.getExecutions());
+        assertEquals(3 * S, entry.getHeldNanos());
+        assertEquals(2 * S, entry.getBlockedNanos());
+        assertEquals(0, entry.getOverlappedNanos());
+    }
+
+    @Test
+    void notThreadSafeMojoReportsOverlapAndRanksAfterBlocking() {
+        MojoTiming legacy = timing("legacy-plugin", "generate", 1, 0, 0, 4 * S);
+        MojoTiming other = timing("maven-compiler-plugin", "compile", 2, 0, 1 * S, 3 * S);
+        // ready at 4s, held back by the aggregator until it finished at 6s
+        MojoTiming sameThread = timing("maven-resources-plugin", "resources", 1, 4 * S, 6 * S, 7 * S);
+        MojoTiming aggregator = timing("agg-plugin", "run", 2, 3 * S, 5 * S, 6 * S);
+        UnsafeMojos unsafe = new UnsafeMojos(true);
+        unsafe.record(legacy, UnsafeMojos.Kind.NOT_THREAD_SAFE, null);
+        unsafe.record(aggregator, UnsafeMojos.Kind.AGGREGATOR, null);
+
+        List<UnsafeMojos.Entry> entries = unsafe.summarize(Arrays.asList(legacy, other, sameThread, aggregator));
+        assertEquals("agg-plugin:run", entries.get(0).getMojo());
+        assertEquals(1 * S, entries.get(0).getBlockedNanos());
+        UnsafeMojos.Entry entry = entries.get(1);
+        assertEquals("legacy-plugin:generate", entry.getMojo());
+        assertEquals(UnsafeMojos.Kind.NOT_THREAD_SAFE, entry.getKind());
+        assertEquals(2 * S, entry.getOverlappedNanos());
+        assertEquals(0, entry.getBlockedNanos());
+    }
+
+    @Test
+    void withoutTheAggregatorLockAggregatorsAreReportedByOverlap() {
+        // thread 2's wait from 3s to 5s is not the aggregator's doing without the lock
+        MojoTiming aggregator = timing("maven-assembly-plugin", "single", 1, 2 * S, 2 * S, 5 * S);
+        MojoTiming waiting = timing("maven-jar-plugin", "jar", 2, 3 * S, 5 * S, 6 * S);
+        MojoTiming parallel = timing("maven-compiler-plugin", "compile", 2, 0, 1 * S, 3 * S);
+        UnsafeMojos unsafe = new UnsafeMojos(false);
+        unsafe.record(aggregator, UnsafeMojos.Kind.AGGREGATOR, null);
+
+        UnsafeMojos.Entry entry = unsafe.summarize(Arrays.asList(aggregator, waiting, parallel)).get(0);
+        assertEquals(UnsafeMojos.Kind.AGGREGATOR, entry.getKind());
+        assertEquals(0, entry.getBlockedNanos());
+        assertEquals(1 * S, entry.getOverlappedNanos());
+    }
+
+    @Test
+    void mavenCoreOnTheClasspathHasNoAggregatorLock() {
+        // compiled and tested against maven-core 3.6.3, which runs aggregators unlocked
+        assertFalse(UnsafeMojos.hasAggregatorLock());
+        assertFalse(new UnsafeMojos().isAggregatorLock());
+    }
+
+    private static MojoExecution mojo(boolean aggregator, boolean threadSafe) {
+        MojoDescriptor descriptor = new MojoDescriptor();
+        descriptor.setAggregator(aggregator);
+        descriptor.setThreadSafe(threadSafe);
+        MojoExecution mojo = mock(MojoExecution.class);
+        when(mojo.getMojoDescriptor()).thenReturn(descriptor);
+        return mojo;
+    }
+
+    private static MojoTiming timing(String plugin, String goal, long thread, long ready, long start, long end) {
+        return MojoTiming.builder("com.example:core", "core", plugin, goal)
+                .executionId("default-" + goal).threadId(thread)
+                .readyNanos(ready).span(start, end).build();
+    }
+}
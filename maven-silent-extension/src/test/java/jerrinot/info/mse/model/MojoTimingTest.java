@@ -0,0 +1,53 @@
+package jerrinot.info.mse.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MojoTimingTest {
+
+    @Test
+    void builderDefaults() {
+        MojoTiming timing = MojoTiming.builder("com.example:core", "core", "maven-jar-plugin", "jar")
+                .span(100, 350)
+                .build();
+        assertNull(timing.getExecutionId());
+        assertNull(timing.getPhase());
+        assertEquals(100, timing.getReadyNanos());
+        assertEquals(250, timing.getDurationNanos());
+        assertFalse(timing.isFailed());
+        assertEquals(-1, timing.getCpuNanos());
+        assertEquals(-1, timing.getAllocatedBytes());
+        assertEquals(-1, timing.getLoadedClasses());
+    }
+
+    @Test
+    void accessors() {
+        MojoTiming timing = MojoTiming.builder("com.example:core", "core", "maven-surefire-plugin", "test")
+                .executionId("default-test").phase("test").threadId(7)
+                .readyNanos(40).span(100, 900).failed(true)
+                .cpuNanos(300).allocatedBytes(1024).loadedClasses(12)
+                .build();
+        assertEquals("default-test", timing.getExecutionId());
+        assertEquals("test", timing.getPhase());
+        assertEquals(7, timing.getThreadId());
+        assertEquals(40, timing.getReadyNanos());
+        assertTrue(timing.isFailed());
+        assertEquals(300, timing.getCpuNanos());
+        assertEquals(1024, timing.getAllocatedBytes());
+        assertEquals(12, timing.getLoadedClasses());
+    }
+
+    @Test
+    void readyIsNeverAfterStart() {
+        MojoTiming timing = MojoTiming.builder("com.example:core", "core", "maven-jar-plugin", "jar")
+                .readyNanos(500).span(100, 200).build();
+        assertEquals(100, timing.getReadyNanos());
+    }
+
+    @Test
+    void nullGoalThrowsNpe() {
+        assertThrows(NullPointerException.class,
+                () -> MojoTiming.builder("com.example:core", "core", "maven-jar-plugin", null));
+    }
+}
@@ -22,6 +22,15 @@ class TestSummaryTest {
         assertTrue(empty.getFailureDetails().isEmpty());
     }
 
+    @Test
+    void timeSumsSuiteTimes() {
+        TestSummary summary = new TestSummary(3, 0, 0, 0, Collections.emptyList(), List.of(
+                new TestSuiteTime("a.ATest", 1, 250), new TestSuiteTime("b.BTest", 2, 750)));
+        assertEquals(2, summary.getSuites().size());
+        assertEquals(1000, summary.getTimeMillis());
+        assertEquals(0, TestSummary.EMPTY.getTimeMillis());
+    }
+
     @Test
     void emptyConstantIsSingleton() {
         assertSame(TestSummary.EMPTY, TestSummary.EMPTY);